@@ -0,0 +1,20 @@
+package com.clinicsys.apigateway.cache;
+
+import java.util.List;
+
+/**
+ * Identity of a cached response: route, path and query, the caller's role (null when the
+ * route does not vary by role or the caller is anonymous) and the values of the route's
+ * configured {@code Vary} headers, in configuration order.
+ */
+public record CacheKey(String routeId, String path, String query, String role, List<String> varyValues) {
+
+    int estimatedSize() {
+        int size = 64 + routeId.length() + path.length() + (query == null ? 0 : query.length())
+                + (role == null ? 0 : role.length());
+        for (String value : varyValues) {
+            size += 16 + (value == null ? 0 : value.length());
+        }
+        return size;
+    }
+}
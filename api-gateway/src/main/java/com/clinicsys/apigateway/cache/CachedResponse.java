@@ -0,0 +1,33 @@
+package com.clinicsys.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A complete 200 response held by {@link ResponseCacheStore}. Headers are a read-only
+ * snapshot without hop-by-hop headers; {@code etag} is always set (taken from upstream or
+ * computed from the body).
+ */
+public record CachedResponse(HttpHeaders headers, byte[] body, String etag, long storedAt, long expiresAt) {
+
+    public boolean isFresh(long now) {
+        return now < expiresAt;
+    }
+
+    public long ageSeconds(long now) {
+        return Math.max(0, (now - storedAt) / 1000);
+    }
+
+    int weight(CacheKey key) {
+        long size = body.length + key.estimatedSize();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            size += header.getKey().length();
+            for (String value : header.getValue()) {
+                size += value.length() + 16;
+            }
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+}
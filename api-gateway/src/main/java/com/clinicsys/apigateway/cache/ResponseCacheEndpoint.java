@@ -0,0 +1,35 @@
+package com.clinicsys.apigateway.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/responsecache} reports cache statistics; {@code DELETE} purges entries,
+ * optionally narrowed by {@code routeId} and/or {@code path} prefix, e.g. after a catalog
+ * change that must be visible before the route's TTL runs out.
+ */
+@Component
+@Endpoint(id = "responsecache")
+public class ResponseCacheEndpoint {
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheEndpoint(ResponseCacheStore store) {
+        this.store = store;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return store.stats();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> purge(@Nullable String routeId, @Nullable String path) {
+        return Map.of("purged", store.purge(routeId, path));
+    }
+}
@@ -0,0 +1,105 @@
+package com.clinicsys.apigateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory-bounded store shared by every route using the {@code ResponseCache} filter. Entries
+ * are weighed by body plus header size against {@code gateway.response-cache.max-size-bytes};
+ * each one expires at its own route's TTL.
+ */
+@Component
+public class ResponseCacheStore {
+
+    public static final String CACHE_NAME = "gateway.response-cache";
+
+    private final Cache<CacheKey, CachedResponse> cache;
+    private final long maxEntryBytes;
+
+    public ResponseCacheStore(
+            @Value("${gateway.response-cache.max-size-bytes:67108864}") long maxSizeBytes,
+            @Value("${gateway.response-cache.max-entry-bytes:1048576}") long maxEntryBytes,
+            MeterRegistry meterRegistry) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSizeBytes)
+                .weigher((CacheKey key, CachedResponse value) -> value.weight(key))
+                .expireAfter(new Expiry<CacheKey, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(CacheKey key, CachedResponse value, long currentTime) {
+                        long remainingMillis = value.expiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(CacheKey key, CachedResponse value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(CacheKey key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public CachedResponse get(CacheKey key) {
+        CachedResponse response = cache.getIfPresent(key);
+        return response != null && response.isFresh(System.currentTimeMillis()) ? response : null;
+    }
+
+    public void put(CacheKey key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    /** Bodies larger than this are passed through uncached. */
+    public long maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Drops entries matching both criteria; a null criterion matches everything.
+     *
+     * @return the number of entries removed
+     */
+    public int purge(String routeId, String pathPrefix) {
+        int purged = 0;
+        Iterator<CacheKey> keys = cache.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            CacheKey key = keys.next();
+            if ((routeId == null || routeId.equals(key.routeId()))
+                    && (pathPrefix == null || key.path().startsWith(pathPrefix))) {
+                keys.remove();
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        long weight = cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("weightBytes", weight);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,13 @@
+package com.clinicsys.apigateway.config;
+
+import com.clinicsys.apigateway.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// Replaces the default round-robin balancer for every lb:// service
+@Configuration
+@ConditionalOnProperty(name = "gateway.load-balancer.latency-aware.enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -1,33 +1,83 @@
 package com.clinicsys.apigateway.config;
 
+import com.clinicsys.apigateway.filter.JwtVerificationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.util.matcher.AndServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
+import reactor.core.publisher.Mono;
+
 import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
+    private static final String ACTUATOR_PATHS = "/actuator/**";
+    private static final String[] OPEN_ACTUATOR_PATHS = {"/actuator/health/**", "/actuator/prometheus"};
+
     @Bean
-    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain springSecurityFilterChain(ServerHttpSecurity http,
+                                                            JwtVerificationFilter jwtVerificationFilter) {
         http
             .csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+            .httpBasic(basic -> basic.disable())
+            .formLogin(form -> form.disable())
+            .addFilterAt(actuatorAuthenticationFilter(jwtVerificationFilter), SecurityWebFiltersOrder.AUTHENTICATION)
+            .exceptionHandling(handling -> handling
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED))
+            )
+            // Routed requests are verified by JwtVerificationFilter; the gateway's own actuator
+            // endpoints (metrics, routes, response cache eviction) are not routed, so guard them here
             .authorizeExchange(authz -> authz
-                .pathMatchers("/api/auth/**").permitAll()
-                .pathMatchers("/actuator/**").permitAll()
-                .anyExchange().authenticated()
+                .pathMatchers(OPEN_ACTUATOR_PATHS).permitAll()
+                .pathMatchers(ACTUATOR_PATHS).hasRole("ADMIN")
+                .anyExchange().permitAll()
             );
         return http.build();
     }
 
+    /** Authenticates actuator requests from the same bearer access tokens the routes accept. */
+    private static AuthenticationWebFilter actuatorAuthenticationFilter(JwtVerificationFilter jwtVerificationFilter) {
+        ReactiveAuthenticationManager manager = authentication ->
+                jwtVerificationFilter.verify((String) authentication.getCredentials())
+                        .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Invalid token")))
+                        .map(claims -> new UsernamePasswordAuthenticationToken(claims.getSubject(), null,
+                                List.of(new SimpleGrantedAuthority("ROLE_" + claims.get("role")))));
+        AuthenticationWebFilter filter = new AuthenticationWebFilter(manager);
+        filter.setRequiresAuthenticationMatcher(new AndServerWebExchangeMatcher(
+                ServerWebExchangeMatchers.pathMatchers(ACTUATOR_PATHS),
+                new NegatedServerWebExchangeMatcher(ServerWebExchangeMatchers.pathMatchers(OPEN_ACTUATOR_PATHS))));
+        filter.setServerAuthenticationConverter(exchange -> {
+            String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (header == null || !header.startsWith("Bearer ")) {
+                return Mono.empty();
+            }
+            String token = header.substring(7);
+            return Mono.just(new UsernamePasswordAuthenticationToken(token, token));
+        });
+        return filter;
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration corsConfig = new CorsConfiguration();
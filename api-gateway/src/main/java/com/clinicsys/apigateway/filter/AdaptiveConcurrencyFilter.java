@@ -0,0 +1,97 @@
+package com.clinicsys.apigateway.filter;
+
+import com.clinicsys.apigateway.limit.RouteGuards;
+import com.clinicsys.apigateway.limit.RouteGuards.RouteGuard;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Per-route bulkhead in front of every routed call: a request first needs the route's circuit
+ * breaker to be closed (or a half-open probe slot) and then a slot under the route's adaptive
+ * concurrency limit; otherwise it is rejected at once with {@code 503} and {@code Retry-After}
+ * instead of queueing behind a service that is already saturated. 5xx responses other than
+ * {@code 503} and errors count as breaker failures; 502-504 and errors back the limit off. A
+ * {@code 503} from the service is deliberate load shedding, so it only backs the limit off:
+ * counting it would let a login burst open the breaker and cut off the whole route.
+ */
+@Component
+public class AdaptiveConcurrencyFilter implements GlobalFilter, Ordered {
+
+    private final RouteGuards routeGuards;
+    private final boolean enabled;
+
+    public AdaptiveConcurrencyFilter(
+            RouteGuards routeGuards,
+            @Value("${gateway.concurrency.enabled:true}") boolean enabled) {
+        this.routeGuards = routeGuards;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!enabled || route == null) {
+            return chain.filter(exchange);
+        }
+        RouteGuard guard = routeGuards.forRoute(route);
+        if (!guard.breaker().tryAcquire()) {
+            guard.circuitRejections().increment();
+            return reject(exchange);
+        }
+        int inFlight = guard.limit().tryAcquire();
+        if (inFlight < 0) {
+            guard.breaker().release();
+            guard.limitRejections().increment();
+            return reject(exchange);
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(done -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    int code = status != null ? status.value() : HttpStatus.OK.value();
+                    if (code == 502 || code == 503 || code == 504) {
+                        guard.limit().onDropped();
+                    } else {
+                        guard.limit().onSuccess(System.nanoTime() - start, inFlight);
+                    }
+                    if (code == 503) {
+                        // A service shedding load (auth-service's full hash queue) is answering, not failing
+                        guard.breaker().release();
+                    } else {
+                        guard.breaker().onResult(code >= 500);
+                    }
+                })
+                .doOnError(error -> {
+                    guard.limit().onDropped();
+                    guard.breaker().onResult(true);
+                })
+                .doOnCancel(() -> {
+                    guard.limit().release();
+                    guard.breaker().release();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // After ResponseCache and RequestCoalescing, so cache hits and coalesced waiters take no slot
+        return 0;
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return exchange.getResponse().setComplete();
+    }
+}
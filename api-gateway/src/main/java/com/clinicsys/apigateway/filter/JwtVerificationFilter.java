@@ -0,0 +1,182 @@
+package com.clinicsys.apigateway.filter;
+
+import com.clinicsys.apigateway.security.JwksKeyResolver;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies bearer tokens locally against auth-service's published keys and forwards the
+ * verified identity downstream as {@code X-User-*} headers. Identity headers sent by the
+ * client are always stripped first. Only access tokens ({@code typ=access}) count; a refresh
+ * token is treated like no token. Requests to non-public paths without a valid token are
+ * rejected here, so downstream services never need to call back to {@code /api/auth/validate}.
+ */
+@Component
+public class JwtVerificationFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    public static final String VERIFIED_CLAIMS_ATTR = JwtVerificationFilter.class.getName() + ".claims";
+
+    private static final String CLAIM_TOKEN_TYPE = "typ";
+    private static final String TOKEN_TYPE_ACCESS = "access";
+
+    private final JwksKeyResolver keyResolver;
+    private final ObjectMapper objectMapper;
+    private final List<PathPattern> publicPaths;
+    private final Timer verifiedTimer;
+    private final Timer expiredTimer;
+    private final Timer invalidTimer;
+
+    public JwtVerificationFilter(
+            JwksKeyResolver keyResolver,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.public-paths:/api/auth/**,/actuator/**}") List<String> publicPaths) {
+        this.keyResolver = keyResolver;
+        this.objectMapper = objectMapper;
+        this.publicPaths = publicPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.verifiedTimer = verifyTimer(meterRegistry, "success");
+        this.expiredTimer = verifyTimer(meterRegistry, "expired");
+        this.invalidTimer = verifyTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("gateway.jwt.verify")
+                .description("Local signature verification of bearer tokens")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest stripped = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_EMAIL_HEADER);
+                    headers.remove(USER_ROLE_HEADER);
+                })
+                .build();
+        boolean publicPath = isPublic(stripped);
+        String authHeader = stripped.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return publicPath ? chain.filter(exchange.mutate().request(stripped).build()) : reject(exchange);
+        }
+
+        return verify(authHeader.substring(7))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(claims -> {
+                    if (claims.isEmpty()) {
+                        return publicPath ? chain.filter(exchange.mutate().request(stripped).build()) : reject(exchange);
+                    }
+                    exchange.getAttributes().put(VERIFIED_CLAIMS_ATTR, claims.get());
+                    return chain.filter(exchange.mutate().request(withIdentity(stripped, claims.get())).build());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // Before anything that varies by identity (caching, coalescing, limits) and before routing
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+
+    /**
+     * Claims of {@code token} if it is a valid access token signed with a published key, or an
+     * empty {@code Mono} otherwise.
+     */
+    public Mono<Claims> verify(String token) {
+        String kid = keyId(token);
+        if (kid == null) {
+            return Mono.empty();
+        }
+        return keyResolver.parserFor(kid).handle((parser, sink) -> {
+            long start = System.nanoTime();
+            try {
+                Claims claims = parser.parseClaimsJws(token).getBody();
+                if (!TOKEN_TYPE_ACCESS.equals(claims.get(CLAIM_TOKEN_TYPE))) {
+                    invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    sink.complete();
+                    return;
+                }
+                verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                sink.next(claims);
+            } catch (ExpiredJwtException e) {
+                expiredTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                sink.complete();
+            } catch (JwtException | IllegalArgumentException e) {
+                invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                sink.complete();
+            }
+        });
+    }
+
+    private String keyId(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            JsonNode header = objectMapper.readTree(Base64.getUrlDecoder().decode(token.substring(0, dot)));
+            return "RS256".equals(header.path("alg").asText()) ? header.path("kid").asText(null) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ServerHttpRequest withIdentity(ServerHttpRequest request, Claims claims) {
+        return request.mutate()
+                .headers(headers -> {
+                    headers.set(USER_EMAIL_HEADER, claims.getSubject());
+                    Object userId = claims.get("uid");
+                    if (userId != null) {
+                        headers.set(USER_ID_HEADER, userId.toString());
+                    }
+                    Object role = claims.get("role");
+                    if (role != null) {
+                        headers.set(USER_ROLE_HEADER, role.toString());
+                    }
+                })
+                .build();
+    }
+
+    private boolean isPublic(ServerHttpRequest request) {
+        for (PathPattern pattern : publicPaths) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        return exchange.getResponse().setComplete();
+    }
+}
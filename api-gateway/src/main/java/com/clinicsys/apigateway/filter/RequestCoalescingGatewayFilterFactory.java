@@ -0,0 +1,297 @@
+package com.clinicsys.apigateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * {@code RequestCoalescing} route filter: identical GETs that arrive while one is already in
+ * flight wait for that call instead of making their own, and all of them get a copy of its
+ * response (status, headers, body). Requests are identical when route, path, query, auth
+ * {@code scope} and the route's key headers match. A waiter gives up after {@code max-wait}
+ * and calls upstream itself; so does every waiter when the leader fails or its body is
+ * larger than {@code max-body-bytes}. Unlike {@code ResponseCache} nothing outlives the call.
+ * <pre>
+ * filters:
+ *   - name: RequestCoalescing
+ *     args:
+ *       scope: role
+ * </pre>
+ * Counted in {@code gateway.coalescing.requests} by {@code role}: {@code leader} (went
+ * upstream), {@code follower} (upstream call saved) and {@code fallback} (waited, then went
+ * upstream anyway).
+ */
+@Component
+public class RequestCoalescingGatewayFilterFactory extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    public static final String COALESCED_HEADER = "X-Coalesced";
+
+    private static final Set<String> UNSHARED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization", "set-cookie");
+
+    private final Map<FlightKey, Sinks.One<Optional<SharedResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("scope");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<String> keyHeaders = config.getKeyHeaders().stream().map(name -> name.toLowerCase(Locale.ROOT)).toList();
+        // Same ordering constraint as ResponseCache: the response must be wrapped before it is written
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "";
+            FlightKey key = keyFor(routeId, request, keyHeaders, config.getScope());
+
+            Sinks.One<Optional<SharedResponse>> leaderSink = Sinks.one();
+            Sinks.One<Optional<SharedResponse>> existing = inFlight.putIfAbsent(key, leaderSink);
+            if (existing == null) {
+                counter(routeId, "leader").increment();
+                LeaderResponse response = new LeaderResponse(exchange.getResponse(), config.getMaxBodyBytes(), shared -> {
+                    // Unregister before publishing so later arrivals start a fresh call instead of reusing this one
+                    inFlight.remove(key, leaderSink);
+                    leaderSink.tryEmitValue(Optional.ofNullable(shared));
+                });
+                return chain.filter(exchange.mutate().response(response).build())
+                        .doFinally(signal -> response.publish(null));
+            }
+
+            return existing.asMono()
+                    .timeout(config.getMaxWait(), Mono.just(Optional.empty()))
+                    .flatMap(shared -> {
+                        if (shared.isEmpty()) {
+                            counter(routeId, "fallback").increment();
+                            return chain.filter(exchange);
+                        }
+                        counter(routeId, "follower").increment();
+                        return write(exchange.getResponse(), shared.get());
+                    });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static FlightKey keyFor(String routeId, ServerHttpRequest request, List<String> keyHeaders, Scope scope) {
+        HttpHeaders headers = request.getHeaders();
+        List<String> values = new ArrayList<>(keyHeaders.size());
+        for (String name : keyHeaders) {
+            List<String> value = headers.get(name);
+            values.add(value == null ? null : String.join(",", value));
+        }
+        String principal = switch (scope) {
+            case USER -> headers.getFirst(JwtVerificationFilter.USER_ID_HEADER);
+            case ROLE -> headers.getFirst(JwtVerificationFilter.USER_ROLE_HEADER);
+            case NONE -> null;
+        };
+        return new FlightKey(routeId, request.getPath().value(), request.getURI().getRawQuery(), principal, values);
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        HttpHeaders headers = response.getHeaders();
+        shared.headers().forEach((name, values) -> {
+            if (name.equalsIgnoreCase(HttpHeaders.VARY)) {
+                values.stream().filter(value -> !headers.getVary().contains(value)).forEach(value -> headers.add(name, value));
+            } else {
+                headers.put(name, values);
+            }
+        });
+        headers.set(COALESCED_HEADER, "true");
+        if (shared.body().length == 0) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private Counter counter(String routeId, String role) {
+        return Counter.builder("gateway.coalescing.requests")
+                .description("GET requests seen by the coalescing filter; followers are upstream calls saved")
+                .tag("route", routeId)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    private record FlightKey(String routeId, String path, String query, String principal, List<String> headerValues) {
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    /** Captures the leader's response as it is written and hands a copy to the waiters. */
+    private static final class LeaderResponse extends ServerHttpResponseDecorator {
+
+        private final long maxBodyBytes;
+        private final Consumer<SharedResponse> publisher;
+        private final Set<String> gatewayHeaders;
+        private final List<String> gatewayVary;
+        private boolean published;
+
+        private LeaderResponse(ServerHttpResponse delegate, long maxBodyBytes, Consumer<SharedResponse> publisher) {
+            super(delegate);
+            this.maxBodyBytes = maxBodyBytes;
+            this.publisher = publisher;
+            // Headers the gateway set before routing (CORS etc.) belong to the leader's exchange only
+            this.gatewayHeaders = delegate.getHeaders().keySet().stream()
+                    .map(name -> name.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            this.gatewayVary = List.copyOf(delegate.getHeaders().getVary());
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getHeaders().getContentLength() > maxBodyBytes) {
+                publish(null);
+                return super.writeWith(body);
+            }
+            return Flux.from(body).collectList().flatMap(buffers -> {
+                long size = buffers.stream().mapToLong(DataBuffer::readableByteCount).sum();
+                if (size > maxBodyBytes) {
+                    publish(null);
+                    return super.writeWith(Flux.fromIterable(buffers));
+                }
+                byte[] bytes = new byte[(int) size];
+                int offset = 0;
+                for (DataBuffer buffer : buffers) {
+                    int length = buffer.readableByteCount();
+                    buffer.read(bytes, offset, length);
+                    offset += length;
+                    DataBufferUtils.release(buffer);
+                }
+                publish(snapshot(bytes));
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (getStatusCode() != null) {
+                publish(snapshot(new byte[0]));
+            }
+            return super.setComplete();
+        }
+
+        // Streaming responses go straight through; waiters fall back to their own call
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            publish(null);
+            return super.writeAndFlushWith(body);
+        }
+
+        private SharedResponse snapshot(byte[] body) {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((name, values) -> {
+                String lowerCase = name.toLowerCase(Locale.ROOT);
+                if (!UNSHARED_HEADERS.contains(lowerCase) && !gatewayHeaders.contains(lowerCase)) {
+                    headers.put(name, List.copyOf(values));
+                }
+            });
+            List<String> vary = getHeaders().getVary().stream().filter(name -> !gatewayVary.contains(name)).toList();
+            if (!vary.isEmpty()) {
+                headers.setVary(vary);
+            }
+            return new SharedResponse(getStatusCode(), HttpHeaders.readOnlyHttpHeaders(headers), body);
+        }
+
+        // Called with null when there is nothing shareable (failure, cancellation, oversized body)
+        private synchronized void publish(SharedResponse shared) {
+            if (!published) {
+                published = true;
+                publisher.accept(shared);
+            }
+        }
+    }
+
+    public enum Scope {
+        /** Per authenticated user ({@code X-User-Id}); anonymous callers share one scope. */
+        USER,
+        /** Per role: for data that is the same for everyone with the same role. */
+        ROLE,
+        /** Public data, shared by all callers. */
+        NONE
+    }
+
+    public static class Config {
+
+        private Scope scope = Scope.USER;
+        private Duration maxWait = Duration.ofSeconds(2);
+        private long maxBodyBytes = 1_048_576;
+        // Conditional headers are part of the key so a 304 is only shared with callers that asked for it
+        private List<String> keyHeaders = new ArrayList<>(List.of(
+                HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE,
+                HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE));
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        public void setScope(Scope scope) {
+            this.scope = scope;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public long getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(long maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        public List<String> getKeyHeaders() {
+            return keyHeaders;
+        }
+
+        public void setKeyHeaders(List<String> keyHeaders) {
+            this.keyHeaders = keyHeaders;
+        }
+    }
+}
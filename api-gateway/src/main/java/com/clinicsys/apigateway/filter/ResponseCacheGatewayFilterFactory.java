@@ -0,0 +1,335 @@
+package com.clinicsys.apigateway.filter;
+
+import com.clinicsys.apigateway.cache.CacheKey;
+import com.clinicsys.apigateway.cache.CachedResponse;
+import com.clinicsys.apigateway.cache.ResponseCacheStore;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * {@code ResponseCache} route filter: serves repeated GETs of slow-changing data (catalogs,
+ * packages, promos) from gateway memory. Only complete {@code 200} responses are stored, keyed
+ * by route, path, query, caller role and the route's {@code vary} headers; anything marked
+ * {@code private}/{@code no-store}, setting cookies, or varying on headers outside the key is
+ * passed through. Every cached response carries an ETag (upstream's, or a body digest), and a
+ * matching {@code If-None-Match} is answered with {@code 304} without reaching the service.
+ * A successful non-GET request on the route purges the route's entries.
+ * <pre>
+ * filters:
+ *   - ResponseCache=10m
+ * </pre>
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Set<String> UNCACHED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization", CACHE_STATUS_HEADER.toLowerCase(Locale.ROOT));
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeToLive");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<String> vary = config.getVary().stream().map(name -> name.toLowerCase(Locale.ROOT)).toList();
+        // Must wrap the response before NettyWriteResponseFilter picks it up to write the body
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "";
+
+            if (request.getMethod() != HttpMethod.GET) {
+                if (request.getMethod() == HttpMethod.HEAD || request.getMethod() == HttpMethod.OPTIONS) {
+                    return chain.filter(exchange);
+                }
+                // Writes through the gateway make this route's cached reads stale
+                return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    if (status != null && status.is2xxSuccessful()) {
+                        store.purge(routeId, null);
+                    }
+                }));
+            }
+
+            CacheKey key = keyFor(routeId, request, vary, config.isVaryByRole());
+            String cacheControl = String.join(",", request.getHeaders().getOrEmpty(HttpHeaders.CACHE_CONTROL)).toLowerCase(Locale.ROOT);
+            if (!cacheControl.contains("no-cache") && !cacheControl.contains("no-store")) {
+                CachedResponse cached = store.get(key);
+                if (cached != null) {
+                    return writeCached(exchange, cached);
+                }
+            }
+
+            // Read before mutating: the mutated request shares the original's header map
+            List<String> ifNoneMatch = List.copyOf(request.getHeaders().getOrEmpty(HttpHeaders.IF_NONE_MATCH));
+            // Ask upstream for the full body; conditional requests are answered here from the stored ETag
+            ServerHttpRequest upstream = request.mutate()
+                    .headers(headers -> {
+                        headers.remove(HttpHeaders.IF_NONE_MATCH);
+                        headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+                    })
+                    .build();
+            CachingResponse response = new CachingResponse(exchange.getResponse(), key, config,
+                    ifNoneMatch, !cacheControl.contains("no-store"));
+            return chain.filter(exchange.mutate().request(upstream).response(response).build());
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static CacheKey keyFor(String routeId, ServerHttpRequest request, List<String> vary, boolean varyByRole) {
+        HttpHeaders headers = request.getHeaders();
+        List<String> values = new ArrayList<>(vary.size());
+        for (String name : vary) {
+            List<String> value = headers.get(name);
+            values.add(value == null ? null : String.join(",", value));
+        }
+        String role = varyByRole ? headers.getFirst(JwtVerificationFilter.USER_ROLE_HEADER) : null;
+        return new CacheKey(routeId, request.getPath().value(), request.getURI().getRawQuery(), role, values);
+    }
+
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach((name, values) -> {
+            if (name.equalsIgnoreCase(HttpHeaders.VARY)) {
+                values.stream().filter(value -> !headers.getVary().contains(value)).forEach(value -> headers.add(name, value));
+            } else {
+                headers.put(name, values);
+            }
+        });
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds(System.currentTimeMillis())));
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+        if (etagMatches(exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+            return notModified(response);
+        }
+        response.setStatusCode(HttpStatus.OK);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static Mono<Void> notModified(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+        return response.setComplete();
+    }
+
+    static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String trimmed = candidate.trim();
+                if (trimmed.equals("*") || stripWeak(trimmed).equals(opaque)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String digestETag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final CacheKey key;
+        private final Config config;
+        private final List<String> ifNoneMatch;
+        private final boolean storable;
+        // Headers the gateway set before routing (CORS etc.) belong to this exchange, not the cached response
+        private final Set<String> gatewayHeaders;
+        private final List<String> gatewayVary;
+
+        private CachingResponse(ServerHttpResponse delegate, CacheKey key, Config config, List<String> ifNoneMatch, boolean storable) {
+            super(delegate);
+            this.gatewayHeaders = delegate.getHeaders().keySet().stream()
+                    .map(name -> name.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toSet());
+            this.gatewayVary = List.copyOf(delegate.getHeaders().getVary());
+            this.key = key;
+            this.config = config;
+            this.ifNoneMatch = ifNoneMatch;
+            this.storable = storable;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            long maxEntryBytes = store.maxEntryBytes();
+            if (!storable || !isCacheable() || headers.getContentLength() > maxEntryBytes) {
+                headers.set(CACHE_STATUS_HEADER, "BYPASS");
+                return super.writeWith(body);
+            }
+            return Flux.from(body).collectList().flatMap(buffers -> {
+                long size = buffers.stream().mapToLong(DataBuffer::readableByteCount).sum();
+                if (size > maxEntryBytes) {
+                    headers.set(CACHE_STATUS_HEADER, "BYPASS");
+                    return super.writeWith(Flux.fromIterable(buffers));
+                }
+                byte[] bytes = new byte[(int) size];
+                int offset = 0;
+                for (DataBuffer buffer : buffers) {
+                    int length = buffer.readableByteCount();
+                    buffer.read(bytes, offset, length);
+                    offset += length;
+                    DataBufferUtils.release(buffer);
+                }
+                return writeAndStore(bytes);
+            });
+        }
+
+        private Mono<Void> writeAndStore(byte[] bytes) {
+            HttpHeaders headers = getHeaders();
+            String etag = headers.getETag();
+            if (etag == null) {
+                etag = digestETag(bytes);
+                headers.setETag(etag);
+            }
+            if (config.isVaryByRole() && !headers.getVary().contains(HttpHeaders.AUTHORIZATION)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+            }
+            if (!headers.containsKey(HttpHeaders.CACHE_CONTROL) && config.getCacheControl() != null) {
+                // Also keeps Spring Security's default no-store header off, which would stop clients revalidating
+                headers.set(HttpHeaders.CACHE_CONTROL, config.getCacheControl());
+            }
+            headers.setContentLength(bytes.length);
+
+            HttpHeaders snapshot = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                String lowerCase = name.toLowerCase(Locale.ROOT);
+                if (!UNCACHED_HEADERS.contains(lowerCase) && !gatewayHeaders.contains(lowerCase)) {
+                    snapshot.put(name, List.copyOf(values));
+                }
+            });
+            List<String> vary = upstreamVary();
+            if (!vary.isEmpty()) {
+                snapshot.setVary(vary);
+            }
+            long now = System.currentTimeMillis();
+            store.put(key, new CachedResponse(
+                    HttpHeaders.readOnlyHttpHeaders(snapshot), bytes, etag, now, now + config.getTimeToLive().toMillis()));
+
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+            if (etagMatches(ifNoneMatch, etag)) {
+                return notModified(getDelegate());
+            }
+            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+        }
+
+        private boolean isCacheable() {
+            HttpHeaders headers = getHeaders();
+            if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            String cacheControl = String.join(",", headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)).toLowerCase(Locale.ROOT);
+            if (cacheControl.contains("no-store") || cacheControl.contains("private")) {
+                return false;
+            }
+            // Every header the response varies on must be part of the key
+            for (String varied : upstreamVary()) {
+                String name = varied.trim().toLowerCase(Locale.ROOT);
+                boolean coveredByRole = config.isVaryByRole() && name.equals("authorization");
+                if (name.equals("*") || (!coveredByRole && config.getVary().stream().noneMatch(name::equalsIgnoreCase))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private List<String> upstreamVary() {
+            return getHeaders().getVary().stream().filter(name -> !gatewayVary.contains(name)).toList();
+        }
+    }
+
+    public static class Config {
+
+        private Duration timeToLive = Duration.ofMinutes(5);
+        private List<String> vary = new ArrayList<>(List.of(
+                HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE));
+        // The data differs by role at most, never per user
+        private boolean varyByRole = true;
+        // Sent to clients when upstream sets none: store, but revalidate with If-None-Match
+        private String cacheControl = "no-cache";
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public List<String> getVary() {
+            return vary;
+        }
+
+        public void setVary(List<String> vary) {
+            this.vary = vary;
+        }
+
+        public boolean isVaryByRole() {
+            return varyByRole;
+        }
+
+        public void setVaryByRole(boolean varyByRole) {
+            this.varyByRole = varyByRole;
+        }
+
+        public String getCacheControl() {
+            return cacheControl;
+        }
+
+        public void setCacheControl(String cacheControl) {
+            this.cacheControl = cacheControl;
+        }
+    }
+}
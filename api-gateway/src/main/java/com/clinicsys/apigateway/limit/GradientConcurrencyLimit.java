@@ -0,0 +1,123 @@
+package com.clinicsys.apigateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-flight limit for one route that adapts to observed latency, after the gradient algorithm
+ * of TCP Vegas / Netflix concurrency-limits. Samples are averaged over short windows (at
+ * least {@value #MIN_WINDOW_SAMPLES} samples and {@value #MIN_WINDOW_MILLIS} ms); a slow
+ * average of those windows, which follows faster windows immediately, is the no-load baseline. When a window's RTT climbs above the
+ * baseline (the service is queueing) the limit shrinks in proportion, and while it stays at
+ * the baseline the limit grows by about {@code sqrt(limit)} per window.
+ * Dropped requests (timeouts, 502-504) back the limit off multiplicatively. {@code maxLimit}
+ * is the route's hard bulkhead; the limit never goes above it.
+ */
+public class GradientConcurrencyLimit {
+
+    static final int MIN_WINDOW_SAMPLES = 10;
+    static final long MIN_WINDOW_MILLIS = 250;
+    private static final double LONG_WINDOW_ALPHA = 2.0 / (600 + 1);
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int currentLimit;
+    // Guarded by this
+    private double limit;
+    private double longRtt;
+    private long windowStart = System.nanoTime();
+    private int windowSamples;
+    private long windowRttSum;
+    private int windowMaxInFlight;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double rttTolerance, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+        this.currentLimit = (int) limit;
+    }
+
+    /**
+     * Takes a slot if the route is under its limit.
+     *
+     * @return the number of requests in flight including this one, or -1 if rejected
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /** Frees a slot without feeding the algorithm (cancelled requests). */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /** Frees a slot and records the request's round-trip time. */
+    public void onSuccess(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart);
+    }
+
+    /** Frees a slot and backs the limit off; the request was dropped or timed out. */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            currentLimit = (int) limit;
+        }
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart) {
+        windowSamples++;
+        windowRttSum += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        long now = System.nanoTime();
+        if (windowSamples < MIN_WINDOW_SAMPLES || now - windowStart < MIN_WINDOW_MILLIS * 1_000_000) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowSamples;
+        int maxInFlight = windowMaxInFlight;
+        windowStart = now;
+        windowSamples = 0;
+        windowRttSum = 0;
+        windowMaxInFlight = 0;
+
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+            return;
+        }
+        // The baseline drops to any faster window at once but rises only slowly, so sustained
+        // queueing cannot drag it up to the queued latency
+        longRtt = shortRtt < longRtt ? shortRtt : longRtt + LONG_WINDOW_ALPHA * (shortRtt - longRtt);
+        // Little traffic says nothing about capacity; do not grow the limit on it
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        currentLimit = (int) limit;
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
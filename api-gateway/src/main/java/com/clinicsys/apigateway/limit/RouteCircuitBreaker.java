@@ -0,0 +1,112 @@
+package com.clinicsys.apigateway.limit;
+
+/**
+ * Count-based circuit breaker for one route. Opens when at least {@code failureRateThreshold}
+ * of the last {@code windowSize} calls failed (once {@code minimumCalls} were seen), rejects
+ * everything for {@code openInterval} ms, then lets {@code halfOpenProbes} calls through:
+ * all of them succeeding closes it, any failure opens it again.
+ */
+public class RouteCircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openInterval;
+    private final int halfOpenProbes;
+
+    // Guarded by this
+    private final boolean[] outcomes;
+    private int position;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    private volatile State state = State.CLOSED;
+
+    public RouteCircuitBreaker(double failureRateThreshold, int windowSize, int minimumCalls, long openInterval, int halfOpenProbes) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openInterval = openInterval;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < openInterval) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesStarted = 0;
+                probesSucceeded = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= halfOpenProbes) {
+                    return false;
+                }
+                probesStarted++;
+            }
+            return true;
+        }
+    }
+
+    /** Gives back a permit whose call never produced an outcome (cancelled or rejected later on). */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+
+    public synchronized void onResult(boolean failure) {
+        if (state == State.HALF_OPEN) {
+            if (failure) {
+                open();
+            } else if (++probesSucceeded >= halfOpenProbes) {
+                reset();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        if (calls == outcomes.length) {
+            if (outcomes[position]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        outcomes[position] = failure;
+        if (failure) {
+            failures++;
+        }
+        position = (position + 1) % outcomes.length;
+        if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        position = 0;
+        calls = 0;
+        failures = 0;
+    }
+
+    public State getState() {
+        return state;
+    }
+}
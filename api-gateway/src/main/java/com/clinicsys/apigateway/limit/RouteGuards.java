@@ -0,0 +1,99 @@
+package com.clinicsys.apigateway.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link GradientConcurrencyLimit} and {@link RouteCircuitBreaker} per route, created on
+ * first use. Every route is its own bulkhead: a slow service can only exhaust its own limit.
+ * The hard cap defaults to {@code gateway.concurrency.max-limit} and can be set per route with
+ * the {@code max-concurrency} route metadata.
+ */
+@Component
+public class RouteGuards {
+
+    public static final String MAX_CONCURRENCY_METADATA = "max-concurrency";
+
+    private final Map<String, RouteGuard> guards = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double failureRateThreshold;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openInterval;
+    private final int halfOpenProbes;
+
+    public RouteGuards(
+            MeterRegistry meterRegistry,
+            @Value("${gateway.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${gateway.concurrency.min-limit:4}") int minLimit,
+            @Value("${gateway.concurrency.max-limit:200}") int maxLimit,
+            @Value("${gateway.concurrency.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${gateway.concurrency.smoothing:0.2}") double smoothing,
+            @Value("${gateway.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${gateway.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${gateway.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${gateway.circuit-breaker.open-interval:10000}") long openInterval,
+            @Value("${gateway.circuit-breaker.half-open-probes:5}") int halfOpenProbes) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.failureRateThreshold = failureRateThreshold;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.openInterval = openInterval;
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public RouteGuard forRoute(Route route) {
+        return guards.computeIfAbsent(route.getId(), id -> create(id, route.getMetadata().get(MAX_CONCURRENCY_METADATA)));
+    }
+
+    private RouteGuard create(String routeId, Object maxConcurrency) {
+        int routeMax = maxConcurrency != null ? Integer.parseInt(maxConcurrency.toString()) : maxLimit;
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(
+                Math.min(initialLimit, routeMax), Math.min(minLimit, routeMax), routeMax, rttTolerance, smoothing);
+        RouteCircuitBreaker breaker = new RouteCircuitBreaker(
+                failureRateThreshold, windowSize, minimumCalls, openInterval, halfOpenProbes);
+
+        Gauge.builder("gateway.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+                .description("Current adaptive in-flight limit")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limit, GradientConcurrencyLimit::getInFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.circuit-breaker.state", breaker, b -> b.getState().ordinal())
+                .description("0 = closed, 1 = half-open, 2 = open")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return new RouteGuard(limit, breaker,
+                rejectedCounter(routeId, "limit"), rejectedCounter(routeId, "circuit-open"));
+    }
+
+    private Counter rejectedCounter(String routeId, String reason) {
+        return Counter.builder("gateway.concurrency.rejected")
+                .description("Requests rejected before reaching the service")
+                .tag("route", routeId)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    public record RouteGuard(GradientConcurrencyLimit limit, RouteCircuitBreaker breaker,
+                             Counter limitRejections, Counter circuitRejections) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.clinicsys.apigateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load signal for one service instance: requests currently outstanding and a peak-sensitive,
+ * time-decayed EWMA of its latency (as in Finagle's PeakEWMA). A sample above the average
+ * replaces it at once, so a stalled instance is penalised on its first slow response; the
+ * average then decays with time constant {@code decayNanos}, towards zero while the instance
+ * gets no traffic, so a once-slow instance is eventually tried again.
+ * <p>
+ * An instance with requests outstanding but no completed one yet, such as a new instance that is
+ * hung or still warming up, costs a large penalty per outstanding request, so it loses to any
+ * instance with data until it answers.
+ */
+public class InstanceStats {
+
+    // Finagle's PeakEWMA penalty: above any real latency, yet small enough to add up without overflow
+    static final double NO_DATA_PENALTY = Long.MAX_VALUE >> 16;
+
+    private final long decayNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    // Guarded by this
+    private double ewmaNanos;
+    private long updatedAt;
+    private boolean observed;
+
+    public InstanceStats(long decayNanos) {
+        this.decayNanos = decayNanos;
+    }
+
+    public void start() {
+        outstanding.incrementAndGet();
+    }
+
+    public void complete(long latencyNanos, long now) {
+        outstanding.decrementAndGet();
+        observe(latencyNanos, now);
+    }
+
+    /** Ends a request that never completed (cancelled or abandoned) without a latency sample. */
+    public void cancel() {
+        outstanding.decrementAndGet();
+    }
+
+    public synchronized boolean hasData() {
+        return observed;
+    }
+
+    /** Expected cost of sending one more request here: decayed latency times queue depth. */
+    public double cost(long now) {
+        double latency;
+        boolean hasData;
+        synchronized (this) {
+            latency = decayed(now);
+            hasData = observed;
+        }
+        int pending = outstanding.get();
+        if (!hasData && pending > 0) {
+            return NO_DATA_PENALTY + pending;
+        }
+        return latency * (pending + 1);
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    private synchronized void observe(double latencyNanos, long now) {
+        double current = decayed(now);
+        ewmaNanos = latencyNanos > current ? latencyNanos : current + (latencyNanos - current) * weight(now);
+        updatedAt = now;
+        observed = true;
+    }
+
+    private double decayed(long now) {
+        if (!observed) {
+            return 0;
+        }
+        return ewmaNanos * Math.exp(-(double) Math.max(0, now - updatedAt) / decayNanos);
+    }
+
+    // Fraction of the new sample taken into the average: 1 - e^(-elapsed/tau), at least 5%
+    private double weight(long now) {
+        return Math.max(0.05, 1 - Math.exp(-(double) Math.max(0, now - updatedAt) / decayNanos));
+    }
+}
@@ -0,0 +1,64 @@
+package com.clinicsys.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link InstanceStats} for every instance the gateway has sent traffic to, keyed by service
+ * id and address. Fed by {@link StatsRecordingLifecycle}; read by {@link LatencyAwareLoadBalancer}.
+ * Failed calls are recorded with at least {@code gateway.load-balancer.failure-penalty} ms of
+ * latency so that an instance that fails fast does not look like the fastest one.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final LongSupplier clock;
+
+    @Autowired
+    public InstanceStatsRegistry(
+            @Value("${gateway.load-balancer.decay-time:10000}") long decayMillis,
+            @Value("${gateway.load-balancer.failure-penalty:1000}") long failurePenaltyMillis) {
+        this(decayMillis, failurePenaltyMillis, System::nanoTime);
+    }
+
+    // Simulations drive the registry with their own clock
+    public InstanceStatsRegistry(long decayMillis, long failurePenaltyMillis, LongSupplier clock) {
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMillis);
+        this.failurePenaltyNanos = TimeUnit.MILLISECONDS.toNanos(failurePenaltyMillis);
+        this.clock = clock;
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), key -> new InstanceStats(decayNanos));
+    }
+
+    public void start(ServiceInstance instance) {
+        get(instance).start();
+    }
+
+    public void complete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        get(instance).complete(failed ? Math.max(latencyNanos, failurePenaltyNanos) : latencyNanos, clock.getAsLong());
+    }
+
+    public void cancel(ServiceInstance instance) {
+        get(instance).cancel();
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + '/' + instance.getHost() + ':' + instance.getPort();
+    }
+}
@@ -0,0 +1,105 @@
+package com.clinicsys.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Power-of-two-choices balancer: picks two random candidates and sends the request to the one
+ * with the lower {@link InstanceStats#cost} (latency EWMA times outstanding requests). This
+ * steers traffic away from an instance in a GC pause or on a noisy host within a few requests,
+ * without the herding of always picking the global minimum. Candidates are narrowed to the
+ * gateway's own host and then its zone when such instances exist. When neither candidate has
+ * latency data or anything outstanding, requests go round-robin.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    public static final String ZONE_METADATA = "zone";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceStatsRegistry registry;
+    private final String zone;
+    private final String localHost;
+    private final AtomicInteger position = new AtomicInteger(ThreadLocalRandom.current().nextInt(1000));
+
+    /**
+     * @param zone      the gateway's zone, or null to ignore zones
+     * @param localHost the gateway's host, or null to ignore host locality
+     */
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                    InstanceStatsRegistry registry, String zone, String localHost) {
+        this.supplierProvider = supplierProvider;
+        this.registry = registry;
+        this.zone = zone;
+        this.localHost = localHost;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            ServiceInstance chosen = choose(instances);
+            return chosen != null ? new DefaultResponse(chosen) : new EmptyResponse();
+        });
+    }
+
+    public ServiceInstance choose(List<ServiceInstance> instances) {
+        List<ServiceInstance> candidates = preferred(instances);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        InstanceStats statsA = registry.get(a);
+        InstanceStats statsB = registry.get(b);
+        if (!statsA.hasData() && !statsB.hasData() && statsA.outstanding() == 0 && statsB.outstanding() == 0) {
+            return candidates.get(Math.floorMod(position.getAndIncrement(), candidates.size()));
+        }
+        long now = registry.now();
+        return statsA.cost(now) <= statsB.cost(now) ? a : b;
+    }
+
+    private List<ServiceInstance> preferred(List<ServiceInstance> instances) {
+        List<ServiceInstance> candidates = instances;
+        if (localHost != null) {
+            candidates = narrow(candidates, instance -> localHost.equals(instance.getHost()));
+        }
+        if (zone != null) {
+            candidates = narrow(candidates, instance -> zone.equalsIgnoreCase(instance.getMetadata().get(ZONE_METADATA)));
+        }
+        return candidates;
+    }
+
+    // The matching instances, or all of them when none match
+    private static List<ServiceInstance> narrow(List<ServiceInstance> instances, Predicate<ServiceInstance> filter) {
+        List<ServiceInstance> matching = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (filter.test(instance)) {
+                matching.add(instance);
+            }
+        }
+        return matching.isEmpty() ? instances : matching;
+    }
+}
@@ -0,0 +1,44 @@
+package com.clinicsys.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Per-service load balancer configuration (see {@code LoadBalancerConfig}). Deliberately not a
+ * {@code @Configuration}: Spring Cloud LoadBalancer instantiates it once per service in that
+ * service's child context, and it must stay out of component scanning.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory clientFactory,
+            InstanceStatsRegistry registry,
+            @Value("${spring.cloud.loadbalancer.zone:${eureka.instance.metadata-map.zone:}}") String zone,
+            @Value("${gateway.load-balancer.prefer-same-host:false}") boolean preferSameHost) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                registry,
+                StringUtils.hasText(zone) ? zone : null,
+                preferSameHost ? localAddress() : null);
+    }
+
+    private static String localAddress() {
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
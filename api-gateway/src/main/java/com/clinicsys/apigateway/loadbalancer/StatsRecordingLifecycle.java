@@ -0,0 +1,126 @@
+package com.clinicsys.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds {@link InstanceStatsRegistry} from every load-balanced call (gateway routes and the
+ * {@code @LoadBalanced} WebClient): outstanding count on start, latency and outcome on
+ * completion. 5xx responses and transport errors count as failures.
+ * <p>
+ * Spring Cloud only reports calls that complete or fail, not ones whose subscriber cancelled.
+ * Every started call is therefore tracked until it ends, at most once: cancelled gateway
+ * requests are released by {@link StatsReleasingFilter}, and calls still open after
+ * {@code gateway.load-balancer.abandon-after} (such as a WebClient call cut off by a timeout)
+ * are released by a sweep, so the outstanding counts cannot drift upwards. An abandoned call
+ * is recorded as a failure that took as long as it was open, so an instance that never
+ * answers gets latency data that keeps traffic away from it.
+ */
+@Component
+public class StatsRecordingLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final InstanceStatsRegistry registry;
+    private final long abandonAfterNanos;
+    // Start time of every call not yet completed or released
+    private final Map<InFlight, Long> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep;
+
+    // DefaultResponse compares by instance, but each call needs its own entry
+    private record InFlight(Response<ServiceInstance> response) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof InFlight call && call.response == response;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(response);
+        }
+    }
+
+    public StatsRecordingLifecycle(
+            InstanceStatsRegistry registry,
+            @Value("${gateway.load-balancer.abandon-after:60000}") long abandonAfterMillis) {
+        this.registry = registry;
+        this.abandonAfterNanos = TimeUnit.MILLISECONDS.toNanos(abandonAfterMillis);
+        this.nextSweep = new AtomicLong(registry.now());
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext context && context.getRequestStartTime() == 0) {
+            context.setRequestStartTime(System.nanoTime());
+        }
+        long now = registry.now();
+        registry.start(lbResponse.getServer());
+        inFlight.put(new InFlight(lbResponse), now);
+        sweep(now);
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer() || inFlight.remove(new InFlight(lbResponse)) == null) {
+            return;
+        }
+        if (completionContext.status() == CompletionContext.Status.DISCARD) {
+            registry.cancel(lbResponse.getServer());
+            return;
+        }
+        long latency = 0;
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext context && context.getRequestStartTime() > 0) {
+            latency = System.nanoTime() - context.getRequestStartTime();
+        }
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || (completionContext.getClientResponse() instanceof ResponseData response
+                    && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError());
+        registry.complete(lbResponse.getServer(), latency, failed);
+    }
+
+    /** Releases a call whose caller went away before it completed. No latency is recorded. */
+    public void onCancel(Response<ServiceInstance> lbResponse) {
+        if (lbResponse != null && lbResponse.hasServer() && inFlight.remove(new InFlight(lbResponse)) != null) {
+            registry.cancel(lbResponse.getServer());
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private void sweep(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        for (Map.Entry<InFlight, Long> entry : inFlight.entrySet()) {
+            // remove(key, value) so a call completing right now is released only once
+            if (now - entry.getValue() > abandonAfterNanos && inFlight.remove(entry.getKey(), entry.getValue())) {
+                registry.complete(entry.getKey().response().getServer(), now - entry.getValue(), true);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.clinicsys.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Tells {@link StatsRecordingLifecycle} when a routed request is cancelled (the client went
+ * away or a downstream timeout fired) after an instance was chosen. The gateway's load-balancer
+ * filter only completes the lifecycle on success or error, so without this the instance's
+ * outstanding count would never come down.
+ */
+@Component
+public class StatsReleasingFilter implements GlobalFilter, Ordered {
+
+    private final StatsRecordingLifecycle lifecycle;
+
+    public StatsReleasingFilter(StatsRecordingLifecycle lifecycle) {
+        this.lifecycle = lifecycle;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return chain.filter(exchange)
+                .doOnCancel(() -> {
+                    Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+                    lifecycle.onCancel(lbResponse);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // Wraps the load-balancer filter, which sets the chosen instance on the exchange
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,121 @@
+package com.clinicsys.apigateway.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches auth-service's JWKS and hands out one prebuilt {@link JwtParser} per key id, so
+ * token verification at the edge is a local CPU operation. The key set is re-fetched in the
+ * background when it gets older than {@code jwt.jwks-refresh-interval}, and on demand when a
+ * token names an unknown kid (at most once per {@code jwt.jwks-min-refresh-interval}).
+ */
+@Component
+public class JwksKeyResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyResolver.class);
+
+    private final WebClient webClient;
+    private final String jwksUri;
+    private final long refreshInterval;
+    private final long minRefreshInterval;
+
+    private volatile Map<String, JwtParser> parsers = Map.of();
+    private volatile long fetchedAt;
+    private volatile Mono<Map<String, JwtParser>> pendingFetch;
+
+    public JwksKeyResolver(
+            WebClient.Builder loadBalancedWebClientBuilder,
+            @Value("${jwt.jwks-uri:lb://auth-service/api/auth/.well-known/jwks.json}") String jwksUri,
+            @Value("${jwt.jwks-refresh-interval:300000}") long refreshInterval,
+            @Value("${jwt.jwks-min-refresh-interval:10000}") long minRefreshInterval) {
+        this.webClient = loadBalancedWebClientBuilder.build();
+        this.jwksUri = jwksUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+    }
+
+    /** Parser bound to the key with the given id, or empty if auth-service does not publish it. */
+    public Mono<JwtParser> parserFor(String kid) {
+        long age = System.currentTimeMillis() - fetchedAt;
+        JwtParser parser = parsers.get(kid);
+        if (parser != null) {
+            if (age > refreshInterval) {
+                fetch().subscribe();
+            }
+            return Mono.just(parser);
+        }
+        if (age < minRefreshInterval) {
+            return Mono.empty();
+        }
+        return fetch().mapNotNull(fetched -> fetched.get(kid));
+    }
+
+    private synchronized Mono<Map<String, JwtParser>> fetch() {
+        // Concurrent misses share one in-flight request instead of stampeding auth-service
+        if (pendingFetch == null) {
+            pendingFetch = webClient.get()
+                    .uri(jwksUri)
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .timeout(Duration.ofSeconds(5))
+                    .map(this::toParsers)
+                    .doOnNext(fetched -> {
+                        parsers = fetched;
+                        fetchedAt = System.currentTimeMillis();
+                    })
+                    .onErrorResume(e -> {
+                        log.warn("Could not fetch JWKS from {}: {}", jwksUri, e.getMessage());
+                        fetchedAt = System.currentTimeMillis();
+                        return Mono.just(parsers);
+                    })
+                    .doFinally(signal -> clearPending())
+                    .cache();
+        }
+        return pendingFetch;
+    }
+
+    private synchronized void clearPending() {
+        pendingFetch = null;
+    }
+
+    private Map<String, JwtParser> toParsers(JsonNode jwks) {
+        Map<String, JwtParser> result = new HashMap<>();
+        for (JsonNode jwk : jwks.path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")) {
+                continue;
+            }
+            try {
+                result.put(jwk.get("kid").asText(), Jwts.parserBuilder()
+                        .setSigningKey(rsaKey(jwk.path("n").asText(), jwk.path("e").asText()))
+                        .build());
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Skipping unusable JWK {}: {}", jwk.get("kid").asText(), e.getMessage());
+            }
+        }
+        return Map.copyOf(result);
+    }
+
+    private static PublicKey rsaKey(String modulus, String exponent) throws GeneralSecurityException {
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                new BigInteger(1, decoder.decode(modulus)),
+                new BigInteger(1, decoder.decode(exponent))));
+    }
+}
@@ -0,0 +1,102 @@
+package com.clinicsys.audit.controller;
+
+import com.clinicsys.audit.dto.AuditBatchRequest;
+import com.clinicsys.audit.dto.AuditPage;
+import com.clinicsys.audit.dto.IngestResult;
+import com.clinicsys.audit.exception.ForbiddenException;
+import com.clinicsys.audit.service.AuditService;
+import com.clinicsys.common.dto.ApiResponse;
+import com.clinicsys.common.exception.BadRequestException;
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import com.clinicsys.common.exception.UnauthorizedException;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads go through the gateway's {@code /api/audit/**} route and are limited to admins, using the
+ * role the gateway verified. Ingest lives under {@code /internal}, which the gateway does not
+ * route, and requires the shared service token when {@code audit.ingest.token} is set.
+ */
+@RestController
+@RequiredArgsConstructor
+public class AuditController {
+    
+    static final String USER_ROLE_HEADER = "X-User-Role";
+    static final String INGEST_TOKEN_HEADER = "X-Audit-Token";
+    
+    private final AuditService auditService;
+    
+    /**
+     * Appends a batch of events; answers once they are on disk.
+     */
+    @PostMapping("/internal/audit/events")
+    public ResponseEntity<ApiResponse<IngestResult>> ingest(
+            @RequestHeader(value = INGEST_TOKEN_HEADER, required = false) String token,
+            @Valid @RequestBody AuditBatchRequest request) {
+        auditService.checkIngestToken(token);
+        IngestResult result = auditService.ingest(request.getEvents());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Events recorded", result));
+    }
+    
+    /**
+     * Events in sequence order, filtered by time range ({@code from} inclusive, {@code to} exclusive),
+     * actor and action. Pass the returned {@code nextAfterSequence} as {@code afterSequence} to continue.
+     */
+    @GetMapping("/api/audit/events")
+    public ResponseEntity<ApiResponse<AuditPage>> query(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) Long afterSequence,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (!"ADMIN".equals(role)) {
+            throw new ForbiddenException("Reading the audit log requires the ADMIN role");
+        }
+        return ResponseEntity.ok(ApiResponse.success(auditService.query(from, to, actor, action, afterSequence, limit)));
+    }
+    
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        return ResponseEntity.badRequest().body(ApiResponse.error("Validation failed", errors));
+    }
+    
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiResponse<Object>> handleBadRequest(BadRequestException ex) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleUnauthorized(UnauthorizedException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<ApiResponse<Object>> handleForbidden(ForbiddenException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.clinicsys.audit.dto;
+
+import com.clinicsys.common.audit.AuditEvent;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AuditBatchRequest {
+    
+    @NotEmpty(message = "At least one event is required")
+    @Size(max = 1000, message = "At most 1000 events per request")
+    private List<@Valid @NotNull AuditEvent> events;
+}
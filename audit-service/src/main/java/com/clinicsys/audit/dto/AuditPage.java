@@ -0,0 +1,12 @@
+package com.clinicsys.audit.dto;
+
+import com.clinicsys.audit.log.AuditRecord;
+
+import java.util.List;
+
+/**
+ * One page of audit records in sequence order. Pass {@code nextAfterSequence} back as
+ * {@code afterSequence} to get the following page; it is null on the last page.
+ */
+public record AuditPage(List<AuditRecord> records, Long nextAfterSequence) {
+}
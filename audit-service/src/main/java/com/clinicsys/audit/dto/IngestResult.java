@@ -0,0 +1,8 @@
+package com.clinicsys.audit.dto;
+
+/**
+ * Sequences assigned to an accepted batch: {@code firstSequence} up to
+ * {@code firstSequence + count - 1}, in request order.
+ */
+public record IngestResult(long firstSequence, int count) {
+}
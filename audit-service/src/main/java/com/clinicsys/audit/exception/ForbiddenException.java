@@ -0,0 +1,11 @@
+package com.clinicsys.audit.exception;
+
+/**
+ * The caller is authenticated but not allowed to read the audit log; reported as {@code 403 Forbidden}.
+ */
+public class ForbiddenException extends RuntimeException {
+    
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,377 @@
+package com.clinicsys.audit.log;
+
+import com.clinicsys.common.audit.AuditEvent;
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only audit log made of memory-mapped segment files under {@code audit.log.path}.
+ * <p>
+ * Request threads encode their events and enqueue them; a single writer thread copies whatever
+ * has queued up (up to {@code audit.log.batch-events}) into the active segment and forces it to
+ * disk once for the whole batch (group commit). Batches form on their own while the previous
+ * force is in progress, so there is no linger delay. Futures complete after the force, and only
+ * then do queries see the events. The active segment is sealed and a new one started when the
+ * next record does not fit in {@code audit.log.segment-bytes} or the segment is older than
+ * {@code audit.log.segment-max-age}; sealing writes the segment's {@link SegmentIndex} to disk,
+ * so a restart only rescans the active segment.
+ * <p>
+ * A batch is all or nothing: if writing or forcing any part of it fails, every segment it touched
+ * is rolled back to where the batch started, so a producer retrying the batch does not store its
+ * events twice. An {@link Error} in the writer (such as a fault on the mapping) stops the log.
+ * <p>
+ * Retention deletes whole segments, oldest first, once their newest event has passed the cutoff.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long segmentMaxAge;
+    private final boolean fsync;
+    private final int batchEvents;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<Pending> queue;
+    private final ConcurrentSkipListMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+
+    private volatile LogSegment active;
+    private Thread writer;
+    private volatile boolean running;
+    // Set when the writer hit an error it cannot recover from; every later batch fails with it
+    private volatile Throwable failure;
+
+    private record Entry(long timestamp, String actor, byte[] payload) {
+    }
+
+    private record Pending(List<Entry> entries, CompletableFuture<Long> committed) {
+    }
+
+    public AuditLog(
+            @Value("${audit.log.path:data/audit}") String path,
+            @Value("${audit.log.segment-bytes:67108864}") int segmentBytes,
+            @Value("${audit.log.segment-max-age:86400000}") long segmentMaxAge,
+            @Value("${audit.log.fsync:true}") boolean fsync,
+            @Value("${audit.log.batch-events:4096}") int batchEvents,
+            @Value("${audit.log.queue-capacity:1024}") int queueCapacity,
+            ObjectMapper objectMapper) {
+        this.directory = Paths.get(path).toAbsolutePath();
+        this.segmentBytes = Math.max(segmentBytes, 2 * MAX_RECORD_BYTES);
+        this.segmentMaxAge = segmentMaxAge;
+        this.fsync = fsync;
+        this.batchEvents = Math.max(1, batchEvents);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.objectMapper = objectMapper;
+    }
+
+    /** Opens every segment, recovers the last one and starts the writer. */
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(LogSegment::isSegmentFile).sorted().toList();
+        }
+        LogSegment previous = null;
+        for (int i = 0; i < files.size(); i++) {
+            boolean last = i == files.size() - 1;
+            LogSegment segment = LogSegment.open(files.get(i), segmentBytes, last, this::actorOf);
+            if (!segment.isSealed()) {
+                if (last) {
+                    LogSegment.Recovery recovery = segment.truncateTail();
+                    if (recovery.discarded()) {
+                        log.warn("Audit segment {} has a torn or corrupt tail; discarded everything after offset {} ({} intact records)",
+                                files.get(i), recovery.discardedFrom(), recovery.records());
+                    }
+                } else {
+                    // Crashed between finishing this segment and writing its index
+                    segment.seal(fsync);
+                }
+            }
+            if (previous != null && previous.nextSequence() != segment.baseSequence()) {
+                log.warn("Audit log gap: segment {} ends before sequence {} but the next starts at {}",
+                        previous.baseSequence(), previous.nextSequence(), segment.baseSequence());
+            }
+            segments.put(segment.baseSequence(), segment);
+            previous = segment;
+        }
+        if (previous == null || previous.isSealed()) {
+            previous = LogSegment.create(directory, previous == null ? 1 : previous.nextSequence(), segmentBytes);
+            segments.put(previous.baseSequence(), previous);
+        }
+        active = previous;
+        running = true;
+        writer = new Thread(this::drain, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Opened audit log {}: {} segments, next sequence {}, in {} ms", directory, segments.size(),
+                active.nextSequence(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Queues the events as one unit. The future completes with the first event's sequence (the
+     * rest follow consecutively) once they are on disk, or exceptionally if the write failed.
+     *
+     * @throws ServiceUnavailableException if the queue is full
+     * @throws IllegalArgumentException if an event is too large to store
+     */
+    public CompletableFuture<Long> append(List<AuditEvent> events) {
+        if (!running) {
+            throw new ServiceUnavailableException("Audit log is not open");
+        }
+        List<Entry> entries = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            byte[] payload = encode(event);
+            if (payload.length > MAX_RECORD_BYTES) {
+                throw new IllegalArgumentException("Audit event larger than " + MAX_RECORD_BYTES + " bytes");
+            }
+            entries.add(new Entry(event.timestamp().toEpochMilli(), event.actor(), payload));
+        }
+        Pending pending = new Pending(entries, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new ServiceUnavailableException("Audit log is busy, retry later");
+        }
+        return pending.committed();
+    }
+
+    /**
+     * Committed events with a sequence above {@code afterSequence}, a timestamp (epoch millis) in
+     * {@code [from, to)} and the given actor and action where those are not null, in sequence
+     * order, at most {@code limit}.
+     */
+    public List<AuditRecord> query(long from, long to, String actor, String action, long afterSequence, int limit) {
+        List<AuditRecord> result = new ArrayList<>(Math.min(limit, 256));
+        Long startKey = segments.floorKey(afterSequence + 1);
+        Collection<LogSegment> candidates = startKey == null ? segments.values() : segments.tailMap(startKey, true).values();
+        for (LogSegment segment : candidates) {
+            for (SegmentIndex.Block block : segment.index().candidates(from, to, actor, afterSequence)) {
+                boolean more = segment.scan(block, afterSequence, from, to, (sequence, timestamp, payload) -> {
+                    AuditEvent event = decode(payload);
+                    if ((actor == null || actor.equals(event.actor())) && (action == null || action.equals(event.action()))) {
+                        result.add(new AuditRecord(sequence, event));
+                    }
+                    return result.size() < limit;
+                });
+                if (!more) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deletes sealed segments, oldest first, whose newest event is older than {@code cutoff}
+     * (epoch millis). Stops at the first segment that is still needed, so the log never has holes.
+     */
+    public int deleteSegmentsBefore(long cutoff) {
+        int deleted = 0;
+        for (Map.Entry<Long, LogSegment> entry : segments.entrySet()) {
+            LogSegment segment = entry.getValue();
+            if (segment == active || !segment.isSealed() || segment.maxTimestamp() >= cutoff) {
+                break;
+            }
+            segments.remove(entry.getKey());
+            try {
+                segment.delete();
+                deleted++;
+                log.info("Deleted audit segment {} ({} records)", segment.baseSequence(), segment.records());
+            } catch (IOException e) {
+                log.warn("Could not delete audit segment {}", segment.baseSequence(), e);
+            }
+        }
+        return deleted;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        // The writer drains the queue before it exits
+        writer.join();
+        Pending leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.committed().completeExceptionally(new IllegalStateException("Audit log closed"));
+        }
+        for (LogSegment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int events = first.entries().size();
+                Pending next;
+                while (events < batchEvents && (next = queue.poll()) != null) {
+                    batch.add(next);
+                    events += next.entries().size();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Audit log writer interrupted with {} batches queued", queue.size());
+                return;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        if (failure != null) {
+            fail(batch, failure);
+            return;
+        }
+        long[] firstSequences = new long[batch.size()];
+        LogSegment first = active;
+        LogSegment.Mark mark = first.mark();
+        List<LogSegment> touched = new ArrayList<>(2);
+        touched.add(first);
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < batch.size(); i++) {
+                List<Entry> entries = batch.get(i).entries();
+                for (int e = 0; e < entries.size(); e++) {
+                    Entry entry = entries.get(e);
+                    LogSegment segment = active;
+                    if (!segment.fits(entry.payload().length)
+                            || (segment.records() > 0 && now - segment.createdAt() > segmentMaxAge)) {
+                        segment = roll();
+                        touched.add(segment);
+                    }
+                    long sequence = segment.append(entry.timestamp(), entry.actor(), entry.payload());
+                    if (e == 0) {
+                        firstSequences[i] = sequence;
+                    }
+                }
+            }
+            // Everything reaches disk before any of it is published, so a failure leaves nothing visible
+            for (LogSegment segment : touched) {
+                segment.force(fsync);
+            }
+            for (int i = 0; i < touched.size() - 1; i++) {
+                touched.get(i).writeIndex(fsync);
+            }
+        } catch (Throwable e) {
+            log.error("Could not write {} batches to audit log {}", batch.size(), directory, e);
+            fail(batch, e);
+            discard(first, mark, touched, e);
+            return;
+        }
+        for (int i = 0; i < touched.size(); i++) {
+            LogSegment segment = touched.get(i);
+            segment.publish(i < touched.size() - 1);
+            if (i > 0) {
+                LogSegment sealed = touched.get(i - 1);
+                log.info("Sealed audit segment {} with {} records; writing to {}", sealed.baseSequence(),
+                        sealed.records(), segment.baseSequence());
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).committed().complete(firstSequences[i]);
+        }
+    }
+
+    /** Undoes a failed batch: rolls the segment it started in back and deletes the ones it created. */
+    private void discard(LogSegment first, LogSegment.Mark mark, List<LogSegment> touched, Throwable cause) {
+        try {
+            for (int i = touched.size() - 1; i > 0; i--) {
+                LogSegment created = touched.get(i);
+                segments.remove(created.baseSequence());
+                created.delete();
+            }
+            first.rollback(mark);
+            active = first;
+        } catch (Throwable e) {
+            cause.addSuppressed(e);
+            stop(cause);
+            return;
+        }
+        if (cause instanceof Error) {
+            stop(cause);
+        }
+    }
+
+    private void stop(Throwable cause) {
+        failure = cause;
+        running = false;
+        log.error("Audit log {} stopped after an unrecoverable write error; restart the service to recover", directory);
+    }
+
+    private static void fail(List<Pending> batch, Throwable cause) {
+        for (Pending pending : batch) {
+            pending.committed().completeExceptionally(cause);
+        }
+    }
+
+    /** Starts the next segment. The current one is sealed by the batch once its records are on disk. */
+    private LogSegment roll() throws IOException {
+        LogSegment next = LogSegment.create(directory, active.nextSequence(), segmentBytes);
+        segments.put(next.baseSequence(), next);
+        active = next;
+        return next;
+    }
+
+    private byte[] encode(AuditEvent event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private AuditEvent decode(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, AuditEvent.class);
+        } catch (IOException e) {
+            // The checksum matched, so this is a payload written by an incompatible version
+            throw new UncheckedIOException("Unreadable audit record", e);
+        }
+    }
+
+    private String actorOf(byte[] payload) {
+        return decode(payload).actor();
+    }
+}
@@ -0,0 +1,10 @@
+package com.clinicsys.audit.log;
+
+import com.clinicsys.common.audit.AuditEvent;
+
+/**
+ * A stored event with the sequence number the log assigned to it. Sequences increase in commit
+ * order and are never reused.
+ */
+public record AuditRecord(long sequence, AuditEvent event) {
+}
@@ -0,0 +1,393 @@
+package com.clinicsys.audit.log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * One memory-mapped file of the audit log, holding consecutive sequences from {@link #baseSequence}.
+ * <p>
+ * Records are framed as {@code length, CRC32, sequence, timestamp, payload}, where length and
+ * CRC cover everything after the CRC. The file is mapped at its full capacity up front, so an
+ * unwritten tail reads as zeros and a zero length marks the end. Only the writer thread calls
+ * {@link #append}, {@link #commit} and {@link #seal}; readers see records up to the committed
+ * position, which is published after the batch containing them was forced.
+ * <p>
+ * A sealed segment gets an index file next to it and is never written again; an unsealed one is
+ * rescanned on open, up to the first record that is torn, fails its checksum or breaks the
+ * sequence, and everything after that is zeroed.
+ * <p>
+ * Writable segments are filled with zeros up to their capacity before they are mapped, so a full
+ * disk fails {@link #create} with an {@link IOException} rather than faulting a later write to
+ * the mapping. Appends that have not been committed yet can be undone with {@link #rollback}.
+ */
+final class LogSegment {
+
+    static final int FRAME_HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 16;
+
+    private static final String LOG_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int ZERO_CHUNK_BYTES = 64 * 1024;
+
+    private final long baseSequence;
+    private final Path file;
+    private final Path indexFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final SegmentIndex index;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+
+    private int writePosition;
+    private volatile int committedPosition;
+    private long nextSequence;
+    private long createdAt;
+    private volatile boolean sealed;
+
+    /** Outcome of opening a segment: records found and bytes discarded after the last intact one. */
+    record Recovery(long records, int discardedFrom, boolean discarded) {
+    }
+
+    /** Write state at some point, to return to with {@link #rollback}. */
+    record Mark(int writePosition, long nextSequence, long createdAt, SegmentIndex.Mark index) {
+    }
+
+    private LogSegment(long baseSequence, Path file, FileChannel channel, MappedByteBuffer buffer,
+                       SegmentIndex index, boolean sealed) {
+        this.baseSequence = baseSequence;
+        this.file = file;
+        this.indexFile = file.resolveSibling(name(baseSequence, INDEX_SUFFIX));
+        this.channel = channel;
+        this.buffer = buffer;
+        this.index = index;
+        this.sealed = sealed;
+        this.writePosition = index.endPosition();
+        this.committedPosition = writePosition;
+        this.nextSequence = baseSequence + index.records();
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    static LogSegment create(Path directory, long baseSequence, int capacity) throws IOException {
+        Path file = directory.resolve(name(baseSequence, LOG_SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            preallocate(channel, capacity);
+            return new LogSegment(baseSequence, file, channel,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), new SegmentIndex(), false);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing segment. A segment with a readable index file is opened read-only as
+     * sealed; any other is recovered by scanning it, reading each record's actor back from its
+     * payload with {@code actorOf}.
+     */
+    static LogSegment open(Path file, int capacity, boolean writable, Function<byte[], String> actorOf) throws IOException {
+        long baseSequence = parseBaseSequence(file);
+        Path indexFile = file.resolveSibling(name(baseSequence, INDEX_SUFFIX));
+        SegmentIndex index = readIndex(indexFile);
+        if (index != null) {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            return new LogSegment(baseSequence, file, channel,
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), index, true);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (writable) {
+            preallocate(channel, capacity);
+        }
+        long size = channel.size();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        return new LogSegment(baseSequence, file, channel, buffer, scan(buffer, baseSequence, actorOf), false);
+    }
+
+    static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(LOG_SUFFIX) && name.length() == 20 + LOG_SUFFIX.length();
+    }
+
+    static long parseBaseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - LOG_SUFFIX.length()));
+    }
+
+    private static String name(long baseSequence, String suffix) {
+        return String.format("%020d%s", baseSequence, suffix);
+    }
+
+    /** Zeroes whatever follows the last intact record, so later appends are not mistaken for old ones. */
+    Recovery truncateTail() {
+        int from = writePosition;
+        boolean dirty = false;
+        byte[] zeros = new byte[ZERO_CHUNK_BYTES];
+        for (int position = from; position < buffer.capacity(); position += zeros.length) {
+            int length = Math.min(zeros.length, buffer.capacity() - position);
+            if (!dirty) {
+                for (int i = position; i < position + length && !dirty; i += 8) {
+                    dirty = i + 8 <= buffer.capacity() ? buffer.getLong(i) != 0 : buffer.get(i) != 0;
+                }
+                if (!dirty) {
+                    continue;
+                }
+            }
+            buffer.put(position, zeros, 0, length);
+        }
+        if (dirty) {
+            buffer.force();
+        }
+        return new Recovery(index.records(), from, dirty);
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    long nextSequence() {
+        return nextSequence;
+    }
+
+    long records() {
+        return index.records();
+    }
+
+    long maxTimestamp() {
+        return index.maxTimestamp();
+    }
+
+    long createdAt() {
+        return createdAt;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    SegmentIndex index() {
+        return index;
+    }
+
+    boolean fits(int payloadBytes) {
+        return (long) writePosition + FRAME_HEADER_BYTES + RECORD_HEADER_BYTES + payloadBytes <= buffer.capacity();
+    }
+
+    static int maxPayloadBytes(int capacity) {
+        return capacity - FRAME_HEADER_BYTES - RECORD_HEADER_BYTES;
+    }
+
+    /** Writes a record at the next sequence and returns that sequence. Not visible to readers until {@link #commit}. */
+    long append(long timestamp, String actor, byte[] payload) {
+        if (index.records() == 0) {
+            createdAt = System.currentTimeMillis();
+        }
+        long sequence = nextSequence++;
+        int length = RECORD_HEADER_BYTES + payload.length;
+        header.clear();
+        header.putLong(sequence).putLong(timestamp).flip();
+        crc.reset();
+        crc.update(header);
+        crc.update(payload);
+        int position = writePosition;
+        buffer.putInt(position, length);
+        buffer.putInt(position + 4, (int) crc.getValue());
+        buffer.putLong(position + 8, sequence);
+        buffer.putLong(position + 16, timestamp);
+        buffer.put(position + FRAME_HEADER_BYTES + RECORD_HEADER_BYTES, payload);
+        writePosition = position + FRAME_HEADER_BYTES + length;
+        index.add(sequence, timestamp, actor, position, FRAME_HEADER_BYTES + length);
+        return sequence;
+    }
+
+    /** Forces everything appended since the last commit, if {@code fsync}, and makes it visible to readers. */
+    void commit(boolean fsync) {
+        force(fsync);
+        publish(false);
+    }
+
+    /** Forces everything appended since the last commit to disk, if {@code fsync}, without publishing it. */
+    void force(boolean fsync) {
+        int from = committedPosition;
+        if (fsync && writePosition > from) {
+            buffer.force(from, writePosition - from);
+        }
+    }
+
+    /** Makes everything appended so far visible to readers and, if {@code seal}, marks the segment complete. */
+    void publish(boolean seal) {
+        committedPosition = writePosition;
+        if (seal) {
+            sealed = true;
+        }
+    }
+
+    /** Commits, then writes the index file that marks the segment as complete. */
+    void seal(boolean fsync) throws IOException {
+        commit(fsync);
+        writeIndex(fsync);
+        sealed = true;
+    }
+
+    Mark mark() {
+        return new Mark(writePosition, nextSequence, createdAt, index.mark());
+    }
+
+    /**
+     * Drops everything appended after {@code mark}, along with an index file written since, and
+     * zeroes those bytes so a restart does not scan them back in. Only records that were never
+     * committed can be rolled back.
+     */
+    void rollback(Mark mark) throws IOException {
+        if (mark.writePosition() < committedPosition) {
+            throw new IllegalStateException("Audit segment " + baseSequence + " already committed past the mark");
+        }
+        Files.deleteIfExists(indexFile);
+        byte[] zeros = new byte[ZERO_CHUNK_BYTES];
+        for (int position = mark.writePosition(); position < writePosition; position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, writePosition - position));
+        }
+        writePosition = mark.writePosition();
+        nextSequence = mark.nextSequence();
+        createdAt = mark.createdAt();
+        index.rollback(mark.index());
+    }
+
+    /**
+     * Writes the index file that marks the segment as complete on disk. The caller publishes the
+     * records with {@link #publish} afterwards.
+     */
+    void writeIndex(boolean fsync) throws IOException {
+        Path tmp = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream fileOut = Files.newOutputStream(tmp)) {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fileOut), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                index.writeTo(out);
+                out.writeLong(checked.getChecksum().getValue());
+                out.flush();
+            }
+            if (fsync) {
+                try (FileChannel tmpChannel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    tmpChannel.force(true);
+                }
+            }
+            try {
+                Files.move(tmp, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Calls the visitor for each committed record in the block whose sequence is above
+     * {@code afterSequence} and whose timestamp is in {@code [from, to)}, in sequence order,
+     * until it returns false. Returns false if the visitor stopped the scan.
+     */
+    boolean scan(SegmentIndex.Block block, long afterSequence, long from, long to, RecordVisitor visitor) {
+        int limit = committedPosition;
+        int end = block.end() < 0 ? limit : Math.min(block.end(), limit);
+        int position = block.start();
+        while (position < end) {
+            int length = buffer.getInt(position);
+            long sequence = buffer.getLong(position + 8);
+            long timestamp = buffer.getLong(position + 16);
+            if (sequence > afterSequence && timestamp >= from && timestamp < to) {
+                byte[] payload = new byte[length - RECORD_HEADER_BYTES];
+                buffer.get(position + FRAME_HEADER_BYTES + RECORD_HEADER_BYTES, payload);
+                if (!visitor.visit(sequence, timestamp, payload)) {
+                    return false;
+                }
+            }
+            position += FRAME_HEADER_BYTES + length;
+        }
+        return true;
+    }
+
+    /** Closes the file and deletes it with its index. Readers already holding the mapping can finish. */
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(indexFile);
+        Files.deleteIfExists(file);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        boolean visit(long sequence, long timestamp, byte[] payload);
+    }
+
+    private static SegmentIndex scan(MappedByteBuffer buffer, long baseSequence, Function<byte[], String> actorOf) {
+        SegmentIndex index = new SegmentIndex();
+        CRC32 crc = new CRC32();
+        int position = 0;
+        long expected = baseSequence;
+        while (position + FRAME_HEADER_BYTES + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length < RECORD_HEADER_BYTES || length > buffer.capacity() - position - FRAME_HEADER_BYTES) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(position + FRAME_HEADER_BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4) || buffer.getLong(position + 8) != expected) {
+                break;
+            }
+            byte[] payload = new byte[length - RECORD_HEADER_BYTES];
+            buffer.get(position + FRAME_HEADER_BYTES + RECORD_HEADER_BYTES, payload);
+            index.add(expected, buffer.getLong(position + 16), actorOf.apply(payload), position,
+                    FRAME_HEADER_BYTES + length);
+            expected++;
+            position += FRAME_HEADER_BYTES + length;
+        }
+        return index;
+    }
+
+    // Writes real zeros rather than extending the file, so the filesystem allocates every block now
+    private static void preallocate(FileChannel channel, int capacity) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate(ZERO_CHUNK_BYTES);
+        for (long position = channel.size(); position < capacity; ) {
+            zeros.clear().limit((int) Math.min(zeros.capacity(), capacity - position));
+            position += channel.write(zeros, position);
+        }
+    }
+
+    private static SegmentIndex readIndex(Path indexFile) {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try (InputStream fileIn = Files.newInputStream(indexFile)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(fileIn), new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            SegmentIndex index = SegmentIndex.readFrom(in);
+            long computed = checked.getChecksum().getValue();
+            return in.readLong() == computed ? index : null;
+        } catch (IOException | RuntimeException e) {
+            // Rebuilt from the segment itself
+            return null;
+        }
+    }
+}
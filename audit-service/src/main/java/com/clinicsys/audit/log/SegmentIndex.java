@@ -0,0 +1,206 @@
+package com.clinicsys.audit.log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse index of one segment. Records are grouped into blocks of {@link #BLOCK_RECORDS}; for
+ * each block the index keeps its file position, first sequence and timestamp range, and for
+ * each actor a bitmap of the blocks containing that actor. A query then reads only the blocks
+ * that can match instead of the whole segment.
+ * <p>
+ * Timestamps are event times as sent by producers, which are only roughly ordered, so a block's
+ * range may overlap its neighbours'. The writer adds entries while queries run; both go through
+ * this object's monitor.
+ */
+final class SegmentIndex {
+
+    static final int BLOCK_RECORDS = 64;
+
+    private static final int MAGIC = 0x43534931; // "CSI1"
+
+    private int blocks;
+    private int[] blockStart = new int[16];
+    private long[] blockFirstSequence = new long[16];
+    private long[] blockMinTimestamp = new long[16];
+    private long[] blockMaxTimestamp = new long[16];
+    private final Map<String, BitSet> actorBlocks = new HashMap<>();
+    private long records;
+    private int endPosition;
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    /** Blocks a query has to read: positions {@code start} (inclusive) to {@code end} (exclusive, -1 for open). */
+    record Block(int start, int end) {
+    }
+
+    /** State at some point, to return to with {@link #rollback}. */
+    record Mark(int blocks, long records, int endPosition, long minTimestamp, long maxTimestamp,
+                long lastBlockMinTimestamp, long lastBlockMaxTimestamp) {
+    }
+
+    synchronized void add(long sequence, long timestamp, String actor, int position, int length) {
+        if (records % BLOCK_RECORDS == 0) {
+            if (blocks == blockStart.length) {
+                int size = blocks * 2;
+                blockStart = Arrays.copyOf(blockStart, size);
+                blockFirstSequence = Arrays.copyOf(blockFirstSequence, size);
+                blockMinTimestamp = Arrays.copyOf(blockMinTimestamp, size);
+                blockMaxTimestamp = Arrays.copyOf(blockMaxTimestamp, size);
+            }
+            blockStart[blocks] = position;
+            blockFirstSequence[blocks] = sequence;
+            blockMinTimestamp[blocks] = Long.MAX_VALUE;
+            blockMaxTimestamp[blocks] = Long.MIN_VALUE;
+            blocks++;
+        }
+        int block = blocks - 1;
+        blockMinTimestamp[block] = Math.min(blockMinTimestamp[block], timestamp);
+        blockMaxTimestamp[block] = Math.max(blockMaxTimestamp[block], timestamp);
+        actorBlocks.computeIfAbsent(actor, key -> new BitSet()).set(block);
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        endPosition = position + length;
+        records++;
+    }
+
+    synchronized Mark mark() {
+        int last = blocks - 1;
+        return new Mark(blocks, records, endPosition, minTimestamp, maxTimestamp,
+                last < 0 ? Long.MAX_VALUE : blockMinTimestamp[last], last < 0 ? Long.MIN_VALUE : blockMaxTimestamp[last]);
+    }
+
+    /**
+     * Forgets every entry added after {@code mark}. Actors of dropped entries may stay listed for
+     * the block the mark ends in, which only costs a query a block it did not need to read.
+     */
+    synchronized void rollback(Mark mark) {
+        blocks = mark.blocks();
+        records = mark.records();
+        endPosition = mark.endPosition();
+        minTimestamp = mark.minTimestamp();
+        maxTimestamp = mark.maxTimestamp();
+        if (blocks > 0) {
+            blockMinTimestamp[blocks - 1] = mark.lastBlockMinTimestamp();
+            blockMaxTimestamp[blocks - 1] = mark.lastBlockMaxTimestamp();
+        }
+        actorBlocks.values().forEach(bits -> bits.clear(blocks, Math.max(blocks, bits.length())));
+        actorBlocks.values().removeIf(BitSet::isEmpty);
+    }
+
+    synchronized long records() {
+        return records;
+    }
+
+    synchronized int endPosition() {
+        return endPosition;
+    }
+
+    synchronized long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * Blocks that may hold records with a sequence above {@code afterSequence}, a timestamp in
+     * {@code [from, to)} and, if {@code actor} is given, that actor. Adjacent blocks are merged.
+     */
+    synchronized List<Block> candidates(long from, long to, String actor, long afterSequence) {
+        List<Block> result = new ArrayList<>();
+        if (records == 0 || maxTimestamp < from || minTimestamp >= to) {
+            return result;
+        }
+        BitSet actorMatches = null;
+        if (actor != null) {
+            actorMatches = actorBlocks.get(actor);
+            if (actorMatches == null) {
+                return result;
+            }
+        }
+        int first = Math.max(0, firstBlockAfter(afterSequence));
+        int runStart = -1;
+        for (int block = first; block < blocks; block++) {
+            boolean match = blockMaxTimestamp[block] >= from && blockMinTimestamp[block] < to
+                    && (actorMatches == null || actorMatches.get(block));
+            if (match && runStart < 0) {
+                runStart = block;
+            } else if (!match && runStart >= 0) {
+                result.add(new Block(blockStart[runStart], blockStart[block]));
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            result.add(new Block(blockStart[runStart], -1));
+        }
+        return result;
+    }
+
+    // Last block whose first sequence is at or below afterSequence + 1, i.e. the first that can hold a later record
+    private int firstBlockAfter(long afterSequence) {
+        int index = Arrays.binarySearch(blockFirstSequence, 0, blocks, afterSequence + 1);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeLong(records);
+        out.writeInt(endPosition);
+        out.writeLong(minTimestamp);
+        out.writeLong(maxTimestamp);
+        out.writeInt(blocks);
+        for (int block = 0; block < blocks; block++) {
+            out.writeInt(blockStart[block]);
+            out.writeLong(blockFirstSequence[block]);
+            out.writeLong(blockMinTimestamp[block]);
+            out.writeLong(blockMaxTimestamp[block]);
+        }
+        out.writeInt(actorBlocks.size());
+        for (Map.Entry<String, BitSet> entry : actorBlocks.entrySet()) {
+            out.writeUTF(entry.getKey());
+            long[] words = entry.getValue().toLongArray();
+            out.writeInt(words.length);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    static SegmentIndex readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an audit segment index");
+        }
+        SegmentIndex index = new SegmentIndex();
+        index.records = in.readLong();
+        index.endPosition = in.readInt();
+        index.minTimestamp = in.readLong();
+        index.maxTimestamp = in.readLong();
+        index.blocks = in.readInt();
+        int size = Math.max(16, index.blocks);
+        index.blockStart = new int[size];
+        index.blockFirstSequence = new long[size];
+        index.blockMinTimestamp = new long[size];
+        index.blockMaxTimestamp = new long[size];
+        for (int block = 0; block < index.blocks; block++) {
+            index.blockStart[block] = in.readInt();
+            index.blockFirstSequence[block] = in.readLong();
+            index.blockMinTimestamp[block] = in.readLong();
+            index.blockMaxTimestamp[block] = in.readLong();
+        }
+        int actors = in.readInt();
+        for (int i = 0; i < actors; i++) {
+            String actor = in.readUTF();
+            long[] words = new long[in.readInt()];
+            for (int w = 0; w < words.length; w++) {
+                words[w] = in.readLong();
+            }
+            index.actorBlocks.put(actor, BitSet.valueOf(words));
+        }
+        return index;
+    }
+}
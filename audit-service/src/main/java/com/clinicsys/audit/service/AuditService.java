@@ -0,0 +1,109 @@
+package com.clinicsys.audit.service;
+
+import com.clinicsys.audit.dto.AuditPage;
+import com.clinicsys.audit.dto.IngestResult;
+import com.clinicsys.audit.log.AuditLog;
+import com.clinicsys.audit.log.AuditRecord;
+import com.clinicsys.common.audit.AuditEvent;
+import com.clinicsys.common.exception.BadRequestException;
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import com.clinicsys.common.exception.UnauthorizedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Service
+public class AuditService {
+
+    private final AuditLog auditLog;
+    private final long commitTimeout;
+    private final int maxPageSize;
+    private final long retentionDays;
+    private final byte[] ingestToken;
+
+    public AuditService(
+            AuditLog auditLog,
+            @Value("${audit.log.commit-timeout:5000}") long commitTimeout,
+            @Value("${audit.query.max-page-size:1000}") int maxPageSize,
+            @Value("${audit.log.retention-days:2190}") long retentionDays,
+            @Value("${audit.ingest.token:}") String ingestToken) {
+        this.auditLog = auditLog;
+        this.commitTimeout = commitTimeout;
+        this.maxPageSize = maxPageSize;
+        this.retentionDays = retentionDays;
+        this.ingestToken = ingestToken.isBlank() ? null : ingestToken.getBytes(StandardCharsets.UTF_8);
+        if (this.ingestToken == null) {
+            log.warn("audit.ingest.token is not set: anyone who can reach this service can write audit events");
+        }
+    }
+
+    /** Rejects ingest calls that do not carry the configured service token. */
+    public void checkIngestToken(String token) {
+        if (ingestToken != null && (token == null
+                || !MessageDigest.isEqual(ingestToken, token.getBytes(StandardCharsets.UTF_8)))) {
+            throw new UnauthorizedException("Missing or invalid audit ingest token");
+        }
+    }
+
+    /** Stores the events and returns once they are durable. Events without a timestamp get the receipt time. */
+    public IngestResult ingest(List<AuditEvent> events) {
+        Instant received = Instant.now();
+        List<AuditEvent> stamped = new ArrayList<>(events.size());
+        for (AuditEvent event : events) {
+            stamped.add(event.timestamp() != null ? event
+                    : new AuditEvent(received, event.service(), event.actor(), event.action(), event.target(),
+                            event.outcome(), event.sourceIp(), event.details()));
+        }
+        long firstSequence;
+        try {
+            firstSequence = auditLog.append(stamped).get(commitTimeout, TimeUnit.MILLISECONDS);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        } catch (TimeoutException e) {
+            // Still queued and will be written; the producer's retry may store it twice
+            throw new ServiceUnavailableException("Audit log did not commit in time");
+        } catch (ExecutionException e) {
+            throw new ServiceUnavailableException("Audit log write failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for the audit log");
+        }
+        return new IngestResult(firstSequence, stamped.size());
+    }
+
+    public AuditPage query(Instant from, Instant to, String actor, String action, Long afterSequence, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new BadRequestException("limit must be between 1 and " + maxPageSize);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        List<AuditRecord> records = auditLog.query(
+                from == null ? Long.MIN_VALUE : from.toEpochMilli(),
+                to == null ? Long.MAX_VALUE : to.toEpochMilli(),
+                actor, action, afterSequence == null ? 0 : afterSequence, limit);
+        Long next = records.size() == limit ? records.get(records.size() - 1).sequence() : null;
+        return new AuditPage(records, next);
+    }
+
+    @Scheduled(cron = "${audit.log.retention-cron:0 15 3 * * *}")
+    public void enforceRetention() {
+        long cutoff = Instant.now().minus(Duration.ofDays(retentionDays)).toEpochMilli();
+        int deleted = auditLog.deleteSegmentsBefore(cutoff);
+        if (deleted > 0) {
+            log.info("Retention removed {} audit segments; {} remain", deleted, auditLog.segmentCount());
+        }
+    }
+}
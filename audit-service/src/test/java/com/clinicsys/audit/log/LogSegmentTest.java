@@ -0,0 +1,195 @@
+package com.clinicsys.audit.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSegmentTest {
+
+    private static final int CAPACITY = 256 * 1024;
+    private static final long BASE = 1000;
+    private static final Function<byte[], String> ACTOR_OF = payload -> new String(payload, StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    private final List<LogSegment> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeSegments() throws IOException {
+        for (LogSegment segment : opened) {
+            segment.close();
+        }
+    }
+
+    @Test
+    void recoversCommittedRecordsAndZeroesATornTail() throws IOException {
+        LogSegment segment = create();
+        appendAll(segment, 0, 100);
+        segment.commit(true);
+        int end = segment.index().endPosition();
+        segment.close();
+        // A frame whose length made it to disk but whose body did not
+        write(end, ByteBuffer.allocate(12).putInt(LogSegment.RECORD_HEADER_BYTES + 5).putInt(0x1234).putInt(7).flip());
+
+        LogSegment reopened = open();
+        assertEquals(100, reopened.records());
+        assertEquals(BASE + 100, reopened.nextSequence());
+        assertEquals(new LogSegment.Recovery(100, end, true), reopened.truncateTail());
+        assertEquals(new LogSegment.Recovery(100, end, false), reopened.truncateTail());
+
+        reopened.append(500, "late", "late".getBytes(StandardCharsets.UTF_8));
+        reopened.commit(true);
+        reopened.close();
+
+        assertEquals(sequences(0, 101), all(open()));
+    }
+
+    @Test
+    void stopsRecoveryAtACorruptRecord() throws IOException {
+        LogSegment segment = create();
+        appendAll(segment, 0, 100);
+        segment.commit(true);
+        segment.close();
+        int fortieth = positionOf(40);
+        write(fortieth + LogSegment.FRAME_HEADER_BYTES + LogSegment.RECORD_HEADER_BYTES,
+                ByteBuffer.wrap("#".getBytes(StandardCharsets.UTF_8)));
+
+        LogSegment reopened = open();
+        assertEquals(40, reopened.records());
+        assertTrue(reopened.truncateTail().discarded());
+        reopened.close();
+
+        LogSegment again = open();
+        assertEquals(sequences(0, 40), all(again));
+        assertFalse(again.truncateTail().discarded());
+    }
+
+    @Test
+    void reloadsASealedSegmentFromItsIndex() throws IOException {
+        LogSegment segment = create();
+        appendAll(segment, 0, 300);
+        segment.seal(true);
+        List<Long> byActor = matching(segment, "actor-2", 50, 250);
+        assertEquals(50, byActor.size());
+        segment.close();
+
+        LogSegment reopened = open();
+        assertTrue(reopened.isSealed());
+        assertEquals(300, reopened.records());
+        assertEquals(BASE + 300, reopened.nextSequence());
+        assertEquals(byActor, matching(reopened, "actor-2", 50, 250));
+        assertEquals(sequences(0, 300), all(reopened));
+    }
+
+    @Test
+    void rescansASegmentWhoseIndexIsDamaged() throws IOException {
+        LogSegment segment = create();
+        appendAll(segment, 0, 300);
+        segment.seal(true);
+        segment.close();
+        Path indexFile = directory.resolve(String.format("%020d.idx", BASE));
+        byte[] bytes = Files.readAllBytes(indexFile);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(indexFile, bytes);
+
+        LogSegment reopened = open();
+        assertFalse(reopened.isSealed());
+        assertEquals(300, reopened.records());
+        assertEquals(sequences(0, 300), all(reopened));
+    }
+
+    @Test
+    void rollbackDropsUncommittedAppends() throws IOException {
+        LogSegment segment = create();
+        appendAll(segment, 0, 70);
+        segment.commit(true);
+        LogSegment.Mark mark = segment.mark();
+        appendAll(segment, 70, 130);
+        segment.writeIndex(true);
+
+        segment.rollback(mark);
+        assertFalse(Files.exists(directory.resolve(String.format("%020d.idx", BASE))));
+        assertEquals(70, segment.records());
+        appendAll(segment, 70, 75);
+        segment.commit(true);
+        assertThrows(IllegalStateException.class, () -> segment.rollback(mark));
+        segment.close();
+
+        LogSegment reopened = open();
+        assertEquals(sequences(0, 75), all(reopened));
+        assertFalse(reopened.truncateTail().discarded());
+    }
+
+    private LogSegment create() throws IOException {
+        return LogSegment.create(directory, BASE, CAPACITY);
+    }
+
+    private LogSegment open() throws IOException {
+        LogSegment segment = LogSegment.open(directory.resolve(String.format("%020d.log", BASE)), CAPACITY, true, ACTOR_OF);
+        opened.add(segment);
+        return segment;
+    }
+
+    // Record i has timestamp i and actor "actor-" + i % 4, which doubles as its payload
+    private static void appendAll(LogSegment segment, int from, int to) {
+        for (int i = from; i < to; i++) {
+            String actor = "actor-" + i % 4;
+            assertEquals(BASE + i, segment.append(i, actor, actor.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private int positionOf(int record) {
+        int position = 0;
+        for (int i = 0; i < record; i++) {
+            position += LogSegment.FRAME_HEADER_BYTES + LogSegment.RECORD_HEADER_BYTES
+                    + ("actor-" + i % 4).length();
+        }
+        return position;
+    }
+
+    private void write(int position, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(String.format("%020d.log", BASE)),
+                StandardOpenOption.WRITE)) {
+            channel.write(bytes, position);
+        }
+    }
+
+    private static List<Long> all(LogSegment segment) {
+        return matching(segment, null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private static List<Long> matching(LogSegment segment, String actor, long from, long to) {
+        List<Long> sequences = new ArrayList<>();
+        for (SegmentIndex.Block block : segment.index().candidates(from, to, actor, -1)) {
+            segment.scan(block, -1, from, to, (sequence, timestamp, payload) -> {
+                if (actor == null || actor.equals(ACTOR_OF.apply(payload))) {
+                    sequences.add(sequence);
+                }
+                return true;
+            });
+        }
+        return sequences;
+    }
+
+    private static List<Long> sequences(int from, int to) {
+        return LongStream.range(BASE + from, BASE + to).boxed().toList();
+    }
+}
@@ -0,0 +1,50 @@
+package com.clinicsys.auth.config;
+
+import com.clinicsys.common.audit.AuditClient;
+import com.clinicsys.common.audit.HttpAuditClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Audit events go to audit-service through {@link HttpAuditClient}'s background queue, so a
+ * slow or missing audit-service never holds up a login. With {@code audit.client.enabled=false}
+ * events are discarded.
+ */
+@Configuration
+public class AuditConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "audit.client.enabled", havingValue = "true", matchIfMissing = true)
+    public HttpAuditClient auditClient(
+            @Value("${audit.client.url:http://localhost:8086/internal/audit/events}") String url,
+            @Value("${audit.client.token:}") String token,
+            @Value("${audit.client.queue-capacity:10000}") int queueCapacity,
+            @Value("${audit.client.batch-size:200}") int batchSize,
+            @Value("${audit.client.flush-interval:50}") long flushInterval,
+            @Value("${audit.client.max-backoff:5000}") long maxBackoff,
+            @Value("${audit.client.request-timeout:2000}") long requestTimeout,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        HttpAuditClient client = new HttpAuditClient(URI.create(url), token, objectMapper, queueCapacity, batchSize,
+                Duration.ofMillis(flushInterval), Duration.ofMillis(maxBackoff), Duration.ofMillis(requestTimeout));
+        Gauge.builder("audit.client.queued", client, HttpAuditClient::queued).register(meterRegistry);
+        Gauge.builder("audit.client.sent", client, HttpAuditClient::sent).register(meterRegistry);
+        Gauge.builder("audit.client.dropped", client, HttpAuditClient::dropped).register(meterRegistry);
+        Gauge.builder("audit.client.failed.attempts", client, HttpAuditClient::failedAttempts).register(meterRegistry);
+        return client;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "audit.client.enabled", havingValue = "false")
+    public AuditClient noopAuditClient() {
+        return AuditClient.noop();
+    }
+}
@@ -1,6 +1,12 @@
 package com.clinicsys.auth.config;
 
 import com.clinicsys.auth.service.JwtService;
+import com.clinicsys.auth.service.SecurityVersionRegistry;
+import com.clinicsys.auth.service.TokenPrincipal;
+import com.clinicsys.auth.service.TokenRevocationStore;
+import com.clinicsys.auth.service.VerifiedToken;
+import com.clinicsys.auth.service.VerifiedTokenCache;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,43 +24,88 @@ import java.io.IOException;
 
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
-    
+    private final VerifiedTokenCache tokenCache;
+    private final SecurityVersionRegistry securityVersions;
+    private final TokenRevocationStore revocationStore;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
-        
+
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
-        
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        final VerifiedToken token;
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")
+                || SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
-        
+
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-        
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        final String cacheKey = tokenCache.keyFor(jwt);
+
+        // Repeat token: signature and user were already checked, skip both
+        VerifiedTokenCache.CachedAuthentication cached = tokenCache.get(cacheKey);
+        if (cached != null) {
+            if (isCurrent(cached.principal()) && !revocationStore.isRevoked(cached.tokenId(), cached.expiresAt())) {
+                authenticate(request, cached.principal());
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            token = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Invalid or expired token: continue unauthenticated and let the entry point reject it
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Refresh tokens only buy new tokens at /api/auth/refresh, they never authenticate a request
+        if (!token.hasType(JwtService.TOKEN_TYPE_ACCESS) || revocationStore.isRevoked(token.id(), token.expiration().getTime())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Stateless principal mode: identity comes from the claims alone, no database access
+        TokenPrincipal tokenPrincipal = jwtService.isStatelessPrincipal() ? jwtService.toPrincipal(token) : null;
+        if (tokenPrincipal != null) {
+            tokenCache.put(cacheKey, tokenPrincipal, token, tokenCache.stamp());
+            if (securityVersions.isCurrent(tokenPrincipal)) {
+                authenticate(request, tokenPrincipal);
+            }
+        } else if (token.subject() != null) {
+            long stamp = tokenCache.stamp();
+            UserDetails userDetails = this.userDetailsService.loadUserByUsername(token.subject());
+
+            if (jwtService.isTokenValid(token, userDetails)) {
+                tokenCache.put(cacheKey, userDetails, token, stamp);
+                authenticate(request, userDetails);
             }
         }
-        
+
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+
+    private boolean isCurrent(UserDetails principal) {
+        return !(principal instanceof TokenPrincipal tokenPrincipal) || securityVersions.isCurrent(tokenPrincipal);
+    }
+
+    private void authenticate(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+}
@@ -0,0 +1,94 @@
+package com.clinicsys.auth.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in virtual-thread execution ({@code spring.threads.virtual.enabled=true}, the property
+ * Spring Boot 3.2 later adopted for the same purpose). Tomcat then runs every request on a new
+ * virtual thread, so requests blocked on Postgres or outbound HTTP park cheaply instead of
+ * holding one of {@code server.tomcat.threads.max} platform threads; JPA and JDBC calls made by
+ * the request run on that same virtual thread. {@code @Async} work and MVC async requests use
+ * virtual threads too.
+ * <p>
+ * bcrypt deliberately stays on {@link BoundedPasswordEncoder}'s fixed platform pool: virtual
+ * threads add nothing to CPU-bound work and would let a login burst occupy every carrier.
+ * In-flight requests are then bounded by {@code server.tomcat.max-connections} and by the
+ * Hikari pool rather than by the thread pool.
+ * <p>
+ * Needs a Java 21 runtime (build with {@code -Pjava21}); on older JVMs a warning is logged,
+ * Tomcat keeps its platform-thread pool and Boot's bounded {@code applicationTaskExecutor} stays
+ * in place. The virtual-thread API is reached reflectively so the default Java 17 build still
+ * compiles.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ThreadFactory threadFactory = virtualThreadFactory("tomcat-handler-");
+        return protocolHandler -> {
+            if (threadFactory != null) {
+                protocolHandler.setExecutor(task -> threadFactory.newThread(task).start());
+            }
+        };
+    }
+
+    // Thread-per-task is only safe with virtual threads; otherwise Boot's bounded pool is kept
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @Conditional(VirtualThreadsAvailable.class)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("task-");
+        executor.setThreadFactory(virtualThreadFactory("task-"));
+        return executor;
+    }
+
+    /** {@code Thread.ofVirtual().name(prefix, 0).factory()}, or null before Java 21. */
+    static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            return newVirtualThreadFactory(prefix);
+        } catch (ReflectiveOperationException e) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; keeping platform threads",
+                    Runtime.version().feature());
+            return null;
+        }
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(String prefix) throws ReflectiveOperationException {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+        Method name = builderType.getMethod("name", String.class, long.class);
+        return (ThreadFactory) builderType.getMethod("factory").invoke(name.invoke(builder, prefix, 0L));
+    }
+
+    static class VirtualThreadsAvailable implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            try {
+                newVirtualThreadFactory("probe-");
+                return true;
+            } catch (ReflectiveOperationException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package com.clinicsys.auth.controller;
 
 import com.clinicsys.auth.dto.AuthResponse;
+import com.clinicsys.auth.dto.BatchValidateRequest;
 import com.clinicsys.auth.dto.LoginRequest;
+import com.clinicsys.auth.dto.LogoutRequest;
 import com.clinicsys.auth.dto.RegisterRequest;
+import com.clinicsys.auth.dto.TokenValidationResult;
 import com.clinicsys.auth.service.AuthService;
+import com.clinicsys.auth.service.SigningKeyManager;
 import com.clinicsys.common.dto.ApiResponse;
+import com.clinicsys.common.dto.PreEncodedResponse;
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import com.clinicsys.common.exception.UnauthorizedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.validation.FieldError;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,6 +34,21 @@ import java.util.Map;
 public class AuthController {
     
     private final AuthService authService;
+    private final SigningKeyManager signingKeyManager;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${jwt.batch-validation.max-tokens:500}")
+    private int maxBatchTokens;
+    
+    // Constant bodies, encoded once; only the timestamp is spliced in per request
+    private PreEncodedResponse healthResponse;
+    private PreEncodedResponse logoutResponse;
+    
+    @PostConstruct
+    void encodeConstantResponses() {
+        healthResponse = PreEncodedResponse.of(objectMapper, ApiResponse.success("Auth service is running"));
+        logoutResponse = PreEncodedResponse.of(objectMapper, ApiResponse.success("Logout successful"));
+    }
     
     @PostMapping("/register")
     public ResponseEntity<ApiResponse<AuthResponse>> register(@Valid @RequestBody RegisterRequest request) {
@@ -45,11 +74,15 @@ public class AuthController {
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<ApiResponse<String>> logout(@RequestHeader("Authorization") String authHeader) {
-        // In a stateless JWT setup, logout is typically handled client-side
-        // by removing the token. However, we can implement server-side logout
-        // by maintaining a blacklist of tokens or using Redis
-        return ResponseEntity.ok(ApiResponse.success("Logout successful"));
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader,
+                                    @RequestBody(required = false) LogoutRequest request) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid authorization header"));
+        }
+        
+        // Revokes each token's jti until it would have expired anyway
+        authService.logout(authHeader.substring(7), request == null ? null : request.getRefreshToken());
+        return logoutResponse.toResponseEntity();
     }
     
     @GetMapping("/validate")
@@ -68,9 +101,31 @@ public class AuthController {
         }
     }
     
+    /**
+     * Validates up to {@code jwt.batch-validation.max-tokens} tokens in one call, for services
+     * that would otherwise hit {@code /validate} once per token.
+     */
+    @PostMapping("/validate/batch")
+    public ResponseEntity<ApiResponse<List<TokenValidationResult>>> validateTokens(@Valid @RequestBody BatchValidateRequest request) {
+        if (request.getTokens().size() > maxBatchTokens) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("At most " + maxBatchTokens + " tokens per request"));
+        }
+        
+        List<TokenValidationResult> results = authService.validateTokens(request.getTokens());
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+    
+    // Plain JWKS document (not wrapped in ApiResponse) so standard JOSE clients can consume it
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)))
+                .body(signingKeyManager.jwks());
+    }
+    
     @GetMapping("/health")
-    public ResponseEntity<ApiResponse<String>> health() {
-        return ResponseEntity.ok(ApiResponse.success("Auth service is running"));
+    public ResponseEntity<byte[]> health() {
+        return healthResponse.toResponseEntity();
     }
     
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -83,4 +138,16 @@ public class AuthController {
         });
         return ResponseEntity.badRequest().body(ApiResponse.error("Validation failed", errors));
     }
+    
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleUnauthorized(UnauthorizedException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
 } 
\ No newline at end of file
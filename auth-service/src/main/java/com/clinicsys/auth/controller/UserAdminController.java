@@ -0,0 +1,107 @@
+package com.clinicsys.auth.controller;
+
+import com.clinicsys.auth.dto.UserPage;
+import com.clinicsys.auth.model.User;
+import com.clinicsys.auth.repository.UserRepositoryCustom.UserFilter;
+import com.clinicsys.auth.service.UserImportService;
+import com.clinicsys.auth.service.UserListingService;
+import com.clinicsys.common.dto.ApiResponse;
+import com.clinicsys.common.exception.BadRequestException;
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/auth/admin/users")
+@RequiredArgsConstructor
+public class UserAdminController {
+    
+    private static final String NDJSON = "application/x-ndjson";
+    
+    private final UserImportService userImportService;
+    private final UserListingService userListingService;
+    
+    /**
+     * One page of users in id order. Pass the returned {@code nextAfter} as {@code after} to continue.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<UserPage>> listUsers(
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Boolean verified,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        UserPage page = userListingService.list(new UserFilter(role, active, verified), after, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+    
+    /**
+     * Every matching user as NDJSON, streamed straight from a database cursor.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public void exportUsers(
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Boolean verified,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        userListingService.export(new UserFilter(role, active, verified), response.getOutputStream());
+    }
+    
+    /**
+     * The export as one {@code ApiResponse} envelope ({@code ?format=json}) for clients that
+     * cannot consume NDJSON. Still streamed from the cursor, element by element.
+     */
+    @GetMapping(value = "/export", params = "format=json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void exportUsersEnvelope(
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) Boolean verified,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        userListingService.exportEnvelope(new UserFilter(role, active, verified), response.getOutputStream());
+    }
+    
+    /**
+     * Bulk import from an NDJSON ({@code application/x-ndjson}) or CSV ({@code text/csv}) body.
+     * The response is streamed while the import runs: one NDJSON line per rejected row, then a summary.
+     */
+    @PostMapping(value = "/import", consumes = {NDJSON, "text/csv"})
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        userImportService.importUsers(request.getInputStream(), csv, response.getOutputStream());
+    }
+    
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiResponse<Object>> handleBadRequest(BadRequestException ex) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceUnavailable(ServiceUnavailableException ex,
+                                                                        HttpServletResponse response) {
+        // Drops the NDJSON content type a streaming endpoint set before failing
+        if (!response.isCommitted()) {
+            response.reset();
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+}
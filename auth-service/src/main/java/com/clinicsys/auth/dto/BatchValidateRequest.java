@@ -0,0 +1,17 @@
+package com.clinicsys.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchValidateRequest {
+    
+    @NotEmpty(message = "At least one token is required")
+    private List<String> tokens;
+}
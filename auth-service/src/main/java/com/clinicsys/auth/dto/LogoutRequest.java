@@ -0,0 +1,14 @@
+package com.clinicsys.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogoutRequest {
+    
+    // Revoked along with the access token, so the session cannot be renewed after logout
+    private String refreshToken;
+}
@@ -0,0 +1,18 @@
+package com.clinicsys.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Per-token entry of a batch validation response, in the same order as the request.
+ * Invalid tokens carry only {@code valid=false}; the reason is deliberately not disclosed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenValidationResult(
+        boolean valid,
+        Long userId,
+        String email,
+        String role,
+        Long expiresAt) {
+    
+    public static final TokenValidationResult INVALID = new TokenValidationResult(false, null, null, null, null);
+}
@@ -0,0 +1,36 @@
+package com.clinicsys.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the streamed import report: a rejected row, or the final summary ({@code ABORTED},
+ * with the reason in {@code error}, when the import stopped early).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportResult(
+        String status,
+        Long line,
+        String email,
+        String error,
+        Long total,
+        Long imported,
+        Long failed,
+        Long durationMs) {
+    
+    public static final String FAILED = "FAILED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String SUMMARY = "SUMMARY";
+    public static final String ABORTED = "ABORTED";
+    
+    public static UserImportResult rejected(String status, long line, String email, String error) {
+        return new UserImportResult(status, line, email, error, null, null, null, null);
+    }
+    
+    public static UserImportResult summary(long total, long imported, long failed, long durationMs) {
+        return new UserImportResult(SUMMARY, null, null, null, total, imported, failed, durationMs);
+    }
+    
+    public static UserImportResult aborted(long total, long imported, long failed, long durationMs, String error) {
+        return new UserImportResult(ABORTED, null, null, error, total, imported, failed, durationMs);
+    }
+}
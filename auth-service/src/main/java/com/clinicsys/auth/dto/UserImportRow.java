@@ -0,0 +1,45 @@
+package com.clinicsys.auth.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One user in a bulk import (one NDJSON object or one CSV row). Either {@code password}
+ * (plain text, hashed during import) or {@code passwordHash} (an existing bcrypt hash,
+ * stored as-is) must be given.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRow {
+    
+    @NotBlank(message = "Email is required")
+    @Email(message = "Invalid email format")
+    private String email;
+    
+    @NotBlank(message = "First name is required")
+    @Size(min = 2, max = 50, message = "First name must be between 2 and 50 characters")
+    private String firstName;
+    
+    @NotBlank(message = "Last name is required")
+    @Size(min = 2, max = 50, message = "Last name must be between 2 and 50 characters")
+    private String lastName;
+    
+    @Pattern(regexp = "^\\+?[1-9]\\d{1,14}$", message = "Invalid phone number format")
+    private String phoneNumber;
+    
+    private String role = "PATIENT";
+    
+    @Size(min = 8, message = "Password must be at least 8 characters long")
+    private String password;
+    
+    @Pattern(regexp = "^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$", message = "Password hash must be a bcrypt hash")
+    private String passwordHash;
+    
+    private boolean verified = false;
+}
@@ -0,0 +1,19 @@
+package com.clinicsys.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page. Pass {@code nextAfter} back as {@code after} to get the following page;
+ * it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+    private List<UserSummary> users;
+    private Long nextAfter;
+}
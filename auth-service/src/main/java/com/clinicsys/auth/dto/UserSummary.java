@@ -0,0 +1,22 @@
+package com.clinicsys.auth.dto;
+
+import com.clinicsys.auth.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Listing projection of a user: only the columns dashboards need, never the password hash.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private User.Role role;
+    private boolean active;
+    private boolean verified;
+}
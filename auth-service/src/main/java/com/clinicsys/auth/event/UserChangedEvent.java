@@ -0,0 +1,8 @@
+package com.clinicsys.auth.event;
+
+/**
+ * Published whenever a persisted {@code User} row is inserted, updated or deleted,
+ * so that anything caching per-user state can drop it.
+ */
+public record UserChangedEvent(Long userId, String email, int securityVersion) {
+}
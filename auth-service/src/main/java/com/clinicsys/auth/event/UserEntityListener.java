@@ -0,0 +1,27 @@
+package com.clinicsys.auth.event;
+
+import com.clinicsys.auth.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener for {@link User}. Hibernate resolves it through Spring's bean
+ * container, so every write that goes through the repository raises a {@link UserChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserWritten(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail(), user.getSecurityVersion()));
+    }
+}
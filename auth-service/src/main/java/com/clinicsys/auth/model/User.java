@@ -1,5 +1,6 @@
 package com.clinicsys.auth.model;
 
+import com.clinicsys.auth.event.UserEntityListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -13,7 +14,12 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Keyset listing: equality filters first, then id for the seek and the ORDER BY
+        @Index(name = "idx_users_role_active_id", columnList = "role, is_active, id"),
+        @Index(name = "idx_users_active_verified_id", columnList = "is_active, is_verified, id")
+})
+@EntityListeners(UserEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -48,6 +54,16 @@ public class User implements UserDetails {
     @Column(name = "is_verified", nullable = false)
     private boolean isVerified = false;
     
+    // Bumped whenever role or active status changes; tokens carrying an older value are rejected
+    @Column(name = "security_version", nullable = false, columnDefinition = "integer default 0")
+    private int securityVersion = 0;
+    
+    @Transient
+    private Role loadedRole;
+    
+    @Transient
+    private boolean loadedActive;
+    
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
@@ -60,9 +76,18 @@ public class User implements UserDetails {
         updatedAt = LocalDateTime.now();
     }
     
+    @PostLoad
+    protected void onLoad() {
+        loadedRole = role;
+        loadedActive = isActive;
+    }
+    
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        if (role != loadedRole || isActive != loadedActive) {
+            securityVersion++;
+        }
     }
     
     @Override
@@ -6,10 +6,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     
     Optional<User> findByEmail(String email);
     
@@ -18,6 +20,36 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.email = :email AND u.isActive = true")
     Optional<User> findActiveUserByEmail(@Param("email") String email);
     
+    /**
+     * @deprecated loads every matching entity, password hashes included; use
+     * {@link #findSummaries} (keyset pages) or {@link #streamSummaries} instead.
+     */
+    @Deprecated
     @Query("SELECT u FROM User u WHERE u.role = :role AND u.isActive = true")
     java.util.List<User> findActiveUsersByRole(@Param("role") User.Role role);
+    
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    java.util.List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    @Query("SELECT u.id AS id, u.securityVersion AS securityVersion FROM User u " +
+           "WHERE u.securityVersion > 0 AND u.updatedAt > :since")
+    java.util.List<SecurityVersionView> findSecurityVersionsChangedSince(@Param("since") LocalDateTime since);
+    
+    /** Just what token validation needs, for many users in one round trip. */
+    @Query("SELECT u.id AS id, u.email AS email, u.role AS role, u.isActive AS active, " +
+           "u.securityVersion AS securityVersion FROM User u WHERE u.email IN :emails")
+    java.util.List<TokenOwnerView> findAllByEmailIn(@Param("emails") Collection<String> emails);
+    
+    interface TokenOwnerView {
+        Long getId();
+        String getEmail();
+        User.Role getRole();
+        boolean getActive();
+        int getSecurityVersion();
+    }
+    
+    interface SecurityVersionView {
+        Long getId();
+        int getSecurityVersion();
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.clinicsys.auth.repository;
+
+import com.clinicsys.auth.dto.UserSummary;
+import com.clinicsys.auth.model.User;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Listing queries built dynamically, so only the filters actually given end up in the SQL
+ * and the planner can use the matching {@code users} index.
+ */
+public interface UserRepositoryCustom {
+
+    /** Up to {@code limit} users with {@code id > afterId}, in id order. */
+    List<UserSummary> findSummaries(UserFilter filter, long afterId, int limit);
+
+    /** All matching users in id order, fetched in chunks; must be consumed inside a transaction and closed. */
+    Stream<UserSummary> streamSummaries(UserFilter filter);
+
+    record UserFilter(User.Role role, Boolean active, Boolean verified) {
+    }
+}
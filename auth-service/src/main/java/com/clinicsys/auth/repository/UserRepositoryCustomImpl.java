@@ -0,0 +1,68 @@
+package com.clinicsys.auth.repository;
+
+import com.clinicsys.auth.dto.UserSummary;
+import com.clinicsys.auth.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${user-listing.export-fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Override
+    public List<UserSummary> findSummaries(UserFilter filter, long afterId, int limit) {
+        return query(filter, afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<UserSummary> streamSummaries(UserFilter filter) {
+        return query(filter, null)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<UserSummary> query(UserFilter filter, Long afterId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> user = query.from(User.class);
+
+        List<Predicate> predicates = new ArrayList<>(4);
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(user.get("id"), afterId));
+        }
+        if (filter.role() != null) {
+            predicates.add(cb.equal(user.get("role"), filter.role()));
+        }
+        if (filter.active() != null) {
+            predicates.add(cb.equal(user.get("isActive"), filter.active()));
+        }
+        if (filter.verified() != null) {
+            predicates.add(cb.equal(user.get("isVerified"), filter.verified()));
+        }
+
+        query.select(cb.construct(UserSummary.class,
+                        user.get("id"), user.get("email"), user.get("firstName"), user.get("lastName"),
+                        user.get("role"), user.get("isActive"), user.get("isVerified")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(user.get("id")));
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,54 @@
+package com.clinicsys.auth.service;
+
+import com.clinicsys.common.audit.AuditClient;
+import com.clinicsys.common.audit.AuditEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Records auth-service's audit events: stamps them with the service name and the caller's
+ * address and hands them to the {@link AuditClient}, which queues them without blocking.
+ */
+@Component
+public class AuditTrail {
+
+    private final AuditClient auditClient;
+    private final String serviceName;
+
+    public AuditTrail(AuditClient auditClient, @Value("${spring.application.name:auth-service}") String serviceName) {
+        this.auditClient = auditClient;
+        this.serviceName = serviceName;
+    }
+
+    public void record(String actor, String action, String outcome) {
+        record(actor, action, null, outcome, null);
+    }
+
+    public void record(String actor, String action, String target, String outcome, Map<String, String> details) {
+        auditClient.record(new AuditEvent(Instant.now(), serviceName, actor == null ? "anonymous" : actor,
+                action, target, outcome, clientAddress(), details));
+    }
+
+    // The gateway appends the address it saw to X-Forwarded-For. Earlier entries come from the
+    // client and can be anything, so only the last one is trusted
+    private static String clientAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (StringUtils.hasText(forwarded)) {
+            return forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -3,33 +3,52 @@ package com.clinicsys.auth.service;
 import com.clinicsys.auth.dto.AuthResponse;
 import com.clinicsys.auth.dto.LoginRequest;
 import com.clinicsys.auth.dto.RegisterRequest;
+import com.clinicsys.auth.dto.TokenValidationResult;
 import com.clinicsys.auth.model.User;
 import com.clinicsys.auth.repository.UserRepository;
+import com.clinicsys.common.audit.AuditEvent;
 import com.clinicsys.common.exception.BadRequestException;
 import com.clinicsys.common.exception.UnauthorizedException;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     
     private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final TokenRevocationStore revocationStore;
+    private final VerifiedTokenCache tokenCache;
+    private final AuditTrail auditTrail;
     @Lazy
     private final AuthenticationManager authenticationManager;
     
+    // Below this many tokens, fanning signature checks out to the common pool costs more than it saves
+    @Value("${jwt.batch-validation.parallel-threshold:32}")
+    private int parallelThreshold;
+    
     public AuthResponse register(RegisterRequest request) {
         // Check if user already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (userLookupCache.existsByEmail(request.getEmail())) {
             throw new BadRequestException("User with this email already exists");
         }
         
@@ -45,6 +64,8 @@ public class AuthService {
         user.setVerified(false); // Will be verified via email later
         
         User savedUser = userRepository.save(user);
+        auditTrail.record(savedUser.getEmail(), "REGISTER", null, AuditEvent.SUCCESS,
+                Map.of("role", savedUser.getRole().name()));
         
         // Generate tokens
         String token = jwtService.generateToken(savedUser);
@@ -54,18 +75,30 @@ public class AuthService {
     }
     
     public AuthResponse login(LoginRequest request) {
-        // Authenticate user
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        // Authenticate user; the provider already loaded the user, so reuse its principal
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+            );
+        } catch (DisabledException e) {
+            auditTrail.record(request.getEmail(), "LOGIN", AuditEvent.DENIED);
+            throw e;
+        } catch (AuthenticationException e) {
+            auditTrail.record(request.getEmail(), "LOGIN", AuditEvent.FAILURE);
+            throw e;
+        }
         
-        // Load user details
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new UnauthorizedException("Invalid credentials"));
+        if (!(authentication.getPrincipal() instanceof User user)) {
+            auditTrail.record(request.getEmail(), "LOGIN", AuditEvent.FAILURE);
+            throw new UnauthorizedException("Invalid credentials");
+        }
         
         if (!user.isActive()) {
+            auditTrail.record(user.getEmail(), "LOGIN", AuditEvent.DENIED);
             throw new UnauthorizedException("Account is deactivated");
         }
+        auditTrail.record(user.getEmail(), "LOGIN", AuditEvent.SUCCESS);
         
         // Generate tokens
         String token = jwtService.generateToken(user);
@@ -75,13 +108,20 @@ public class AuthService {
     }
     
     public AuthResponse refreshToken(String refreshToken) {
-        String username = jwtService.extractUsername(refreshToken);
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+        VerifiedToken verified;
+        try {
+            verified = verify(refreshToken, JwtService.TOKEN_TYPE_REFRESH, "Invalid refresh token");
+        } catch (UnauthorizedException e) {
+            auditTrail.record(null, "REFRESH", AuditEvent.FAILURE);
+            throw e;
+        }
+        User user = userLookupCache.findByEmail(verified.subject()).orElse(null);
         
-        if (!jwtService.isTokenValid(refreshToken, user)) {
+        if (user == null || !jwtService.isTokenValid(verified, user)) {
+            auditTrail.record(verified.subject(), "REFRESH", AuditEvent.FAILURE);
             throw new UnauthorizedException("Invalid refresh token");
         }
+        auditTrail.record(user.getEmail(), "REFRESH", AuditEvent.SUCCESS);
         
         // Generate new tokens
         String newToken = jwtService.generateToken(user);
@@ -91,11 +131,11 @@ public class AuthService {
     }
     
     public Map<String, Object> validateToken(String token) {
-        String username = jwtService.extractUsername(token);
-        User user = userRepository.findByEmail(username)
+        VerifiedToken verified = verify(token, JwtService.TOKEN_TYPE_ACCESS, "Invalid token");
+        User user = userLookupCache.findByEmail(verified.subject())
                 .orElseThrow(() -> new UnauthorizedException("Invalid token"));
         
-        if (!jwtService.isTokenValid(token, user)) {
+        if (!jwtService.isTokenValid(verified, user)) {
             throw new UnauthorizedException("Invalid token");
         }
         
@@ -112,6 +152,87 @@ public class AuthService {
         return userInfo;
     }
     
+    /**
+     * Validates many tokens at once: signatures are checked in parallel, then every distinct
+     * subject is loaded with a single {@code IN} query. Results keep the order of {@code tokens}.
+     */
+    public List<TokenValidationResult> validateTokens(List<String> tokens) {
+        List<VerifiedToken> verified = (tokens.size() >= parallelThreshold ? tokens.parallelStream() : tokens.stream())
+                .map(this::verifyOrNull)
+                .toList();
+        
+        List<String> subjects = verified.stream()
+                .filter(Objects::nonNull)
+                .map(VerifiedToken::subject)
+                .distinct()
+                .toList();
+        Map<String, UserRepository.TokenOwnerView> owners = subjects.isEmpty() ? Map.of()
+                : userRepository.findAllByEmailIn(subjects).stream()
+                        .collect(Collectors.toMap(UserRepository.TokenOwnerView::getEmail, Function.identity()));
+        
+        return verified.stream()
+                .map(token -> toResult(token, token == null ? null : owners.get(token.subject())))
+                .toList();
+    }
+    
+    /**
+     * Revokes the access token and, if given, the refresh token issued with it. Only auth-service
+     * checks revocation: the gateway verifies signatures locally, so a revoked access token still
+     * passes there until it expires.
+     */
+    public void logout(String token, String refreshToken) {
+        VerifiedToken verified = verify(token, JwtService.TOKEN_TYPE_ACCESS, "Invalid token");
+        VerifiedToken refresh = null;
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refresh = verify(refreshToken, JwtService.TOKEN_TYPE_REFRESH, "Invalid refresh token");
+            if (!refresh.subject().equals(verified.subject())) {
+                throw new UnauthorizedException("Invalid refresh token");
+            }
+        }
+        revocationStore.revoke(verified.id(), verified.expiration().getTime());
+        tokenCache.invalidate(tokenCache.keyFor(token));
+        if (refresh != null) {
+            revocationStore.revoke(refresh.id(), refresh.expiration().getTime());
+        }
+    }
+    
+    private VerifiedToken verify(String token, String type, String errorMessage) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new UnauthorizedException(errorMessage);
+        }
+        if (!verified.hasType(type) || revocationStore.isRevoked(verified.id(), verified.expiration().getTime())) {
+            throw new UnauthorizedException(errorMessage);
+        }
+        return verified;
+    }
+    
+    private VerifiedToken verifyOrNull(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return verify(token, JwtService.TOKEN_TYPE_ACCESS, "Invalid token");
+        } catch (UnauthorizedException e) {
+            return null;
+        }
+    }
+    
+    private static TokenValidationResult toResult(VerifiedToken token, UserRepository.TokenOwnerView owner) {
+        if (token == null || owner == null || !owner.getActive() || token.isExpired()) {
+            return TokenValidationResult.INVALID;
+        }
+        // Tokens that carry a security version are void once the user's role or status changed
+        Integer securityVersion = token.claim(JwtService.CLAIM_SECURITY_VERSION, Integer.class);
+        if (securityVersion != null && securityVersion != owner.getSecurityVersion()) {
+            return TokenValidationResult.INVALID;
+        }
+        return new TokenValidationResult(true, owner.getId(), owner.getEmail(), owner.getRole().name(),
+                token.expiration().getTime());
+    }
+    
     private AuthResponse createAuthResponse(User user, String token, String refreshToken) {
         AuthResponse.UserInfo userInfo = new AuthResponse.UserInfo(
                 user.getId(),
@@ -127,7 +248,7 @@ public class AuthService {
                 token,
                 refreshToken,
                 "Bearer",
-                3600000L, // 1 hour in milliseconds
+                jwtService.getExpiration(),
                 userInfo
         );
     }
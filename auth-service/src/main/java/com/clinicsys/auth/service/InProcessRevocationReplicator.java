@@ -0,0 +1,41 @@
+package com.clinicsys.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Default replicator: a JVM-wide bus. A single deployed instance needs nothing more, and
+ * several application contexts started in one JVM (tests, load harnesses) see each other's
+ * revocations as if they were separate replicas.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.replication", havingValue = "in-process", matchIfMissing = true)
+public class InProcessRevocationReplicator implements RevocationReplicator {
+
+    private static final List<BiConsumer<String, Long>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final List<BiConsumer<String, Long>> ownListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String tokenId, long expiresAt) {
+        for (BiConsumer<String, Long> listener : LISTENERS) {
+            listener.accept(tokenId, expiresAt);
+        }
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, Long> listener) {
+        ownListeners.add(listener);
+        LISTENERS.add(listener);
+    }
+
+    @PreDestroy
+    void close() {
+        LISTENERS.removeAll(ownListeners);
+    }
+}
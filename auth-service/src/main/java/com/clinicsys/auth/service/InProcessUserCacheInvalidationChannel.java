@@ -0,0 +1,40 @@
+package com.clinicsys.auth.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Default channel: a JVM-wide bus, in the same spirit as {@link InProcessRevocationReplicator}.
+ * Enough for a single instance, and lets several contexts in one JVM act as replicas.
+ */
+@Component
+@ConditionalOnProperty(name = "user-cache.invalidation", havingValue = "in-process", matchIfMissing = true)
+public class InProcessUserCacheInvalidationChannel implements UserCacheInvalidationChannel {
+
+    private static final List<Consumer<String>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<String>> ownListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String email) {
+        for (Consumer<String> listener : LISTENERS) {
+            listener.accept(email);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<String> listener) {
+        ownListeners.add(listener);
+        LISTENERS.add(listener);
+    }
+
+    @PreDestroy
+    void close() {
+        LISTENERS.removeAll(ownListeners);
+    }
+}
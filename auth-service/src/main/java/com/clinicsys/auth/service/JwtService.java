@@ -1,88 +1,225 @@
 package com.clinicsys.auth.service;
 
+import com.clinicsys.auth.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Instant;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
-    
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_SECURITY_VERSION = "sv";
+    // Access tokens authorize requests; refresh tokens are only accepted by /api/auth/refresh
+    public static final String CLAIM_TOKEN_TYPE = "typ";
+    public static final String TOKEN_TYPE_ACCESS = "access";
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
     @Value("${jwt.secret}")
     private String secretKey;
-    
+
     @Value("${jwt.expiration}")
     private long jwtExpiration;
-    
+
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
-    
+
+    @Value("${jwt.stateless-principal.enabled:false}")
+    private boolean statelessPrincipal;
+
+    // HS256 (shared secret) or RS256 (key ring, verifiable by others through the JWKS endpoint)
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String signingAlgorithm;
+
+    // Under RS256, HS256 tokens from before the switch are accepted only until this instant (ISO-8601); empty = never
+    @Value("${jwt.signing.accept-legacy-hs256-until:}")
+    private String acceptLegacyHs256Until;
+
+    private final SigningKeyManager signingKeyManager;
+    private final MeterRegistry meterRegistry;
+
+    // Built once: decoding the secret and creating the parser are not free and never change
+    private Key signInKey;
+    private JwtParser jwtParser;
+    private boolean asymmetric;
+    private long legacyHs256Cutoff;
+
+    // Resolved once so the hot path records into a field instead of looking meters up by name
+    private Timer signTimer;
+    private Timer verifiedTimer;
+    private Timer expiredTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        asymmetric = SignatureAlgorithm.RS256.getValue().equals(signingAlgorithm);
+        legacyHs256Cutoff = !asymmetric ? Long.MAX_VALUE
+                : acceptLegacyHs256Until == null || acceptLegacyHs256Until.isBlank() ? Long.MIN_VALUE
+                : Instant.parse(acceptLegacyHs256Until.trim()).toEpochMilli();
+        // Under RS256, HS256 tokens (signed with the shared secret) are only honoured during a migration window;
+        // jjwt rejects a key whose type does not match the header alg, so HS/RS confusion is not possible
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        if (SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+                            if (System.currentTimeMillis() >= legacyHs256Cutoff) {
+                                throw new SignatureException("HS256 tokens are no longer accepted");
+                            }
+                            return signInKey;
+                        }
+                        Key key = header.getKeyId() != null ? signingKeyManager.publicKey(header.getKeyId()) : null;
+                        if (key == null) {
+                            throw new SignatureException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+
+        signTimer = jwtTimer("sign", "success");
+        verifiedTimer = jwtTimer("verify", "success");
+        expiredTimer = jwtTimer("verify", "expired");
+        invalidTimer = jwtTimer("verify", "invalid");
+    }
+
+    private Timer jwtTimer(String operation, String outcome) {
+        return Timer.builder("auth.jwt")
+                .description("JWT signing and signature verification")
+                .tag("operation", operation)
+                .tag("algorithm", signingAlgorithm)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Parses the token and checks its signature and expiry exactly once.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verify(String token) {
+        long start = System.nanoTime();
+        Claims claims;
+        try {
+            claims = jwtParser.parseClaimsJws(token).getBody();
+        } catch (ExpiredJwtException e) {
+            expiredTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration(), claims);
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
-    
+
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).claims());
     }
-    
+
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        // Identity claims let the gateway (and stateless mode) authorize without a user lookup
+        if ((statelessPrincipal || asymmetric) && userDetails instanceof User user) {
+            return buildToken(Map.of(
+                    CLAIM_USER_ID, user.getId(),
+                    CLAIM_ROLE, user.getRole().name(),
+                    CLAIM_SECURITY_VERSION, user.getSecurityVersion()
+            ), userDetails, TOKEN_TYPE_ACCESS, jwtExpiration);
+        }
+        return buildToken(null, userDetails, TOKEN_TYPE_ACCESS, jwtExpiration);
     }
-    
+
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails, TOKEN_TYPE_ACCESS, jwtExpiration);
     }
-    
+
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return buildToken(null, userDetails, TOKEN_TYPE_REFRESH, refreshExpiration);
     }
-    
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
-        return Jwts
-                .builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+
+    public long getExpiration() {
+        return jwtExpiration;
     }
-    
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+
+    public boolean isStatelessPrincipal() {
+        return statelessPrincipal;
     }
-    
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+
+    /**
+     * Builds the principal from the token's own claims, or returns null if the token was
+     * issued without them (e.g. before stateless principal mode was switched on).
+     */
+    public TokenPrincipal toPrincipal(VerifiedToken token) {
+        Number userId = token.claim(CLAIM_USER_ID, Number.class);
+        String role = token.claim(CLAIM_ROLE, String.class);
+        Number securityVersion = token.claim(CLAIM_SECURITY_VERSION, Number.class);
+        if (userId == null || role == null || securityVersion == null) {
+            return null;
+        }
+        return new TokenPrincipal(userId.longValue(), token.subject(), role, securityVersion.intValue());
     }
-    
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+
+    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, String type, long expiration) {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        JwtBuilder builder = Jwts.builder();
+        if (extraClaims != null && !extraClaims.isEmpty()) {
+            builder.addClaims(extraClaims);
+        }
+        builder.claim(CLAIM_TOKEN_TYPE, type)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(userDetails.getUsername())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration));
+        if (asymmetric) {
+            SigningKeyManager.SigningKey key = signingKeyManager.current();
+            builder.setHeaderParam(JwsHeader.KEY_ID, key.kid())
+                    .signWith(key.privateKey(), SignatureAlgorithm.RS256);
+        } else {
+            builder.signWith(signInKey, SignatureAlgorithm.HS256);
+        }
+        String token = builder.compact();
+        signTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
-    
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        return isTokenValid(verify(token), userDetails);
     }
-    
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.belongsTo(userDetails.getUsername()) && !token.isExpired();
     }
-} 
\ No newline at end of file
+}
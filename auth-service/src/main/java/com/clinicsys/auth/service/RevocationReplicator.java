@@ -0,0 +1,15 @@
+package com.clinicsys.auth.service;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Propagates token revocations between auth-service instances. Implementations deliver every
+ * published revocation to all subscribers, including the publishing instance; applying a
+ * revocation is idempotent, so echoes are harmless.
+ */
+public interface RevocationReplicator {
+
+    void publish(String tokenId, long expiresAt);
+
+    void subscribe(BiConsumer<String, Long> listener);
+}
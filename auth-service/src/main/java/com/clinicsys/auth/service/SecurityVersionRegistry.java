@@ -0,0 +1,74 @@
+package com.clinicsys.auth.service;
+
+import com.clinicsys.auth.event.UserChangedEvent;
+import com.clinicsys.auth.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of per-user security versions, used by stateless principal mode to reject
+ * tokens issued before a role change or deactivation without touching the database per request.
+ * Only users whose version ever moved are tracked. Changes made on this instance apply
+ * immediately; changes made elsewhere are picked up by the periodic poll, which bounds
+ * the staleness window to {@code jwt.stateless-principal.refresh-interval}.
+ */
+@Slf4j
+@Component
+public class SecurityVersionRegistry {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+    private volatile LocalDateTime lastPoll;
+
+    public SecurityVersionRegistry(
+            UserRepository userRepository,
+            @Value("${jwt.stateless-principal.enabled:false}") boolean enabled,
+            @Value("${jwt.refresh-expiration}") long refreshExpiration) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        // Anything changed before the oldest still-valid token was issued is irrelevant
+        this.lastPoll = LocalDateTime.now().minusNanos(refreshExpiration * 1_000_000L);
+    }
+
+    public boolean isCurrent(TokenPrincipal principal) {
+        Integer current = versions.get(principal.id());
+        return current == null || principal.securityVersion() >= current;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${jwt.stateless-principal.refresh-interval:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        // Overlap the window slightly so rows committed during the previous poll are not missed
+        LocalDateTime since = lastPoll.minusSeconds(5);
+        LocalDateTime pollStarted = LocalDateTime.now();
+        try {
+            List<UserRepository.SecurityVersionView> changed = userRepository.findSecurityVersionsChangedSince(since);
+            changed.forEach(view -> record(view.getId(), view.getSecurityVersion()));
+            lastPoll = pollStarted;
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh security versions, keeping previous view: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.userId() != null && event.securityVersion() > 0) {
+            record(event.userId(), event.securityVersion());
+        }
+    }
+
+    private void record(Long userId, int version) {
+        versions.merge(userId, version, Math::max);
+    }
+}
@@ -0,0 +1,158 @@
+package com.clinicsys.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * RSA key ring for RS256 token signing.
+ * <p>
+ * If {@code jwt.keys.private-key}/{@code public-key} are set (base64 PKCS#8 / X.509), every
+ * instance signs with that shared key and {@code jwt.keys.retired-public-keys} stay accepted,
+ * so rotation is a config change. RS256 without a configured key fails startup unless
+ * {@code jwt.keys.generate} is set: then a key pair is generated at startup and rotated every
+ * {@code jwt.keys.rotation-interval}. Generated keys die with the process, so every restart
+ * invalidates outstanding tokens and instances cannot verify each other's; that mode only suits
+ * a single development instance. With HS256 signing and no configured key the ring stays empty.
+ * Retired keys are kept until every token they signed has expired.
+ */
+@Slf4j
+@Component
+public class SigningKeyManager {
+
+    private final List<SigningKey> keys = new CopyOnWriteArrayList<>();
+    private final boolean generated;
+    private final long rotationInterval;
+    private final long maxTokenLifetime;
+
+    public SigningKeyManager(
+            @Value("${jwt.signing.algorithm:HS256}") String algorithm,
+            @Value("${jwt.keys.private-key:}") String privateKey,
+            @Value("${jwt.keys.public-key:}") String publicKey,
+            @Value("${jwt.keys.retired-public-keys:}") List<String> retiredPublicKeys,
+            @Value("${jwt.keys.generate:false}") boolean generate,
+            @Value("${jwt.keys.rotation-interval:86400000}") long rotationInterval,
+            @Value("${jwt.refresh-expiration}") long refreshExpiration,
+            @Value("${jwt.expiration}") long jwtExpiration) throws GeneralSecurityException {
+        this.rotationInterval = rotationInterval;
+        this.maxTokenLifetime = Math.max(refreshExpiration, jwtExpiration);
+        boolean rs256 = "RS256".equals(algorithm);
+        if (rs256 && privateKey.isBlank() && !generate) {
+            throw new IllegalStateException("jwt.signing.algorithm is RS256 but jwt.keys.private-key is not set: "
+                    + "provision a key pair shared by all instances (JWT_PRIVATE_KEY/JWT_PUBLIC_KEY), "
+                    + "or set jwt.keys.generate=true for a single development instance");
+        }
+        this.generated = rs256 && privateKey.isBlank();
+        if (generated) {
+            log.warn("Signing with a generated RSA key: tokens will not survive a restart and other instances cannot verify them");
+            keys.add(generate());
+        } else if (!privateKey.isBlank()) {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (String retired : retiredPublicKeys) {
+                if (!retired.isBlank()) {
+                    keys.add(new SigningKey(decodePublic(keyFactory, retired), null, 0));
+                }
+            }
+            PrivateKey current = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKey.trim())));
+            keys.add(new SigningKey(decodePublic(keyFactory, publicKey), current, System.currentTimeMillis()));
+        }
+    }
+
+    /** Key used for new tokens; always the most recently added one. */
+    public SigningKey current() {
+        return keys.get(keys.size() - 1);
+    }
+
+    public RSAPublicKey publicKey(String kid) {
+        for (SigningKey key : keys) {
+            if (key.kid().equals(kid)) {
+                return key.publicKey();
+            }
+        }
+        return null;
+    }
+
+    /** Public keys in JWKS (RFC 7517) form, newest last. */
+    public Map<String, Object> jwks() {
+        List<Map<String, Object>> jwks = new ArrayList<>(keys.size());
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        for (SigningKey key : keys) {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("use", "sig");
+            jwk.put("alg", "RS256");
+            jwk.put("kid", key.kid());
+            jwk.put("n", encoder.encodeToString(unsigned(key.publicKey().getModulus())));
+            jwk.put("e", encoder.encodeToString(unsigned(key.publicKey().getPublicExponent())));
+            jwks.add(jwk);
+        }
+        return Map.of("keys", jwks);
+    }
+
+    @Scheduled(initialDelayString = "${jwt.keys.rotation-interval:86400000}", fixedDelayString = "${jwt.keys.rotation-interval:86400000}")
+    public void rotate() throws GeneralSecurityException {
+        if (!generated) {
+            return;
+        }
+        keys.add(generate());
+        // A key stops signing when the next one is added; drop it once its last token has expired
+        long cutoff = System.currentTimeMillis() - rotationInterval - maxTokenLifetime;
+        keys.removeIf(key -> key != current() && key.activatedAt() < cutoff);
+        log.info("Rotated JWT signing key, now signing with kid={} ({} keys published)", current().kid(), keys.size());
+    }
+
+    private static SigningKey generate() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair pair = generator.generateKeyPair();
+        return new SigningKey((RSAPublicKey) pair.getPublic(), pair.getPrivate(), System.currentTimeMillis());
+    }
+
+    private static RSAPublicKey decodePublic(KeyFactory keyFactory, String base64) throws GeneralSecurityException {
+        return (RSAPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(base64.trim())));
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+
+    public record SigningKey(String kid, RSAPublicKey publicKey, PrivateKey privateKey, long activatedAt) {
+
+        SigningKey(RSAPublicKey publicKey, PrivateKey privateKey, long activatedAt) {
+            this(kidOf(publicKey), publicKey, privateKey, activatedAt);
+        }
+
+        private static String kidOf(RSAPublicKey publicKey) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 16);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.clinicsys.auth.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids ({@code jti}), grouped into buckets by the token's own expiry. A revoked
+ * token only needs to be remembered until it would have expired anyway, so whole buckets are
+ * dropped once their time has passed and the store never grows beyond the live revocations.
+ * <p>
+ * A Bloom filter sits in front of the buckets: the common case (token not revoked) is
+ * answered without a map lookup. The filter is rebuilt from the remaining buckets whenever
+ * buckets are dropped, since Bloom filters cannot forget.
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore {
+
+    private final RevocationReplicator replicator;
+    private final long bucketWidth;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+
+    public TokenRevocationStore(
+            RevocationReplicator replicator,
+            @Value("${jwt.revocation.bucket-width:60000}") long bucketWidth,
+            @Value("${jwt.revocation.expected-revocations:100000}") int expectedRevocations,
+            @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.replicator = replicator;
+        this.bucketWidth = bucketWidth;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        replicator.subscribe(this::apply);
+    }
+
+    /** Revokes the token on this instance and on every replica. */
+    public void revoke(String tokenId, long expiresAt) {
+        if (tokenId == null || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        apply(tokenId, expiresAt);
+        replicator.publish(tokenId, expiresAt);
+    }
+
+    public boolean isRevoked(String tokenId, long expiresAt) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Set<String> bucket = buckets.get(expiresAt / bucketWidth);
+        return bucket != null && bucket.contains(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.bucket-width:60000}")
+    public void purgeExpired() {
+        long currentBucket = System.currentTimeMillis() / bucketWidth;
+        if (!buckets.keySet().removeIf(bucket -> bucket < currentBucket)) {
+            return;
+        }
+        BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveRate);
+        addAll(rebuilt);
+        bloomFilter = rebuilt;
+        // Second pass picks up ids that were added to the old filter while the first pass ran
+        addAll(rebuilt);
+        log.debug("Dropped expired revocation buckets, {} buckets remain", buckets.size());
+    }
+
+    private void apply(String tokenId, long expiresAt) {
+        // Bucket first, then filter: a positive filter answer must always find its bucket
+        buckets.computeIfAbsent(expiresAt / bucketWidth, bucket -> ConcurrentHashMap.newKeySet()).add(tokenId);
+        bloomFilter.put(tokenId);
+    }
+
+    private void addAll(BloomFilter filter) {
+        buckets.values().forEach(bucket -> bucket.forEach(filter::put));
+    }
+}
@@ -0,0 +1,14 @@
+package com.clinicsys.auth.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts user-cache evictions between auth-service instances. Every published email is
+ * delivered to all subscribers, including the publishing instance; eviction is idempotent.
+ */
+public interface UserCacheInvalidationChannel {
+
+    void publish(String email);
+
+    void subscribe(Consumer<String> listener);
+}
@@ -0,0 +1,375 @@
+package com.clinicsys.auth.service;
+
+import com.clinicsys.auth.dto.UserImportResult;
+import com.clinicsys.auth.dto.UserImportRow;
+import com.clinicsys.auth.model.User;
+import com.clinicsys.auth.repository.UserRepository;
+import com.clinicsys.common.exception.BadRequestException;
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming bulk import of users (NDJSON or CSV), for onboarding a clinic branch's existing patients.
+ * <p>
+ * Rows are read one at a time and processed in batches of {@code user-import.batch-size}:
+ * duplicates are detected set-wise (one {@code IN} query per batch plus an in-memory set for
+ * the file itself), passwords are hashed in parallel on a dedicated pool that is separate from
+ * the login hashing pool, and rows are written with one JDBC batch insert. The insert goes
+ * through plain JDBC rather than Hibernate: the identity key is never read back, so the batch is
+ * not broken up per row (use {@code reWriteBatchedInserts=true} on the Postgres URL to turn it
+ * into multi-row inserts). Rejected rows and a final summary are streamed back as NDJSON.
+ * <p>
+ * If hashing a batch fails, the rest of that batch's hashes are cancelled and nothing of it is
+ * inserted. Before any report line was written the failure propagates, so the caller gets a
+ * {@code 503}; afterwards the batch's rows are reported as failed and the import stops with an
+ * {@code ABORTED} summary, since the response status is already sent.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO users (email, password, first_name, last_name, phone_number, "
+            + "role, is_active, is_verified, security_version, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, true, ?, 0, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final UserLookupCache userLookupCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ExecutorService hashExecutor;
+    private final int batchSize;
+
+    public UserImportService(
+            UserRepository userRepository,
+            UserLookupCache userLookupCache,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${password-hashing.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${user-import.hash-threads:0}") int hashThreads,
+            @Value("${user-import.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.userLookupCache = userLookupCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.passwordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        this.batchSize = batchSize;
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hash-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdown();
+    }
+
+    public void importUsers(InputStream input, boolean csv, OutputStream output) throws IOException {
+        long started = System.currentTimeMillis();
+        Report report = new Report(output);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        Map<String, Integer> csvColumns = null;
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (csv && csvColumns == null) {
+                csvColumns = csvHeader(line);
+                continue;
+            }
+            report.total++;
+
+            UserImportRow row;
+            try {
+                row = csv ? fromCsv(csvColumns, parseCsvLine(line)) : objectMapper.readValue(line, UserImportRow.class);
+            } catch (IOException | IllegalArgumentException e) {
+                report.reject(UserImportResult.FAILED, lineNumber, null, "Unreadable row");
+                continue;
+            }
+
+            String error = validate(row);
+            if (error != null) {
+                report.reject(UserImportResult.FAILED, lineNumber, row.getEmail(), error);
+                continue;
+            }
+            if (!seenEmails.add(row.getEmail())) {
+                report.reject(UserImportResult.DUPLICATE, lineNumber, row.getEmail(), "Email appears earlier in this import");
+                continue;
+            }
+
+            batch.add(new PendingRow(lineNumber, row));
+            if (batch.size() >= batchSize) {
+                if (!flushOrAbort(batch, report, started)) {
+                    return;
+                }
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty() && !flushOrAbort(batch, report, started)) {
+            return;
+        }
+
+        report.write(UserImportResult.summary(report.total, report.imported, report.failed,
+                System.currentTimeMillis() - started));
+        output.flush();
+        log.info("User import finished: {} rows, {} imported, {} rejected", report.total, report.imported, report.failed);
+    }
+
+    // False when hashing failed after the report had started; the report is then already closed off
+    private boolean flushOrAbort(List<PendingRow> batch, Report report, long started) throws IOException {
+        try {
+            flush(batch, report);
+            return true;
+        } catch (RuntimeException e) {
+            if (!report.started) {
+                throw e;
+            }
+            log.warn("User import aborted after {} rows: {}", report.total, e.getMessage());
+            for (PendingRow pending : batch) {
+                report.reject(UserImportResult.FAILED, pending.line(), pending.row().getEmail(), "Not imported: " + e.getMessage());
+            }
+            report.write(UserImportResult.aborted(report.total, report.imported, report.failed,
+                    System.currentTimeMillis() - started, e.getMessage()));
+            report.output.flush();
+            return false;
+        }
+    }
+
+    private void flush(List<PendingRow> batch, Report report) throws IOException {
+        Set<String> existing = new HashSet<>(userRepository.findExistingEmails(
+                batch.stream().map(pending -> pending.row().getEmail()).toList()));
+
+        List<PendingRow> fresh = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            if (existing.contains(pending.row().getEmail())) {
+                report.reject(UserImportResult.DUPLICATE, pending.line(), pending.row().getEmail(), "User with this email already exists");
+            } else {
+                fresh.add(pending);
+            }
+        }
+
+        List<String> hashes = hash(fresh);
+        List<Object[]> rows = new ArrayList<>(fresh.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < fresh.size(); i++) {
+            UserImportRow row = fresh.get(i).row();
+            rows.add(new Object[]{
+                    row.getEmail(), hashes.get(i), row.getFirstName(), row.getLastName(), row.getPhoneNumber(),
+                    User.Role.valueOf(row.getRole().toUpperCase(Locale.ROOT)).name(), row.isVerified(), now, now
+            });
+        }
+
+        List<PendingRow> inserted;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+            inserted = fresh;
+        } catch (DataAccessException e) {
+            // Something in the batch conflicted (e.g. a concurrent registration): isolate it row by row
+            inserted = new ArrayList<>(fresh.size());
+            for (int i = 0; i < fresh.size(); i++) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, rows.get(i));
+                    inserted.add(fresh.get(i));
+                } catch (DataAccessException rowFailure) {
+                    report.reject(UserImportResult.FAILED, fresh.get(i).line(), fresh.get(i).row().getEmail(),
+                            "Insert failed: " + rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        report.imported += inserted.size();
+        // Plain JDBC bypasses the entity listener, so evict (possibly negative) cache entries explicitly
+        inserted.forEach(pending -> userLookupCache.evict(pending.row().getEmail()));
+        report.output.flush();
+    }
+
+    // Hashes in parallel; on the first failure the hashes not yet started are cancelled and its cause is thrown
+    private List<String> hash(List<PendingRow> rows) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(rows.size());
+        try {
+            for (PendingRow pending : rows) {
+                UserImportRow row = pending.row();
+                futures.add(row.getPasswordHash() != null
+                        ? CompletableFuture.completedFuture(row.getPasswordHash())
+                        : CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.getPassword()), hashExecutor));
+            }
+            List<String> hashes = new ArrayList<>(rows.size());
+            for (CompletableFuture<String> future : futures) {
+                hashes.add(future.join());
+            }
+            return hashes;
+        } catch (CompletionException | CancellationException | RejectedExecutionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw hashingFailure(e);
+        }
+    }
+
+    private static RuntimeException hashingFailure(RuntimeException e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException || cause instanceof CancellationException) {
+            return new ServiceUnavailableException("Password hashing is not available, please retry");
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException("Password hashing failed", cause);
+    }
+
+    private String validate(UserImportRow row) {
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (row.getPassword() == null && row.getPasswordHash() == null) {
+            return "Either password or passwordHash is required";
+        }
+        try {
+            User.Role.valueOf(row.getRole().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return "Unknown role: " + row.getRole();
+        }
+        return null;
+    }
+
+    private static Map<String, Integer> csvHeader(String line) {
+        List<String> names = parseCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email")) {
+            throw new BadRequestException("CSV header must contain an email column");
+        }
+        return columns;
+    }
+
+    private static UserImportRow fromCsv(Map<String, Integer> columns, List<String> values) {
+        UserImportRow row = new UserImportRow();
+        row.setEmail(column(columns, values, "email"));
+        row.setFirstName(column(columns, values, "firstname"));
+        row.setLastName(column(columns, values, "lastname"));
+        row.setPhoneNumber(column(columns, values, "phonenumber"));
+        String role = column(columns, values, "role");
+        if (role != null) {
+            row.setRole(role);
+        }
+        row.setPassword(column(columns, values, "password"));
+        row.setPasswordHash(column(columns, values, "passwordhash"));
+        row.setVerified(Boolean.parseBoolean(column(columns, values, "verified")));
+        return row;
+    }
+
+    private static String column(Map<String, Integer> columns, List<String> values, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields on a single line: commas, double-quoted fields and "" escapes
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record PendingRow(long line, UserImportRow row) {
+    }
+
+    private final class Report {
+        private final OutputStream output;
+        private long total;
+        private long imported;
+        private long failed;
+        private boolean started;
+
+        private Report(OutputStream output) {
+            this.output = output;
+        }
+
+        private void reject(String status, long line, String email, String error) throws IOException {
+            failed++;
+            write(UserImportResult.rejected(status, line, email, error));
+        }
+
+        private void write(UserImportResult result) throws IOException {
+            started = true;
+            output.write(objectMapper.writeValueAsBytes(result));
+            output.write('\n');
+        }
+    }
+}
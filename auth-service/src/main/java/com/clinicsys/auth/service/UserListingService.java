@@ -0,0 +1,99 @@
+package com.clinicsys.auth.service;
+
+import com.clinicsys.auth.dto.UserPage;
+import com.clinicsys.auth.dto.UserSummary;
+import com.clinicsys.auth.repository.UserRepository;
+import com.clinicsys.auth.repository.UserRepositoryCustom.UserFilter;
+import com.clinicsys.common.dto.StreamingApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Admin user listing. Pages seek on {@code id} ({@code WHERE id > :after ORDER BY id LIMIT n}),
+ * so page 1000 costs the same as page 1 and concurrent inserts never shift page boundaries.
+ */
+@Service
+public class UserListingService {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+
+    public UserListingService(
+            UserRepository userRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${user-listing.max-page-size:500}") int maxPageSize) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public UserPage list(UserFilter filter, Long after, int limit) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<UserSummary> rows = userRepository.findSummaries(filter, after == null ? 0 : after, size + 1);
+        if (rows.size() <= size) {
+            return new UserPage(rows, null);
+        }
+        List<UserSummary> page = rows.subList(0, size);
+        return new UserPage(List.copyOf(page), page.get(size - 1).getId());
+    }
+
+    /**
+     * Writes every matching user as one NDJSON line. Rows are pulled from a server-side cursor
+     * and written as they arrive, so heap use does not grow with the result size.
+     */
+    public void export(UserFilter filter, OutputStream output) throws IOException {
+        withSummaries(filter, users -> {
+            while (users.hasNext()) {
+                output.write(objectMapper.writeValueAsBytes(users.next()));
+                output.write('\n');
+            }
+            output.flush();
+        });
+    }
+
+    /**
+     * Same rows as {@link #export}, as a single {@code ApiResponse} whose {@code data} array is
+     * written element by element; the list is never built in memory.
+     */
+    public void exportEnvelope(UserFilter filter, OutputStream output) throws IOException {
+        withSummaries(filter, users -> {
+            StreamingApiResponse.write(objectMapper, output, "Success", users);
+            output.flush();
+        });
+    }
+
+    private void withSummaries(UserFilter filter, SummaryWriter writer) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserSummary> users = userRepository.streamSummaries(filter)) {
+                    writer.write(users.iterator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface SummaryWriter {
+        void write(Iterator<UserSummary> users) throws IOException;
+    }
+}
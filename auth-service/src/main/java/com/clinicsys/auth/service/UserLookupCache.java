@@ -0,0 +1,121 @@
+package com.clinicsys.auth.service;
+
+import com.clinicsys.auth.event.UserChangedEvent;
+import com.clinicsys.auth.model.User;
+import com.clinicsys.auth.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-instance cache of users by email, in front of {@link UserRepository#findByEmail}.
+ * <ul>
+ *     <li>Unknown emails are cached too (shorter TTL), so credential-stuffing traffic does not reach Postgres.</li>
+ *     <li>Entries are immutable snapshots; every lookup hands out a fresh {@link User} that callers may modify and save.</li>
+ *     <li>Any repository write raises {@link UserChangedEvent}; after commit the email is evicted here and,
+ *     through {@link UserCacheInvalidationChannel}, on every other instance.</li>
+ * </ul>
+ * Concurrent misses for the same email share one query.
+ */
+@Component
+public class UserLookupCache {
+
+    public static final String CACHE_NAME = "auth.users";
+
+    private final UserRepository userRepository;
+    private final UserCacheInvalidationChannel invalidationChannel;
+    private final LoadingCache<String, CachedUser> cache;
+
+    public UserLookupCache(
+            UserRepository userRepository,
+            UserCacheInvalidationChannel invalidationChannel,
+            @Value("${user-cache.max-size:50000}") long maxSize,
+            @Value("${user-cache.ttl:300000}") long ttl,
+            @Value("${user-cache.negative-ttl:30000}") long negativeTtl,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.invalidationChannel = invalidationChannel;
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttl);
+        long negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtl);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedUser>() {
+                    @Override
+                    public long expireAfterCreate(String email, CachedUser value, long currentTime) {
+                        return value.snapshot() != null ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String email, CachedUser value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(email, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String email, CachedUser value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build(email -> new CachedUser(userRepository.findByEmail(email).map(UserSnapshot::of).orElse(null)));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        invalidationChannel.subscribe(cache::invalidate);
+    }
+
+    public Optional<User> findByEmail(String email) {
+        UserSnapshot snapshot = cache.get(email).snapshot();
+        return snapshot != null ? Optional.of(snapshot.toUser()) : Optional.empty();
+    }
+
+    public boolean existsByEmail(String email) {
+        return cache.get(email).snapshot() != null;
+    }
+
+    public void evict(String email) {
+        invalidationChannel.publish(email);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.email());
+    }
+
+    private record CachedUser(UserSnapshot snapshot) {
+    }
+
+    private record UserSnapshot(Long id, String email, String password, String firstName, String lastName,
+                                String phoneNumber, User.Role role, boolean active, boolean verified,
+                                int securityVersion, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        static UserSnapshot of(User user) {
+            return new UserSnapshot(user.getId(), user.getEmail(), user.getPassword(), user.getFirstName(),
+                    user.getLastName(), user.getPhoneNumber(), user.getRole(), user.isActive(), user.isVerified(),
+                    user.getSecurityVersion(), user.getCreatedAt(), user.getUpdatedAt());
+        }
+
+        User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setEmail(email);
+            user.setPassword(password);
+            user.setFirstName(firstName);
+            user.setLastName(lastName);
+            user.setPhoneNumber(phoneNumber);
+            user.setRole(role);
+            user.setActive(active);
+            user.setVerified(verified);
+            user.setSecurityVersion(securityVersion);
+            user.setCreatedAt(createdAt);
+            user.setUpdatedAt(updatedAt);
+            return user;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.clinicsys.auth.service;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Result of a single parse + signature check of a JWT. Everything callers need
+ * (subject, expiry, raw claims) is read from here instead of re-parsing the token.
+ */
+public record VerifiedToken(String subject, Date expiration, Claims claims) {
+
+    /** Token id ({@code jti}), used for revocation. Null for tokens issued before ids were added. */
+    public String id() {
+        return claims.getId();
+    }
+
+    public <T> T claim(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+
+    /** Tokens without a type (issued before types were added) are neither access nor refresh tokens. */
+    public boolean hasType(String type) {
+        return type.equals(claims.get(JwtService.CLAIM_TOKEN_TYPE));
+    }
+
+    public boolean isExpired() {
+        return expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    public boolean belongsTo(String username) {
+        return subject != null && subject.equals(username);
+    }
+}
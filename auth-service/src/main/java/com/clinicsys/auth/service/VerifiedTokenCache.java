@@ -0,0 +1,108 @@
+package com.clinicsys.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of tokens that already passed signature verification, keyed by the
+ * SHA-256 digest of the token so raw tokens are never kept in memory. Each entry
+ * lives until the token's own {@code exp}; size-based eviction is W-TinyLFU (Caffeine).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    public static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private final boolean enabled;
+    private final Cache<String, CachedAuthentication> cache;
+    // Bumped on every invalidation so a lookup racing with a user change never re-caches stale state
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public VerifiedTokenCache(
+            @Value("${jwt.cache.enabled:true}") boolean enabled,
+            @Value("${jwt.cache.max-size:10000}") long maxSize,
+            UserCacheInvalidationChannel invalidationChannel,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedAuthentication>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+                        long remainingMillis = value.expiresAt() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        // Same channel as the user cache: a user write on any instance drops that user's tokens everywhere
+        invalidationChannel.subscribe(this::invalidateUser);
+    }
+
+    public String keyFor(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public CachedAuthentication get(String key) {
+        return enabled ? cache.getIfPresent(key) : null;
+    }
+
+    /**
+     * Returns a stamp to pass to {@link #put}; take it before loading the user so that an
+     * invalidation arriving in between prevents the (possibly stale) entry from being stored.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void put(String key, UserDetails principal, VerifiedToken token, long stamp) {
+        if (!enabled) {
+            return;
+        }
+        cache.put(key, new CachedAuthentication(principal, token.id(), token.expiration().getTime()));
+        if (invalidations.get() != stamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateUser(String username) {
+        invalidations.incrementAndGet();
+        cache.asMap().values().removeIf(entry -> entry.principal().getUsername().equals(username));
+    }
+
+    public record CachedAuthentication(UserDetails principal, String tokenId, long expiresAt) {
+    }
+}
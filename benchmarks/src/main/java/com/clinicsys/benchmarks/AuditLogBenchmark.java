@@ -0,0 +1,83 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.audit.log.AuditLog;
+import com.clinicsys.common.audit.AuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable appends to {@link AuditLog} from concurrent producers, each waiting until its event is
+ * forced to disk as an ingest request does. With {@code batchEvents=1} every event gets its own
+ * force; with the default the writer forces whatever queued up during the previous force at once
+ * (group commit). The gap grows with the cost of a force on the disk holding {@code java.io.tmpdir}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class AuditLogBenchmark {
+
+    @Param({"1", "4096"})
+    public int batchEvents;
+
+    @Param({"true"})
+    public boolean fsync;
+
+    private Path directory;
+    private AuditLog auditLog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-bench");
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        auditLog = new AuditLog(directory.toString(), 64 * 1024 * 1024, 86_400_000L, fsync, batchEvents, 4096, objectMapper);
+        auditLog.open();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        auditLog.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long appendDurably() {
+        int user = ThreadLocalRandom.current().nextInt(10_000);
+        AuditEvent event = new AuditEvent(Instant.now(), "auth-service", "user" + user + "@bench.clinicsys.local",
+                "LOGIN", null, AuditEvent.SUCCESS, "10.0.0.1", Map.of("role", "PATIENT"));
+        return auditLog.append(List.of(event)).join();
+    }
+}
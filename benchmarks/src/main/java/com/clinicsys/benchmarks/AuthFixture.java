@@ -0,0 +1,118 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.auth.config.BoundedPasswordEncoder;
+import com.clinicsys.auth.config.JwtAuthenticationFilter;
+import com.clinicsys.auth.model.User;
+import com.clinicsys.auth.repository.UserRepository;
+import com.clinicsys.auth.service.AuditTrail;
+import com.clinicsys.auth.service.AuthService;
+import com.clinicsys.auth.service.CustomUserDetailsService;
+import com.clinicsys.auth.service.InProcessRevocationReplicator;
+import com.clinicsys.auth.service.InProcessUserCacheInvalidationChannel;
+import com.clinicsys.auth.service.JwtService;
+import com.clinicsys.auth.service.SecurityVersionRegistry;
+import com.clinicsys.auth.service.SigningKeyManager;
+import com.clinicsys.auth.service.TokenRevocationStore;
+import com.clinicsys.auth.service.UserLookupCache;
+import com.clinicsys.auth.service.VerifiedTokenCache;
+import com.clinicsys.common.audit.AuditClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * The auth-service object graph wired by hand, the way the Spring context would wire it,
+ * but without a database: users live in {@link InMemoryUserRepository}. Everything else
+ * (caches, revocation store, bcrypt pool, metrics) is the production code.
+ */
+final class AuthFixture implements AutoCloseable {
+
+    static final String PASSWORD = "benchmark-password";
+    private static final long ACCESS_EXPIRATION = 86_400_000L;
+    private static final long REFRESH_EXPIRATION = 604_800_000L;
+
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final UserRepository userRepository = InMemoryUserRepository.create();
+    final InProcessUserCacheInvalidationChannel invalidationChannel = new InProcessUserCacheInvalidationChannel();
+    final InProcessRevocationReplicator revocationReplicator = new InProcessRevocationReplicator();
+    final UserLookupCache userLookupCache;
+    final CustomUserDetailsService userDetailsService;
+    final BoundedPasswordEncoder passwordEncoder;
+    final JwtService jwtService;
+    final TokenRevocationStore revocationStore;
+    final VerifiedTokenCache tokenCache;
+    final SecurityVersionRegistry securityVersions;
+    final AuthService authService;
+
+    AuthFixture(String algorithm, int bcryptStrength, boolean tokenCache, boolean statelessPrincipal, int users)
+            throws GeneralSecurityException {
+        userLookupCache = new UserLookupCache(userRepository, invalidationChannel, 50_000, 300_000, 30_000, meterRegistry);
+        userDetailsService = new CustomUserDetailsService(userRepository, userLookupCache);
+        passwordEncoder = new BoundedPasswordEncoder(bcryptStrength, Runtime.getRuntime().availableProcessors(),
+                64, 5_000, meterRegistry);
+
+        SigningKeyManager signingKeyManager = new SigningKeyManager(algorithm, "", "", List.of(), true,
+                86_400_000L, REFRESH_EXPIRATION, ACCESS_EXPIRATION);
+        jwtService = new JwtService(signingKeyManager, meterRegistry);
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        ReflectionTestUtils.setField(jwtService, "secretKey", Base64.getEncoder().encodeToString(secret));
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", ACCESS_EXPIRATION);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", REFRESH_EXPIRATION);
+        ReflectionTestUtils.setField(jwtService, "statelessPrincipal", statelessPrincipal);
+        ReflectionTestUtils.setField(jwtService, "signingAlgorithm", algorithm);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        revocationStore = new TokenRevocationStore(revocationReplicator, 60_000, 100_000, 0.01);
+        this.tokenCache = new VerifiedTokenCache(tokenCache, 10_000, invalidationChannel, meterRegistry);
+        securityVersions = new SecurityVersionRegistry(userRepository, statelessPrincipal, REFRESH_EXPIRATION);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        authService = new AuthService(userRepository, userLookupCache, passwordEncoder, jwtService,
+                revocationStore, this.tokenCache, new AuditTrail(AuditClient.noop(), "auth-service"),
+                new ProviderManager(provider));
+        ReflectionTestUtils.setField(authService, "parallelThreshold", 32);
+
+        // One hash shared by every seeded user; hashing per user would make setup take minutes
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setEmail(email(i));
+            user.setPassword(passwordHash);
+            user.setFirstName("Bench");
+            user.setLastName("User" + i);
+            user.setRole(User.Role.PATIENT);
+            user.setActive(true);
+            userRepository.save(user);
+        }
+    }
+
+    static String email(int index) {
+        return "user" + index + "@bench.clinicsys.local";
+    }
+
+    User user(int index) {
+        return userRepository.findByEmail(email(index)).orElseThrow();
+    }
+
+    JwtAuthenticationFilter authenticationFilter() {
+        return new JwtAuthenticationFilter(jwtService, userDetailsService, tokenCache, securityVersions, revocationStore);
+    }
+
+    @Override
+    public void close() {
+        passwordEncoder.shutdown();
+        // The in-process channels keep JVM-wide listener lists; drop ours so trials do not pile up
+        ReflectionTestUtils.invokeMethod(invalidationChannel, "close");
+        ReflectionTestUtils.invokeMethod(revocationReplicator, "close");
+    }
+}
@@ -0,0 +1,85 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.auth.dto.AuthResponse;
+import com.clinicsys.auth.dto.LoginRequest;
+import com.clinicsys.auth.dto.TokenValidationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code AuthService} end to end against the in-memory repository. Login is dominated by
+ * bcrypt, so it runs at the production cost factor and at the minimum one; the gap between
+ * the two is everything around the hash (provider, user lookup, signing).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthServiceBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"RS256"})
+    public String algorithm;
+
+    @Param({"4", "10"})
+    public int bcryptStrength;
+
+    private AuthFixture fixture;
+    private LoginRequest loginRequest;
+    private String token;
+    private List<String> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new AuthFixture(algorithm, bcryptStrength, true, false, USERS);
+        loginRequest = new LoginRequest();
+        loginRequest.setEmail(AuthFixture.email(0));
+        loginRequest.setPassword(AuthFixture.PASSWORD);
+        token = fixture.jwtService.generateToken(fixture.user(0));
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(fixture.jwtService.generateToken(fixture.user(i)));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public AuthResponse login() {
+        return fixture.authService.login(loginRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> validateToken() {
+        return fixture.authService.validateToken(token);
+    }
+
+    /** One call per 100 tokens; divide by 100 to compare with {@link #validateToken()}. */
+    @Benchmark
+    public List<TokenValidationResult> validateTokensBatch() {
+        return fixture.authService.validateTokens(batch);
+    }
+}
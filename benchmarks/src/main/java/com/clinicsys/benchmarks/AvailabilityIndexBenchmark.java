@@ -0,0 +1,190 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.schedule.index.AvailabilityIndex;
+import com.clinicsys.schedule.index.Opening;
+import com.clinicsys.schedule.index.TimeRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "First free 45 minutes for any laser-certified staff member at 5 of 20 branches within a week"
+ * against 500 staff × 90 days of shifts and appointments booked to {@code occupancy}.
+ * <p>
+ * {@code bitmapFirstAvailable} queries the {@link AvailabilityIndex}. {@code intervalScan} answers
+ * the same query from per staff-day lists of sorted appointments, i.e. what is left to do in memory
+ * after a SQL range join has fetched the rows, without the round trip. Setup checks that both
+ * agree. {@code updateStaffDay} is the incremental cost of one schedule change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityIndexBenchmark {
+
+    private static final int STAFF = 500;
+    private static final int DAYS = 90;
+    private static final int CLINICS = 20;
+    private static final int QUERIES = 1024;
+    private static final int DURATION = 45;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 6);
+
+    @Param({"0.7", "0.95"})
+    public double occupancy;
+
+    private AvailabilityIndex index;
+    private StaffDay[][] schedule;
+    private boolean[] laser;
+    private Query[] queries;
+    private int next;
+
+    // One staff-day as the rows a range join would return: one shift and its sorted appointments
+    private record StaffDay(long clinicId, int shiftStart, int shiftEnd, List<TimeRange> busy) {
+    }
+
+    private record Query(long[] clinicIds, LocalDate from, LocalDate to, LocalTime notBefore) {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new AvailabilityIndex(FIRST_DAY, DAYS, 15);
+        schedule = new StaffDay[STAFF][DAYS];
+        laser = new boolean[STAFF];
+        for (int staff = 0; staff < STAFF; staff++) {
+            laser[staff] = random.nextDouble() < 0.4;
+            index.setStaff(staff + 1, laser[staff] ? Set.of("LASER", "CONSULT") : Set.of("CONSULT"), true);
+            long[] homeClinics = {1 + random.nextInt(CLINICS), 1 + random.nextInt(CLINICS)};
+            for (int day = 0; day < DAYS; day++) {
+                if (random.nextInt(7) < 2) {
+                    continue;
+                }
+                long clinicId = homeClinics[random.nextInt(2)];
+                int shiftStart = random.nextBoolean() ? 8 * 60 : 12 * 60;
+                int shiftEnd = shiftStart + 8 * 60;
+                List<TimeRange> busy = new ArrayList<>();
+                for (int minute = shiftStart; minute < shiftEnd; ) {
+                    int length = 30 + 15 * random.nextInt(3);
+                    if (random.nextDouble() < occupancy) {
+                        busy.add(new TimeRange(minute, Math.min(minute + length, shiftEnd)));
+                    }
+                    minute += length;
+                }
+                schedule[staff][day] = new StaffDay(clinicId, shiftStart, shiftEnd, busy);
+                index.setStaffDay(staff + 1, FIRST_DAY.plusDays(day), clinicId,
+                        List.of(new TimeRange(shiftStart, shiftEnd)), busy);
+            }
+        }
+        queries = new Query[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long[] clinicIds = random.ints(1, CLINICS + 1).distinct().limit(5).asLongStream().toArray();
+            LocalDate from = FIRST_DAY.plusDays(random.nextInt(DAYS - 7));
+            LocalTime notBefore = LocalTime.of(7 + random.nextInt(10), 15 * random.nextInt(4));
+            queries[i] = new Query(clinicIds, from, from.plusDays(6), notBefore);
+        }
+        for (Query query : queries) {
+            Optional<Opening> expected = intervalScan(query);
+            Optional<Opening> actual = bitmap(query);
+            if (!expected.map(Opening::startTime).equals(actual.map(Opening::startTime))
+                    || !expected.map(Opening::date).equals(actual.map(Opening::date))) {
+                throw new IllegalStateException("Bitmap and interval scan disagree on " + query + ": " + actual + " vs " + expected);
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<Opening> bitmapFirstAvailable() {
+        return bitmap(nextQuery());
+    }
+
+    @Benchmark
+    public Optional<Opening> intervalScan() {
+        return intervalScan(nextQuery());
+    }
+
+    @Benchmark
+    public void updateStaffDay() {
+        int staff = Math.floorMod(next++, STAFF);
+        int day = staff % DAYS;
+        StaffDay staffDay = schedule[staff][day];
+        if (staffDay != null) {
+            index.setStaffDay(staff + 1, FIRST_DAY.plusDays(day), staffDay.clinicId(),
+                    List.of(new TimeRange(staffDay.shiftStart(), staffDay.shiftEnd())), staffDay.busy());
+        }
+    }
+
+    private Query nextQuery() {
+        return queries[next++ & (QUERIES - 1)];
+    }
+
+    private Optional<Opening> bitmap(Query query) {
+        return index.firstAvailable("LASER", query.clinicIds(), query.from(), query.to(), query.notBefore(), DURATION);
+    }
+
+    private Optional<Opening> intervalScan(Query query) {
+        int firstDay = (int) (query.from().toEpochDay() - FIRST_DAY.toEpochDay());
+        int lastDay = (int) (query.to().toEpochDay() - FIRST_DAY.toEpochDay());
+        int notBefore = query.notBefore().getHour() * 60 + query.notBefore().getMinute();
+        for (int day = firstDay; day <= lastDay; day++) {
+            int bestStart = Integer.MAX_VALUE;
+            int bestStaff = -1;
+            for (int staff = 0; staff < STAFF; staff++) {
+                StaffDay staffDay = schedule[staff][day];
+                if (!laser[staff] || staffDay == null || !contains(query.clinicIds(), staffDay.clinicId())) {
+                    continue;
+                }
+                int cursor = day == firstDay ? Math.max(staffDay.shiftStart(), notBefore) : staffDay.shiftStart();
+                int start = -1;
+                for (TimeRange busy : staffDay.busy()) {
+                    if (busy.startMinute() - cursor >= DURATION) {
+                        start = cursor;
+                        break;
+                    }
+                    cursor = Math.max(cursor, busy.endMinute());
+                }
+                if (start < 0 && staffDay.shiftEnd() - cursor >= DURATION) {
+                    start = cursor;
+                }
+                if (start >= 0 && start < bestStart) {
+                    bestStart = start;
+                    bestStaff = staff;
+                }
+            }
+            if (bestStaff >= 0) {
+                LocalTime startTime = LocalTime.MIDNIGHT.plusMinutes(bestStart);
+                return Optional.of(new Opening(bestStaff + 1, schedule[bestStaff][day].clinicId(),
+                        FIRST_DAY.plusDays(day), startTime, startTime.plusMinutes(DURATION)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean contains(long[] values, long value) {
+        for (long candidate : values) {
+            if (candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
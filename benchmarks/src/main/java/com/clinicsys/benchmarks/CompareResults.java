@@ -0,0 +1,92 @@
+package com.clinicsys.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files ({@code -rf json}) and exits with status 1 if any
+ * benchmark got slower than the threshold allows. Throughput scores regress when they drop;
+ * time-per-operation scores (avgt, sample, ss) regress when they rise.
+ * <p>
+ * Usage: {@code CompareResults <baseline.json> <candidate.json> [threshold-percent, default 5]}
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <candidate.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(new File(args[0])));
+        Map<String, JsonNode> candidate = index(objectMapper.readTree(new File(args[1])));
+
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            double afterScore = after.path("primaryMetric").path("score").asDouble();
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", afterScore, "new", unit);
+                continue;
+            }
+            double beforeScore = before.path("primaryMetric").path("score").asDouble();
+            double change = beforeScore == 0 ? 0 : (afterScore - beforeScore) / beforeScore * 100;
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            boolean regressed = higherIsBetter ? change < -threshold : change > threshold;
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), beforeScore, afterScore,
+                    change, unit, regressed ? "  REGRESSION" : "");
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+        }
+        for (String missing : baseline.keySet()) {
+            if (!candidate.containsKey(missing)) {
+                System.out.printf("%-90s %14s%n", missing, "(not in candidate)");
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.out.printf("%n%d benchmark(s) regressed by more than %.1f%%:%n", regressions.size(), threshold);
+            regressions.forEach(name -> System.out.println("  " + name));
+            System.exit(1);
+        }
+        System.out.printf("%nNo regressions beyond %.1f%%%n", threshold);
+    }
+
+    // Key is the benchmark method plus its @Param values, so each parameter combination is compared separately
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> indexed = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.clinicsys.benchmarks.", ""));
+            JsonNode params = result.path("params");
+            if (params.isObject()) {
+                Map<String, String> sorted = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    sorted.put(field.getKey(), field.getValue().asText());
+                }
+                key.append(sorted);
+            }
+            indexed.put(key.toString(), result);
+        }
+        return indexed;
+    }
+}
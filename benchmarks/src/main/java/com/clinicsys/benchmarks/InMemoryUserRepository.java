@@ -0,0 +1,88 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.auth.model.User;
+import com.clinicsys.auth.repository.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed stand-in for {@link UserRepository}, covering only the methods the benchmarked
+ * paths call. Built as a dynamic proxy so it does not have to stub the whole JPA interface;
+ * any other method fails loudly instead of silently returning null.
+ */
+final class InMemoryUserRepository {
+
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private InMemoryUserRepository() {
+    }
+
+    static UserRepository create() {
+        InMemoryUserRepository store = new InMemoryUserRepository();
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmail" -> Optional.ofNullable(store.usersByEmail.get((String) args[0]));
+                    case "existsByEmail" -> store.usersByEmail.containsKey((String) args[0]);
+                    case "findAllByEmailIn" -> store.owners((Collection<?>) args[0]);
+                    case "save" -> store.save((User) args[0]);
+                    case "toString" -> "InMemoryUserRepository(" + store.usersByEmail.size() + " users)";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException("Not stubbed: UserRepository." + method.getName());
+                });
+    }
+
+    private User save(User user) {
+        if (user.getId() == null) {
+            user.setId(ids.incrementAndGet());
+        }
+        usersByEmail.put(user.getEmail(), user);
+        return user;
+    }
+
+    private List<UserRepository.TokenOwnerView> owners(Collection<?> emails) {
+        return emails.stream()
+                .map(usersByEmail::get)
+                .filter(user -> user != null)
+                .map(InMemoryUserRepository::ownerView)
+                .toList();
+    }
+
+    private static UserRepository.TokenOwnerView ownerView(User user) {
+        return new UserRepository.TokenOwnerView() {
+            @Override
+            public Long getId() {
+                return user.getId();
+            }
+
+            @Override
+            public String getEmail() {
+                return user.getEmail();
+            }
+
+            @Override
+            public User.Role getRole() {
+                return user.getRole();
+            }
+
+            @Override
+            public boolean getActive() {
+                return user.isActive();
+            }
+
+            @Override
+            public int getSecurityVersion() {
+                return user.getSecurityVersion();
+            }
+        };
+    }
+}
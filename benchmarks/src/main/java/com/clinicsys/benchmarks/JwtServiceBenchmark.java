@@ -0,0 +1,64 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.auth.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verification cost of {@code JwtService} for both supported algorithms.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    private AuthFixture fixture;
+    private User user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new AuthFixture(algorithm, 4, true, false, 1);
+        user = fixture.user(0);
+        token = fixture.jwtService.generateToken(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return fixture.jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return fixture.jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return fixture.jwtService.isTokenValid(token, user);
+    }
+}
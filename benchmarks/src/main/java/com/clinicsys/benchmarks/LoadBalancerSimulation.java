@@ -0,0 +1,160 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.clinicsys.apigateway.loadbalancer.LatencyAwareLoadBalancer;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Discrete-event simulation of the gateway balancing one service across several instances,
+ * one of which is slow (GC pressure, noisy neighbour). Each instance is a FIFO queue in front of
+ * {@code workers} threads with exponential service times; requests arrive as a Poisson
+ * process. The same arrival and service-time sequence is run through round-robin (Spring's
+ * default) and through {@link LatencyAwareLoadBalancer} fed by an {@link InstanceStatsRegistry}
+ * on the simulated clock, and latency percentiles are printed for both.
+ * <p>
+ * Usage: {@code LoadBalancerSimulation [requests=200000] [instances=5] [rate-per-second=600]
+ * [workers=8] [service-millis=10] [slow-factor=5]}
+ */
+public final class LoadBalancerSimulation {
+
+    private LoadBalancerSimulation() {
+    }
+
+    public static void main(String[] args) {
+        int requests = intArg(args, 0, 200_000);
+        int instances = intArg(args, 1, 5);
+        double ratePerSecond = intArg(args, 2, 600);
+        int workers = intArg(args, 3, 8);
+        double serviceMillis = intArg(args, 4, 10);
+        double slowFactor = intArg(args, 5, 5);
+
+        System.out.printf("%d requests at %.0f/s over %d instances (%d workers, %.0f ms mean service); instance-0 is %.0fx slower%n%n",
+                requests, ratePerSecond, instances, workers, serviceMillis, slowFactor);
+        System.out.printf("%-15s %9s %9s %9s %9s %9s %12s%n", "Strategy", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "to slow");
+        Scenario scenario = new Scenario(requests, instances, ratePerSecond, workers, serviceMillis, slowFactor);
+        print("round-robin", scenario.run(false));
+        print("latency-aware", scenario.run(true));
+    }
+
+    private static void print(String strategy, Result result) {
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        System.out.printf("%-15s %9.1f %9.1f %9.1f %9.1f %9.1f %11.1f%%%n", strategy,
+                millis(percentile(latencies, 50)), millis(percentile(latencies, 90)), millis(percentile(latencies, 99)),
+                millis(percentile(latencies, 99.9)), millis(latencies[latencies.length - 1]),
+                100.0 * result.toSlow() / latencies.length);
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    record Result(long[] latencies, int toSlow) {
+    }
+
+    private record Completion(long at, ServiceInstance instance, long latency) {
+    }
+
+    static final class Scenario {
+
+        private final int requests;
+        private final int workers;
+        private final List<ServiceInstance> instances = new ArrayList<>();
+        private final long[] arrivals;
+        private final long[] serviceTimes;
+        private final double slowFactor;
+
+        private long now;
+
+        Scenario(int requests, int instanceCount, double ratePerSecond, int workers, double serviceMillis, double slowFactor) {
+            this.requests = requests;
+            this.workers = workers;
+            for (int i = 0; i < instanceCount; i++) {
+                instances.add(new DefaultServiceInstance("instance-" + i, "sim-service", "10.0.0." + (i + 1), 8080, false, Map.of()));
+            }
+            // Pre-drawn so both strategies see exactly the same workload; service time is scaled per instance later
+            SplittableRandom random = new SplittableRandom(42);
+            arrivals = new long[requests];
+            serviceTimes = new long[requests];
+            double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+            double meanServiceNanos = serviceMillis * 1_000_000;
+            long t = 0;
+            for (int i = 0; i < requests; i++) {
+                t += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+                arrivals[i] = t;
+                serviceTimes[i] = (long) (-Math.log(1 - random.nextDouble()) * meanServiceNanos);
+            }
+            this.slowFactor = slowFactor;
+        }
+
+        Result run(boolean latencyAware) {
+            now = 0;
+            InstanceStatsRegistry registry = new InstanceStatsRegistry(10_000, 1_000, () -> now);
+            // Only choose(List) is exercised, so the instance supplier is never consulted
+            LatencyAwareLoadBalancer balancer = new LatencyAwareLoadBalancer(
+                    new StaticListableBeanFactory().getBeanProvider(ServiceInstanceListSupplier.class), registry, null, null);
+
+            // Per instance, the time each worker becomes free
+            List<PriorityQueue<Long>> workerFreeAt = new ArrayList<>();
+            for (int i = 0; i < instances.size(); i++) {
+                PriorityQueue<Long> free = new PriorityQueue<>();
+                for (int w = 0; w < workers; w++) {
+                    free.add(0L);
+                }
+                workerFreeAt.add(free);
+            }
+            PriorityQueue<Completion> pending = new PriorityQueue<>((a, b) -> Long.compare(a.at(), b.at()));
+            long[] latencies = new long[requests];
+            int toSlow = 0;
+            int roundRobin = 0;
+
+            for (int i = 0; i < requests; i++) {
+                long arrival = arrivals[i];
+                // Deliver every response that finished before this request arrives
+                while (!pending.isEmpty() && pending.peek().at() <= arrival) {
+                    Completion completion = pending.poll();
+                    now = completion.at();
+                    registry.complete(completion.instance(), completion.latency(), false);
+                }
+                now = arrival;
+
+                ServiceInstance chosen = latencyAware
+                        ? balancer.choose(instances)
+                        : instances.get(roundRobin++ % instances.size());
+                int index = instances.indexOf(chosen);
+                registry.start(chosen);
+
+                PriorityQueue<Long> free = workerFreeAt.get(index);
+                long start = Math.max(arrival, free.poll());
+                long service = index == 0 ? (long) (serviceTimes[i] * slowFactor) : serviceTimes[i];
+                long finish = start + service;
+                free.add(finish);
+                latencies[i] = finish - arrival;
+                pending.add(new Completion(finish, chosen, finish - arrival));
+                if (index == 0) {
+                    toSlow++;
+                }
+            }
+            return new Result(latencies, toSlow);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.reservation.inventory.DayInventory;
+import com.clinicsys.reservation.inventory.SlotRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking contention on one clinic day: every thread keeps trying to book 1–2 slot ranges inside
+ * the same opening window of {@code window} slots, releasing what it wins right away, so nearly
+ * every attempt races other threads for the same bits. {@code cas*} goes through the lock-free
+ * {@link DayInventory}; {@code locked*} is the same first-fit search over a {@code boolean} grid
+ * under one monitor, standing in for serializing bookings on a per-day row lock.
+ * <p>
+ * Scores count attempts, won or lost; a lost attempt is an answer too (409). Run with more
+ * threads than the default to see the monitor's convoying, e.g.
+ * <pre>scripts/run-benchmarks.sh results.json SlotBookingBenchmark -t 16</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SlotBookingBenchmark {
+
+    private static final int SLOTS = 96;
+    private static final int WINDOW_START = 36; // 09:00 on a 15-minute grid
+
+    @Param({"4", "16"})
+    public int window;
+
+    @Param({"4"})
+    public int lanes;
+
+    private DayInventory inventory;
+    private LockedDay lockedDay;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        inventory = new DayInventory(lanes, SLOTS);
+        lockedDay = new LockedDay(lanes, SLOTS);
+    }
+
+    @Benchmark
+    public void casBookAndRelease(Blackhole blackhole) {
+        SlotRange range = nextRange();
+        int lane = inventory.reserveAny(range);
+        if (lane >= 0) {
+            inventory.release(lane, range);
+        }
+        blackhole.consume(lane);
+    }
+
+    @Benchmark
+    public void lockedBookAndRelease(Blackhole blackhole) {
+        SlotRange range = nextRange();
+        int lane = lockedDay.reserveAny(range);
+        if (lane >= 0) {
+            lockedDay.release(lane, range);
+        }
+        blackhole.consume(lane);
+    }
+
+    @Benchmark
+    public int[] casAvailability() {
+        return inventory.freeLanes();
+    }
+
+    private SlotRange nextRange() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int length = 1 + random.nextInt(2);
+        return new SlotRange(WINDOW_START + random.nextInt(window - length + 1), length);
+    }
+
+    // Baseline: one lock for the whole day
+    static final class LockedDay {
+        private final boolean[][] taken;
+
+        LockedDay(int lanes, int slots) {
+            taken = new boolean[lanes][slots];
+        }
+
+        synchronized int reserveAny(SlotRange range) {
+            for (int lane = 0; lane < taken.length; lane++) {
+                boolean free = true;
+                for (int slot = range.start(); slot < range.end() && free; slot++) {
+                    free = !taken[lane][slot];
+                }
+                if (free) {
+                    for (int slot = range.start(); slot < range.end(); slot++) {
+                        taken[lane][slot] = true;
+                    }
+                    return lane;
+                }
+            }
+            return -1;
+        }
+
+        synchronized void release(int lane, SlotRange range) {
+            for (int slot = range.start(); slot < range.end(); slot++) {
+                taken[lane][slot] = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.clinicsys.benchmarks;
+
+import com.clinicsys.apigateway.loadbalancer.InstanceStatsRegistry;
+import com.clinicsys.apigateway.loadbalancer.LatencyAwareLoadBalancer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadBalancerSimulationTest {
+
+    @Test
+    void latencyAwareBalancingCutsTheTailBehindASlowInstance() {
+        // Five instances at 600 requests/s, instance-0 five times slower: round-robin queues a fifth of all calls on it
+        LoadBalancerSimulation.Scenario scenario = new LoadBalancerSimulation.Scenario(50_000, 5, 600, 8, 10, 5);
+        LoadBalancerSimulation.Result roundRobin = scenario.run(false);
+        LoadBalancerSimulation.Result latencyAware = scenario.run(true);
+
+        long roundRobinP99 = p99(roundRobin);
+        long latencyAwareP99 = p99(latencyAware);
+        assertTrue(latencyAwareP99 * 2 < roundRobinP99,
+                "p99 " + latencyAwareP99 / 1_000_000.0 + " ms latency-aware vs " + roundRobinP99 / 1_000_000.0 + " ms round-robin");
+        assertTrue(latencyAware.toSlow() < roundRobin.toSlow() / 2,
+                latencyAware.toSlow() + " calls to the slow instance vs " + roundRobin.toSlow());
+    }
+
+    @Test
+    void goesRoundRobinWhileNoInstanceHasDataOrOutstandingCalls() {
+        List<ServiceInstance> instances = instances(4);
+        InstanceStatsRegistry registry = new InstanceStatsRegistry(10_000, 1_000, () -> 0L);
+        LatencyAwareLoadBalancer balancer = balancer(registry);
+
+        int[] chosen = new int[instances.size()];
+        for (int i = 0; i < 400; i++) {
+            chosen[instances.indexOf(balancer.choose(instances))]++;
+        }
+        assertArrayEquals(new int[]{100, 100, 100, 100}, chosen);
+    }
+
+    @Test
+    void keepsTrafficAwayFromAnInstanceThatHasNotAnsweredYet() {
+        // instance-0 is new and hung: its first call never completes; the others answer in 10 ms
+        List<ServiceInstance> instances = instances(5);
+        long[] now = {0};
+        InstanceStatsRegistry registry = new InstanceStatsRegistry(10_000, 1_000, () -> now[0]);
+        LatencyAwareLoadBalancer balancer = balancer(registry);
+        registry.start(instances.get(0));
+        for (ServiceInstance instance : instances.subList(1, instances.size())) {
+            registry.start(instance);
+            registry.complete(instance, 10_000_000, false);
+        }
+
+        int toHung = 0;
+        for (int i = 0; i < 1_000; i++) {
+            now[0] += 1_000_000;
+            ServiceInstance chosen = balancer.choose(instances);
+            registry.start(chosen);
+            if (chosen == instances.get(0)) {
+                toHung++;
+            } else {
+                registry.complete(chosen, 10_000_000, false);
+            }
+        }
+        assertEquals(0, toHung);
+    }
+
+    private static List<ServiceInstance> instances(int count) {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            instances.add(new DefaultServiceInstance("instance-" + i, "sim-service", "10.0.0." + (i + 1), 8080, false, Map.of()));
+        }
+        return instances;
+    }
+
+    private static LatencyAwareLoadBalancer balancer(InstanceStatsRegistry registry) {
+        return new LatencyAwareLoadBalancer(
+                new StaticListableBeanFactory().getBeanProvider(ServiceInstanceListSupplier.class), registry, null, null);
+    }
+
+    private static long p99(LoadBalancerSimulation.Result result) {
+        long[] latencies = result.latencies().clone();
+        Arrays.sort(latencies);
+        return LoadBalancerSimulation.percentile(latencies, 99);
+    }
+}
@@ -0,0 +1,15 @@
+package com.clinicsys.common.audit;
+
+/**
+ * Hands audit events to audit-service. {@link #record} never blocks and never throws: auditing
+ * must not slow down or fail the request being audited.
+ */
+public interface AuditClient {
+
+    void record(AuditEvent event);
+
+    /** A client that discards every event, for services and tools running without audit-service. */
+    static AuditClient noop() {
+        return event -> { };
+    }
+}
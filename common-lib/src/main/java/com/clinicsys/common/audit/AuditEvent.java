@@ -0,0 +1,102 @@
+package com.clinicsys.common.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One audited action, as sent by services to audit-service.
+ *
+ * @param timestamp when the action happened; audit-service fills in its receipt time when absent
+ * @param service   the service that performed the action
+ * @param actor     who performed it: a user's email, or a system name
+ * @param action    what was done, e.g. {@code LOGIN} or {@code GET /api/auth/admin/users/export}
+ * @param target    what it was done to, if not the actor itself
+ * @param outcome   {@link #SUCCESS}, {@link #FAILURE} or {@link #DENIED}
+ * @param sourceIp  the client address as seen by the service
+ * @param details   small free-form attributes
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AuditEvent(
+        Instant timestamp,
+        @NotBlank @Size(max = MAX_SERVICE) String service,
+        @NotBlank @Size(max = MAX_ACTOR) String actor,
+        @NotBlank @Size(max = MAX_ACTION) String action,
+        @Size(max = MAX_TARGET) String target,
+        @NotBlank @Size(max = MAX_OUTCOME) String outcome,
+        @Size(max = MAX_SOURCE_IP) String sourceIp,
+        @Size(max = MAX_DETAILS) Map<String, String> details) {
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String FAILURE = "FAILURE";
+    public static final String DENIED = "DENIED";
+
+    public static final int MAX_SERVICE = 100;
+    public static final int MAX_ACTOR = 320;
+    public static final int MAX_ACTION = 200;
+    public static final int MAX_TARGET = 320;
+    public static final int MAX_OUTCOME = 20;
+    public static final int MAX_SOURCE_IP = 64;
+    public static final int MAX_DETAILS = 32;
+    // Not enforced by audit-service; keeps a request-derived value such as a query string from bloating the log
+    public static final int MAX_DETAIL_LENGTH = 1000;
+
+    public static AuditEvent of(String service, String actor, String action, String outcome) {
+        return new AuditEvent(Instant.now(), service, actor, action, null, outcome, null, null);
+    }
+
+    public AuditEvent withTarget(String target) {
+        return new AuditEvent(timestamp, service, actor, action, target, outcome, sourceIp, details);
+    }
+
+    public AuditEvent withSourceIp(String sourceIp) {
+        return new AuditEvent(timestamp, service, actor, action, target, outcome, sourceIp, details);
+    }
+
+    public AuditEvent withDetails(Map<String, String> details) {
+        return new AuditEvent(timestamp, service, actor, action, target, outcome, sourceIp, details);
+    }
+
+    /**
+     * This event with every field cut to the limits audit-service validates, so that a value taken
+     * from a request (an address, a path, a query string) cannot get the event rejected. Details
+     * beyond {@link #MAX_DETAILS} are dropped, keeping the first keys in sorted order.
+     */
+    public AuditEvent truncated() {
+        Map<String, String> boundedDetails = details;
+        if (details != null && (details.size() > MAX_DETAILS || details.entrySet().stream().anyMatch(entry ->
+                exceeds(entry.getKey(), MAX_DETAIL_LENGTH) || exceeds(entry.getValue(), MAX_DETAIL_LENGTH)))) {
+            boundedDetails = new TreeMap<>();
+            for (Map.Entry<String, String> entry : new TreeMap<>(details).entrySet()) {
+                if (boundedDetails.size() == MAX_DETAILS) {
+                    break;
+                }
+                boundedDetails.put(cut(entry.getKey(), MAX_DETAIL_LENGTH), cut(entry.getValue(), MAX_DETAIL_LENGTH));
+            }
+        }
+        if (boundedDetails == details && !exceeds(service, MAX_SERVICE) && !exceeds(actor, MAX_ACTOR)
+                && !exceeds(action, MAX_ACTION) && !exceeds(target, MAX_TARGET) && !exceeds(outcome, MAX_OUTCOME)
+                && !exceeds(sourceIp, MAX_SOURCE_IP)) {
+            return this;
+        }
+        return new AuditEvent(timestamp, cut(service, MAX_SERVICE), cut(actor, MAX_ACTOR), cut(action, MAX_ACTION),
+                cut(target, MAX_TARGET), cut(outcome, MAX_OUTCOME), cut(sourceIp, MAX_SOURCE_IP), boundedDetails);
+    }
+
+    private static boolean exceeds(String value, int max) {
+        return value != null && value.length() > max;
+    }
+
+    // Never splits a surrogate pair
+    private static String cut(String value, int max) {
+        if (!exceeds(value, max)) {
+            return value;
+        }
+        int end = Character.isHighSurrogate(value.charAt(max - 1)) ? max - 1 : max;
+        return value.substring(0, end);
+    }
+}
@@ -0,0 +1,215 @@
+package com.clinicsys.common.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AuditClient} that buffers events in a bounded in-memory queue and posts them to
+ * audit-service in batches from a single background thread.
+ * <p>
+ * {@link #record} is a non-blocking {@code offer}: when the queue is full, for instance while
+ * audit-service is down, new events are dropped and counted instead of stalling the caller.
+ * A failed batch is retried with exponential backoff (up to {@code maxBackoff}) and is not
+ * dropped; events keep queueing behind it until the queue is full. Queued events are lost if the
+ * process dies; {@link #close} makes one last attempt to deliver them.
+ * <p>
+ * Events are cut to the {@link AuditEvent} limits as they are recorded. A batch audit-service
+ * still rejects as invalid is split in halves and resent, so only the events it rejects on
+ * their own are dropped, not the rest of their batch.
+ */
+public class HttpAuditClient implements AuditClient, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpAuditClient.class);
+
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(100);
+
+    private final URI endpoint;
+    private final String token;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration maxBackoff;
+    private final Duration requestTimeout;
+    private final BlockingQueue<AuditEvent> queue;
+    private final HttpClient httpClient;
+    private final Thread sender;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile long lastDropWarning;
+
+    /**
+     * @param token service credential sent as {@code X-Audit-Token}; null or blank sends none
+     */
+    public HttpAuditClient(URI endpoint, String token, ObjectMapper objectMapper, int queueCapacity, int batchSize,
+                           Duration flushInterval, Duration maxBackoff, Duration requestTimeout) {
+        this.endpoint = endpoint;
+        this.token = token == null || token.isBlank() ? null : token;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.maxBackoff = maxBackoff;
+        this.requestTimeout = requestTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(requestTimeout).build();
+        this.sender = new Thread(this::run, "audit-client");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    @Override
+    public void record(AuditEvent event) {
+        if (!running || !queue.offer(event.truncated())) {
+            dropped.incrementAndGet();
+            long now = System.currentTimeMillis();
+            if (now - lastDropWarning > 10_000) {
+                lastDropWarning = now;
+                log.warn("Audit queue full or closed; {} events dropped so far", dropped.get());
+            }
+        }
+    }
+
+    public long sent() {
+        return sent.get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public long failedAttempts() {
+        return failedAttempts.get();
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    /** Stops accepting events and tries once more, for at most the request timeout, to send what is queued. */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        sender.interrupt();
+        sender.join(requestTimeout.toMillis() * 2);
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        Duration backoff = MIN_BACKOFF;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    AuditEvent first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    // Let a burst accumulate briefly so it goes out as one request
+                    if (queue.size() < batchSize - 1) {
+                        Thread.sleep(flushInterval.toMillis());
+                    }
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                if (deliver(batch)) {
+                    backoff = MIN_BACKOFF;
+                } else {
+                    Thread.sleep(backoff.toMillis());
+                    backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+                }
+            } catch (InterruptedException e) {
+                // close(): fall through to the final flush
+            }
+        }
+        queue.drainTo(batch);
+        while (!batch.isEmpty()) {
+            if (!deliver(batch.subList(0, Math.min(batch.size(), batchSize)))) {
+                dropped.addAndGet(batch.size());
+                log.warn("Could not deliver {} audit events on shutdown", batch.size());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends the batch and removes from it every event that was delivered or dropped. On a
+     * rejection the halves are sent separately, down to the single event that is invalid.
+     * Returns false, with the events still to send left in {@code batch}, on a failure worth
+     * retrying.
+     */
+    private boolean deliver(List<AuditEvent> batch) {
+        Outcome outcome = send(batch);
+        if (outcome == Outcome.RETRY) {
+            return false;
+        }
+        if (outcome == Outcome.INVALID) {
+            if (batch.size() > 1) {
+                // The first half leaves the list once it is through, so the second call sends the rest
+                return deliver(batch.subList(0, batch.size() / 2)) && deliver(batch);
+            }
+            dropped.incrementAndGet();
+            log.warn("audit-service rejected an event from {} as invalid: {} {}", batch.get(0).service(),
+                    batch.get(0).action(), batch.get(0).outcome());
+        }
+        batch.clear();
+        return true;
+    }
+
+    private enum Outcome {
+        DONE, INVALID, RETRY
+    }
+
+    private Outcome send(List<AuditEvent> batch) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(Map.of("events", batch))));
+            if (token != null) {
+                request.header("X-Audit-Token", token);
+            }
+            HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            int status = response.statusCode();
+            if (status / 100 == 2) {
+                sent.addAndGet(batch.size());
+                return Outcome.DONE;
+            }
+            if (status == 400 || status == 413) {
+                return Outcome.INVALID;
+            }
+            if (status / 100 == 4) {
+                // Not about the events (token, route): retrying cannot succeed
+                dropped.addAndGet(batch.size());
+                log.warn("audit-service rejected {} events with status {}", batch.size(), status);
+                return Outcome.DONE;
+            }
+            log.debug("audit-service answered {}; will retry {} events", status, batch.size());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} audit events", batch.size(), e);
+            return Outcome.INVALID;
+        } catch (IOException e) {
+            log.debug("Could not reach audit-service at {}: {}", endpoint, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failedAttempts.incrementAndGet();
+        return Outcome.RETRY;
+    }
+}
@@ -0,0 +1,187 @@
+package com.clinicsys.common.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.commons.logging.Log;
+import org.springframework.boot.context.config.ConfigData;
+import org.springframework.boot.context.config.ConfigDataLoader;
+import org.springframework.boot.context.config.ConfigDataLoaderContext;
+import org.springframework.boot.context.config.ConfigDataResourceNotFoundException;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads config from a config server, keeping the last good environment on local disk. When a
+ * local copy exists the service starts from it immediately and asks the server in the
+ * background whether it changed ({@code If-None-Match}); a newer environment replaces the local
+ * copy and takes effect on the next refresh or restart. Without a local copy the server is
+ * called synchronously, once, with {@code config.client.timeout}.
+ * <p>
+ * This keeps a fleet-wide restart from waiting on the config server, and lets services start
+ * while it is down as long as they have started successfully once before.
+ * <p>
+ * The local copy is the environment exactly as served, including any secrets in it (database
+ * and signing-key passwords), in plain text. On POSIX file systems it is written readable by the
+ * owner only, in a directory created with owner-only access; {@code config.client.cache-dir}
+ * should be a directory of its own that nothing else shares.
+ */
+public class CachedConfigServerConfigDataLoader implements ConfigDataLoader<CachedConfigServerConfigDataResource> {
+
+    private static final String SOURCE_PREFIX = "cached-configserver:";
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private final Log log;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    public CachedConfigServerConfigDataLoader(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(CachedConfigServerConfigDataLoader.class);
+    }
+
+    @Override
+    public ConfigData load(ConfigDataLoaderContext context, CachedConfigServerConfigDataResource resource) {
+        JsonNode cached = readCache(resource);
+        if (cached != null) {
+            log.info("Starting from local config copy " + resource.getCacheFile() + ", checking " + resource + " in the background");
+            refreshInBackground(resource, cached.path("etag").asText(null));
+            return toConfigData(cached.path("environment"));
+        }
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request(resource, null), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Config server answered " + response.statusCode());
+            }
+            JsonNode environment = objectMapper.readTree(response.body());
+            writeCache(resource, response.headers().firstValue("ETag").orElse(null), environment);
+            return toConfigData(environment);
+        } catch (IOException e) {
+            throw new ConfigDataResourceNotFoundException(resource, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigDataResourceNotFoundException(resource, e);
+        }
+    }
+
+    private void refreshInBackground(CachedConfigServerConfigDataResource resource, String etag) {
+        httpClient.sendAsync(request(resource, etag), HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, failure) -> {
+                    if (failure != null) {
+                        log.warn("Could not reach config server for " + resource + ", keeping local copy: " + failure.getMessage());
+                    } else if (response.statusCode() == 304) {
+                        log.debug("Local config copy for " + resource + " is current");
+                    } else if (response.statusCode() == 200) {
+                        try {
+                            writeCache(resource, response.headers().firstValue("ETag").orElse(null),
+                                    objectMapper.readTree(response.body()));
+                            log.info("Config for " + resource + " changed; local copy updated, applies on next refresh or restart");
+                        } catch (IOException e) {
+                            log.warn("Could not update local config copy " + resource.getCacheFile(), e);
+                        }
+                    } else {
+                        log.warn("Config server answered " + response.statusCode() + " for " + resource + ", keeping local copy");
+                    }
+                });
+    }
+
+    private HttpRequest request(CachedConfigServerConfigDataResource resource, String etag) {
+        StringBuilder path = new StringBuilder(resource.getUri())
+                .append('/').append(encode(resource.getApplication()))
+                .append('/').append(encode(resource.getProfiles()));
+        if (resource.getLabel() != null) {
+            // The config server's escape for slashes in labels
+            path.append('/').append(encode(resource.getLabel().replace("/", "(_)")));
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(path.toString()))
+                .timeout(resource.getTimeout())
+                .header("Accept", "application/json")
+                .GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        return builder.build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private JsonNode readCache(CachedConfigServerConfigDataResource resource) {
+        try {
+            return objectMapper.readTree(Files.readAllBytes(resource.getCacheFile()));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable local config copy " + resource.getCacheFile(), e);
+            return null;
+        }
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves a torn copy behind;
+    // the move keeps the temporary file's owner-only permissions
+    private synchronized void writeCache(CachedConfigServerConfigDataResource resource, String etag,
+                                         JsonNode environment) throws IOException {
+        ObjectNode snapshot = objectMapper.createObjectNode();
+        snapshot.put("etag", etag);
+        snapshot.set("environment", environment);
+        Path file = resource.getCacheFile();
+        Path directory = file.getParent();
+        Path tmp;
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+            if (!OWNER_ONLY_DIRECTORY.containsAll(Files.getPosixFilePermissions(directory))) {
+                log.warn("Local config directory " + directory + " is accessible to other users; it holds secrets");
+            }
+            tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp",
+                    PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE));
+        } else {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        }
+        try {
+            Files.write(tmp, objectMapper.writeValueAsBytes(snapshot));
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConfigData toConfigData(JsonNode environment) {
+        List<PropertySource<?>> sources = new ArrayList<>();
+        // Same order as Spring Cloud Config's own loader: the server lists the most specific source first
+        for (JsonNode source : environment.path("propertySources")) {
+            Map<String, Object> values = objectMapper.convertValue(source.path("source"), LinkedHashMap.class);
+            sources.add(0, new MapPropertySource(SOURCE_PREFIX + source.path("name").asText(), values));
+        }
+        return new ConfigData(sources);
+    }
+}
@@ -0,0 +1,58 @@
+package com.clinicsys.common.config;
+
+import org.springframework.boot.context.config.ConfigDataLocation;
+import org.springframework.boot.context.config.ConfigDataLocationResolver;
+import org.springframework.boot.context.config.ConfigDataLocationResolverContext;
+import org.springframework.boot.context.config.Profiles;
+import org.springframework.boot.context.properties.bind.Binder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resolves {@code spring.config.import=cached-configserver:<uri>} locations. The environment is
+ * chosen the same way as for Spring Cloud Config's {@code configserver:} imports:
+ * {@code spring.application.name}, the active profiles and {@code spring.cloud.config.label}.
+ * The local copy lives under {@code config.client.cache-dir}.
+ */
+public class CachedConfigServerConfigDataLocationResolver
+        implements ConfigDataLocationResolver<CachedConfigServerConfigDataResource> {
+
+    public static final String PREFIX = "cached-configserver:";
+
+    @Override
+    public boolean isResolvable(ConfigDataLocationResolverContext context, ConfigDataLocation location) {
+        return location.hasPrefix(PREFIX);
+    }
+
+    @Override
+    public List<CachedConfigServerConfigDataResource> resolve(ConfigDataLocationResolverContext context,
+                                                             ConfigDataLocation location) {
+        // Needs the active profiles, so everything happens in resolveProfileSpecific
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<CachedConfigServerConfigDataResource> resolveProfileSpecific(ConfigDataLocationResolverContext context,
+                                                                            ConfigDataLocation location,
+                                                                            Profiles profiles) {
+        Binder binder = context.getBinder();
+        String uri = location.getNonPrefixedValue(PREFIX);
+        while (uri.endsWith("/")) {
+            uri = uri.substring(0, uri.length() - 1);
+        }
+        String application = binder.bind("spring.application.name", String.class).orElse("application");
+        String activeProfiles = profiles.getAccepted().isEmpty() ? "default" : String.join(",", profiles.getAccepted());
+        String label = binder.bind("spring.cloud.config.label", String.class).orElse(null);
+        Path cacheDir = Paths.get(binder.bind("config.client.cache-dir", String.class)
+                .orElse(System.getProperty("user.home") + "/.clinicsys/config-cache"));
+        Duration timeout = Duration.ofMillis(binder.bind("config.client.timeout", Long.class).orElse(5000L));
+        String fileName = (application + "-" + activeProfiles + (label != null ? "-" + label : ""))
+                .replaceAll("[^A-Za-z0-9._-]", "_") + ".json";
+        return List.of(new CachedConfigServerConfigDataResource(location.isOptional(), uri, application,
+                activeProfiles, label, cacheDir.resolve(fileName), timeout));
+    }
+}
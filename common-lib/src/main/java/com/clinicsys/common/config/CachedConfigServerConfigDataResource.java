@@ -0,0 +1,78 @@
+package com.clinicsys.common.config;
+
+import org.springframework.boot.context.config.ConfigDataResource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * One environment on a config server ({@code application/profiles/label}) together with the
+ * local file that holds its last good copy.
+ */
+public class CachedConfigServerConfigDataResource extends ConfigDataResource {
+
+    private final String uri;
+    private final String application;
+    private final String profiles;
+    private final String label;
+    private final Path cacheFile;
+    private final Duration timeout;
+
+    CachedConfigServerConfigDataResource(boolean optional, String uri, String application, String profiles,
+                                         String label, Path cacheFile, Duration timeout) {
+        super(optional);
+        this.uri = uri;
+        this.application = application;
+        this.profiles = profiles;
+        this.label = label;
+        this.cacheFile = cacheFile;
+        this.timeout = timeout;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public String getProfiles() {
+        return profiles;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CachedConfigServerConfigDataResource that)) {
+            return false;
+        }
+        return uri.equals(that.uri) && application.equals(that.application)
+                && profiles.equals(that.profiles) && Objects.equals(label, that.label);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(uri, application, profiles, label);
+    }
+
+    @Override
+    public String toString() {
+        return "cached-configserver " + uri + "/" + application + "/" + profiles + (label != null ? "/" + label : "");
+    }
+}
@@ -1,7 +1,10 @@
 package com.clinicsys.common.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.time.LocalDateTime;
 
+@JsonSerialize(using = ApiResponseSerializer.class)
 public class ApiResponse<T> {
     private boolean success;
     private String message;
@@ -55,18 +58,18 @@ public class ApiResponse<T> {
 
     // Static factory methods
     public static <T> ApiResponse<T> success(T data) {
-        return new ApiResponse<T>(true, "Success", data, LocalDateTime.now());
+        return new ApiResponse<T>(true, "Success", data, ResponseClock.now());
     }
 
     public static <T> ApiResponse<T> success(String message, T data) {
-        return new ApiResponse<T>(true, message, data, LocalDateTime.now());
+        return new ApiResponse<T>(true, message, data, ResponseClock.now());
     }
 
     public static <T> ApiResponse<T> error(String message) {
-        return new ApiResponse<T>(false, message, null, LocalDateTime.now());
+        return new ApiResponse<T>(false, message, null, ResponseClock.now());
     }
 
     public static <T> ApiResponse<T> error(String message, T data) {
-        return new ApiResponse<T>(false, message, data, LocalDateTime.now());
+        return new ApiResponse<T>(false, message, data, ResponseClock.now());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.clinicsys.common.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes the {@link ApiResponse} envelope field by field instead of through reflective bean
+ * introspection. Output is identical to the bean serializer (same field order, nulls included);
+ * only {@code data} goes through the regular, cached serializer lookup. Timestamps from
+ * {@link ResponseClock} reuse their pre-formatted text.
+ */
+public class ApiResponseSerializer extends StdSerializer<ApiResponse<?>> {
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ApiResponseSerializer() {
+        super((Class) ApiResponse.class);
+    }
+
+    @Override
+    public void serialize(ApiResponse<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        gen.writeBooleanField("success", value.isSuccess());
+        gen.writeStringField("message", value.getMessage());
+        provider.defaultSerializeField("data", value.getData(), gen);
+        writeTimestamp(value, gen, provider);
+        gen.writeEndObject();
+    }
+
+    private static void writeTimestamp(ApiResponse<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value.getTimestamp() != null && !provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            String iso = ResponseClock.isoIfCurrent(value.getTimestamp());
+            if (iso != null) {
+                gen.writeStringField("timestamp", iso);
+                return;
+            }
+        }
+        provider.defaultSerializeField("timestamp", value.getTimestamp(), gen);
+    }
+}
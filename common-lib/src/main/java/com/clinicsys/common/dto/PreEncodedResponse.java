@@ -0,0 +1,92 @@
+package com.clinicsys.common.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * A constant {@link ApiResponse} (health checks, acknowledgements) serialized once at startup.
+ * Only the timestamp changes between calls, so the body is kept as the bytes before and after
+ * it and re-assembled at most once per millisecond; callers in the same millisecond get the
+ * same array. Returned as {@code byte[]} it bypasses Jackson entirely.
+ */
+public final class PreEncodedResponse {
+
+    // Serialized once to find where the timestamp sits in the template
+    private static final LocalDateTime MARKER = LocalDateTime.of(1999, 12, 31, 23, 59, 59, 987_000_000);
+
+    private final ObjectMapper objectMapper;
+    private final byte[] prefix;
+    private final byte[] suffix;
+    private volatile Encoded cached;
+
+    private PreEncodedResponse(ObjectMapper objectMapper, byte[] prefix, byte[] suffix) {
+        this.objectMapper = objectMapper;
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    /** Encodes {@code template} with {@code objectMapper}'s settings; the template's own timestamp is ignored. */
+    public static PreEncodedResponse of(ObjectMapper objectMapper, ApiResponse<?> template) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(new ApiResponse<>(
+                    template.isSuccess(), template.getMessage(), template.getData(), MARKER));
+            byte[] marker = objectMapper.writeValueAsBytes(MARKER);
+            int at = lastIndexOf(body, marker);
+            if (at < 0) {
+                throw new IllegalStateException("Timestamp not found in encoded response");
+            }
+            byte[] prefix = new byte[at];
+            byte[] suffix = new byte[body.length - at - marker.length];
+            System.arraycopy(body, 0, prefix, 0, prefix.length);
+            System.arraycopy(body, at + marker.length, suffix, 0, suffix.length);
+            return new PreEncodedResponse(objectMapper, prefix, suffix);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not pre-encode response", e);
+        }
+    }
+
+    /** The encoded body with the current timestamp. The array is shared and must not be modified. */
+    public byte[] body() {
+        ResponseClock.Tick tick = ResponseClock.current();
+        Encoded current = cached;
+        if (current != null && current.millis() == tick.millis()) {
+            return current.body();
+        }
+        byte[] timestamp;
+        try {
+            timestamp = objectMapper.writeValueAsBytes(tick.time());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] body = new byte[prefix.length + timestamp.length + suffix.length];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        System.arraycopy(timestamp, 0, body, prefix.length, timestamp.length);
+        System.arraycopy(suffix, 0, body, prefix.length + timestamp.length, suffix.length);
+        cached = new Encoded(tick.millis(), body);
+        return body;
+    }
+
+    public ResponseEntity<byte[]> toResponseEntity() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body());
+    }
+
+    private static int lastIndexOf(byte[] haystack, byte[] needle) {
+        outer:
+        for (int i = haystack.length - needle.length; i >= 0; i--) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private record Encoded(long millis, byte[] body) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.clinicsys.common.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Millisecond-resolution clock for {@link ApiResponse} timestamps. All responses created within
+ * the same millisecond share one {@link LocalDateTime} and its ISO-8601 text, so a busy service
+ * resolves the time zone and formats the timestamp once per millisecond instead of per response.
+ */
+public final class ResponseClock {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private static volatile Tick tick = new Tick(Long.MIN_VALUE, LocalDateTime.MIN, "");
+
+    private ResponseClock() {
+    }
+
+    public static LocalDateTime now() {
+        return current().time();
+    }
+
+    /** The current tick; {@code tick.iso()} matches Jackson's default {@code LocalDateTime} format. */
+    public static Tick current() {
+        long millis = System.currentTimeMillis();
+        Tick current = tick;
+        if (current.millis() != millis) {
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+            current = new Tick(millis, time, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time));
+            tick = current;
+        }
+        return current;
+    }
+
+    /** Pre-formatted text for {@code time} if it came from this clock's latest tick, otherwise null. */
+    static String isoIfCurrent(LocalDateTime time) {
+        Tick current = tick;
+        return current.time() == time ? current.iso() : null;
+    }
+
+    public record Tick(long millis, LocalDateTime time, String iso) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.clinicsys.common.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Writes a successful {@link ApiResponse} whose {@code data} is a JSON array straight to an
+ * output stream, one element at a time. The wire format is the same as serializing an
+ * {@code ApiResponse<List<T>>}, but the list is never materialized, so exports of any size
+ * run in constant memory.
+ */
+public final class StreamingApiResponse {
+
+    private StreamingApiResponse() {
+    }
+
+    public static <T> void write(ObjectMapper objectMapper, OutputStream output, String message, Iterator<T> items)
+            throws IOException {
+        // Flushing after every element would turn each one into its own network write
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator gen = objectMapper.createGenerator(output)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            gen.writeBooleanField("success", true);
+            gen.writeStringField("message", message);
+            gen.writeArrayFieldStart("data");
+            while (items.hasNext()) {
+                writer.writeValue(gen, items.next());
+            }
+            gen.writeEndArray();
+            gen.writeFieldName("timestamp");
+            writer.writeValue(gen, ResponseClock.now());
+            gen.writeEndObject();
+        }
+    }
+}
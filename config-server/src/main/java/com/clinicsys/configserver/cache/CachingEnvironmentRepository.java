@@ -0,0 +1,115 @@
+package com.clinicsys.configserver.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.SearchPathLocator;
+import org.springframework.util.StringUtils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches resolved environments per application, profile, label and origin flag, so a fleet
+ * restart costs one property-source resolution per distinct request instead of one per
+ * instance. Concurrent misses for the same key share a single resolution. Environments whose
+ * repository reports no version (the native backend) get a content hash as their version,
+ * which {@link EnvironmentEtagAdvice} turns into an ETag.
+ * <p>
+ * Cached environments are shared between requests and must not be modified by callers.
+ */
+public class CachingEnvironmentRepository implements EnvironmentRepository, SearchPathLocator {
+
+    private final EnvironmentRepository delegate;
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, Environment> cache;
+
+    private record Key(String application, String profile, String label, boolean includeOrigin) {
+    }
+
+    public CachingEnvironmentRepository(EnvironmentRepository delegate, ObjectMapper objectMapper,
+                                        Duration timeToLive, long maximumSize) {
+        this.delegate = delegate;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Environment findOne(String application, String profile, String label) {
+        return findOne(application, profile, label, false);
+    }
+
+    @Override
+    public Environment findOne(String application, String profile, String label, boolean includeOrigin) {
+        // Failures (unknown label, backend down) propagate and are not cached
+        return cache.get(new Key(application, profile, label, includeOrigin), this::load);
+    }
+
+    @Override
+    public Locations getLocations(String application, String profile, String label) {
+        if (delegate instanceof SearchPathLocator locator) {
+            return locator.getLocations(application, profile, label);
+        }
+        return new Locations(application, profile, label, null, new String[0]);
+    }
+
+    public Cache<?, ?> cache() {
+        return cache;
+    }
+
+    /** Drops cached environments, all of them or only those of one application. */
+    public int purge(String application) {
+        int purged = 0;
+        Iterator<Key> keys = cache.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            Key key = keys.next();
+            if (application == null || application.equals(key.application())) {
+                keys.remove();
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("entries", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private Environment load(Key key) {
+        Environment environment = delegate.findOne(key.application(), key.profile(), key.label(), key.includeOrigin());
+        if (environment != null && !StringUtils.hasText(environment.getVersion())) {
+            environment.setVersion(contentHash(environment));
+        }
+        return environment;
+    }
+
+    private String contentHash(Environment environment) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsBytes(environment.getPropertySources()));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash environment " + environment.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.clinicsys.configserver.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Puts {@link CachingEnvironmentRepository} in front of the primary environment repository,
+ * which is the one the config server's controllers use. The primary is wrapped rather than
+ * replaced because Spring Cloud Config defines it, and the backends behind it, itself.
+ */
+@Configuration
+@ConditionalOnProperty(value = "config.environment-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class EnvironmentCacheConfiguration {
+
+    // Static: post-processors are created before regular beans, so this must not pull in the configuration class
+    @Bean
+    static BeanPostProcessor cachingEnvironmentRepositoryPostProcessor(
+            ConfigurableListableBeanFactory beanFactory, Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (!(bean instanceof EnvironmentRepository repository) || !isPrimary(beanFactory, beanName)) {
+                    return bean;
+                }
+                return new CachingEnvironmentRepository(repository, new ObjectMapper(),
+                        Duration.ofMillis(environment.getProperty("config.environment-cache.ttl", Long.class, 60000L)),
+                        environment.getProperty("config.environment-cache.max-size", Long.class, 1000L));
+            }
+        };
+    }
+
+    // Injected as the primary EnvironmentRepository: the bean definition still carries the wrapped type
+    @Bean
+    EnvironmentCacheEndpoint environmentCacheEndpoint(EnvironmentRepository repository) {
+        return new EnvironmentCacheEndpoint((CachingEnvironmentRepository) repository);
+    }
+
+    @Bean
+    MeterBinder environmentCacheMetrics(EnvironmentRepository repository) {
+        return registry -> CaffeineCacheMetrics.monitor(registry,
+                ((CachingEnvironmentRepository) repository).cache(), "config-server.environment-cache");
+    }
+
+    private static boolean isPrimary(ConfigurableListableBeanFactory beanFactory, String beanName) {
+        if (!beanFactory.containsBeanDefinition(beanName)) {
+            return false;
+        }
+        BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+        return definition.isPrimary();
+    }
+}
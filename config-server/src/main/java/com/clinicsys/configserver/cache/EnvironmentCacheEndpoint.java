@@ -0,0 +1,33 @@
+package com.clinicsys.configserver.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/environmentcache} reports cache statistics; {@code DELETE} purges cached
+ * environments, optionally only those of one {@code application}, e.g. after pushing a config
+ * change that must be served before the cache TTL runs out.
+ */
+@Endpoint(id = "environmentcache")
+public class EnvironmentCacheEndpoint {
+
+    private final CachingEnvironmentRepository repository;
+
+    public EnvironmentCacheEndpoint(CachingEnvironmentRepository repository) {
+        this.repository = repository;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return repository.stats();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> purge(@Nullable String application) {
+        return Map.of("purged", repository.purge(application));
+    }
+}
@@ -0,0 +1,50 @@
+package com.clinicsys.configserver.cache;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.EnvironmentController;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Tags environment responses with an ETag built from the environment's version and answers a
+ * matching {@code If-None-Match} with {@code 304 Not Modified} and no body, so clients that
+ * already hold the current config skip both the transfer and the parse.
+ */
+@ControllerAdvice(assignableTypes = EnvironmentController.class)
+public class EnvironmentEtagAdvice implements ResponseBodyAdvice<Environment> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return Environment.class.equals(returnType.getParameterType());
+    }
+
+    @Override
+    public Environment beforeBodyWrite(Environment body, MethodParameter returnType, MediaType selectedContentType,
+                                       Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                       ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || body.getVersion() == null
+                || !(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+        // The version identifies the content; the rest keeps distinct requests and media types apart
+        int variant = Objects.hash(body.getName(), Arrays.toString(body.getProfiles()), body.getLabel(),
+                body.getState(), selectedContentType.toString());
+        String etag = "\"" + Integer.toHexString(variant) + "-" + body.getVersion() + "\"";
+        servletResponse.getServletResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        ServletWebRequest webRequest = new ServletWebRequest(servletRequest.getServletRequest(), servletResponse.getServletResponse());
+        return webRequest.checkNotModified(etag) ? null : body;
+    }
+}
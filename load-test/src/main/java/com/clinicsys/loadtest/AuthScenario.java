@@ -0,0 +1,162 @@
+package com.clinicsys.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds and sends one request per {@link Operation} through the gateway. Login, refresh and
+ * validate act on a pool of accounts registered up front; successful logins and refreshes
+ * store the new tokens back into the pool, as a real client would.
+ */
+final class AuthScenario {
+
+    static final String PASSWORD = "LoadTest-Password1";
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Account> accounts = new CopyOnWriteArrayList<>();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong registrations = new AtomicLong();
+
+    AuthScenario(HttpClient client, URI baseUri, Duration timeout) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.timeout = timeout;
+    }
+
+    /** Registers {@code count} accounts, at most 16 at a time, before any stage starts. */
+    void seed(int count) throws InterruptedException {
+        Semaphore permits = new Semaphore(16);
+        for (int i = 0; i < count; i++) {
+            permits.acquire();
+            register().whenComplete((success, error) -> permits.release());
+        }
+        permits.acquire(16);
+        if (accounts.isEmpty()) {
+            throw new IllegalStateException("Could not register any account at " + baseUri);
+        }
+    }
+
+    int accounts() {
+        return accounts.size();
+    }
+
+    CompletableFuture<Boolean> execute(Operation operation) {
+        return switch (operation) {
+            case REGISTER -> register();
+            case LOGIN -> login(randomAccount());
+            case REFRESH -> refresh(randomAccount());
+            case VALIDATE -> validate(randomAccount());
+        };
+    }
+
+    private CompletableFuture<Boolean> register() {
+        String email = "lt-" + runId + "-" + registrations.incrementAndGet() + "@load.clinicsys.local";
+        Map<String, String> body = Map.of(
+                "firstName", "Load",
+                "lastName", "Test",
+                "email", email,
+                "password", PASSWORD,
+                "role", "PATIENT");
+        return send(post("/api/auth/register", body, null))
+                .thenApply(response -> {
+                    Account account = new Account(email);
+                    if (account.update(response)) {
+                        // Only seeding grows the pool; registrations during stages just measure the flow
+                        if (accounts.size() < 10_000) {
+                            accounts.add(account);
+                        }
+                        return true;
+                    }
+                    return false;
+                });
+    }
+
+    private CompletableFuture<Boolean> login(Account account) {
+        return send(post("/api/auth/login", Map.of("email", account.email, "password", PASSWORD), null))
+                .thenApply(account::update);
+    }
+
+    private CompletableFuture<Boolean> refresh(Account account) {
+        return send(post("/api/auth/refresh", null, account.refreshToken))
+                .thenApply(account::update);
+    }
+
+    private CompletableFuture<Boolean> validate(Account account) {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/auth/validate"))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + account.accessToken)
+                .GET()
+                .build();
+        return send(request).thenApply(response -> response != null && response.statusCode() == 200);
+    }
+
+    private HttpRequest post(String path, Map<String, String> body, String bearer) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json");
+        if (bearer != null) {
+            builder.header("Authorization", "Bearer " + bearer);
+        }
+        try {
+            return builder.POST(body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))).build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Transport failures (timeouts, refused connections) complete with null and count as errors
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .exceptionally(error -> null);
+    }
+
+    private Account randomAccount() {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+
+    private final class Account {
+        private final String email;
+        private volatile String accessToken;
+        private volatile String refreshToken;
+
+        private Account(String email) {
+            this.email = email;
+        }
+
+        /** Takes the tokens from an {@code ApiResponse<AuthResponse>}; false if the call did not succeed. */
+        private boolean update(HttpResponse<byte[]> response) {
+            if (response == null || response.statusCode() != 200) {
+                return false;
+            }
+            try {
+                JsonNode data = objectMapper.readTree(response.body()).path("data");
+                if (data.hasNonNull("token")) {
+                    accessToken = data.get("token").asText();
+                    refreshToken = data.path("refreshToken").asText(refreshToken);
+                }
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.clinicsys.loadtest;
+
+import com.clinicsys.apigateway.ApiGatewayApplication;
+import com.clinicsys.auth.AuthServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+
+/**
+ * auth-service and api-gateway booted in this JVM: auth-service on H2, the gateway routing to
+ * it through Spring Cloud's simple discovery client instead of Eureka. Each gets its own config
+ * file from {@code classpath:/loadtest/} so neither picks up the other's {@code application.yml}.
+ * <p>
+ * The generator shares CPUs with both services here; use it to compare builds and find which
+ * tier saturates first, and {@code --target} against a deployed stack for absolute capacity.
+ */
+final class EmbeddedStack implements AutoCloseable {
+
+    private final ConfigurableApplicationContext authService;
+    private final ConfigurableApplicationContext gateway;
+
+    EmbeddedStack(int bcryptStrength) {
+        // The parent pom puts devtools on every module's classpath; its restarter breaks a second context
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        authService = new SpringApplicationBuilder(AuthServiceApplication.class)
+                .run("--spring.config.location=classpath:/loadtest/auth-service.yml",
+                        "--password-hashing.bcrypt-strength=" + bcryptStrength);
+        int authPort = port(authService);
+
+        gateway = new SpringApplicationBuilder(ApiGatewayApplication.class)
+                .run("--spring.config.location=classpath:/loadtest/api-gateway.yml",
+                        "--spring.cloud.discovery.client.simple.instances.auth-service[0].uri=http://localhost:" + authPort);
+    }
+
+    URI gatewayUri() {
+        return URI.create("http://localhost:" + port(gateway));
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    @Override
+    public void close() {
+        gateway.close();
+        authService.close();
+    }
+}
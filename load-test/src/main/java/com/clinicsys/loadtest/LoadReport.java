@@ -0,0 +1,102 @@
+package com.clinicsys.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-stage, per-route results: a console table, one HdrHistogram percentile distribution
+ * file per route and stage ({@code .hgrm}, plottable with HdrHistogram's plotter), and a CSV.
+ * <p>
+ * A stage counts as saturated when achieved throughput falls below 95% of the actual arrival
+ * rate, more than 1% of requests fail or are dropped, or overall p99 exceeds {@code --slo-p99};
+ * the first such stage is the saturation point.
+ */
+final class LoadReport {
+
+    private static final double THROUGHPUT_FLOOR = 0.95;
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    private final Path directory;
+    private final double sloP99Millis;
+    private final List<String> csv = new ArrayList<>();
+    private Double saturatedAt;
+
+    LoadReport(Path directory, double sloP99Millis) throws IOException {
+        this.directory = directory;
+        this.sloP99Millis = sloP99Millis;
+        Files.createDirectories(directory);
+        csv.add("offered_rps,route,scheduled,succeeded,failed,dropped,throughput_rps,error_rate,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+    }
+
+    void stage(OpenModelDriver.StageResult result, PrintStream out) throws IOException {
+        double rate = result.rate();
+        double seconds = result.elapsed();
+        long scheduled = 0;
+        long completed = 0;
+        long errors = 0;
+        Histogram overall = new Histogram(3);
+        out.printf(Locale.ROOT, "%nStage: %.0f req/s offered for %.0fs%n", rate, result.seconds());
+        out.printf(Locale.ROOT, "%-26s %9s %11s %8s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "throughput", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        for (var entry : result.routes().entrySet()) {
+            Operation operation = entry.getKey();
+            RouteStats.Snapshot route = entry.getValue();
+            double throughput = route.succeeded() / seconds;
+            out.printf(Locale.ROOT, "%-26s %9d %9.1f/s %7.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    operation.route(), route.scheduled(), throughput, route.errorRate() * 100,
+                    route.percentileMillis(50), route.percentileMillis(90), route.percentileMillis(99),
+                    route.percentileMillis(99.9), route.latency().getMaxValue() / 1_000.0);
+            csv.add(String.format(Locale.ROOT, "%.0f,%s,%d,%d,%d,%d,%.2f,%.4f,%.2f,%.2f,%.2f,%.2f,%.2f",
+                    rate, operation.name().toLowerCase(Locale.ROOT), route.scheduled(), route.succeeded(), route.failed(),
+                    route.dropped(), throughput, route.errorRate(), route.percentileMillis(50), route.percentileMillis(90),
+                    route.percentileMillis(99), route.percentileMillis(99.9), route.latency().getMaxValue() / 1_000.0));
+
+            Path histogram = directory.resolve(String.format(Locale.ROOT, "%.0f-rps-%s.hgrm", rate,
+                    operation.name().toLowerCase(Locale.ROOT)));
+            try (PrintStream file = new PrintStream(Files.newOutputStream(histogram))) {
+                // Recorded in microseconds; scale so the file reads in milliseconds
+                route.latency().outputPercentileDistribution(file, 1_000.0);
+            }
+
+            scheduled += route.scheduled();
+            completed += route.succeeded();
+            errors += route.failed() + route.dropped();
+            overall.add(route.latency());
+        }
+
+        // Poisson arrivals scatter around the nominal rate, so compare against what actually arrived
+        double arrivalRate = scheduled / result.seconds();
+        double achieved = completed / seconds;
+        double errorRate = scheduled == 0 ? 0 : (double) errors / scheduled;
+        double p99 = overall.getTotalCount() == 0 ? 0 : overall.getValueAtPercentile(99) / 1_000.0;
+        boolean saturated = achieved < arrivalRate * THROUGHPUT_FLOOR || errorRate > MAX_ERROR_RATE || p99 > sloP99Millis;
+        out.printf(Locale.ROOT, "Total: %.1f req/s achieved of %.1f arrived, %.2f%% errors, p99 %.1f ms%s%n",
+                achieved, arrivalRate, errorRate * 100, p99, saturated ? "  <-- SATURATED" : "");
+        if (saturated && saturatedAt == null) {
+            saturatedAt = rate;
+        }
+    }
+
+    void finish(PrintStream out) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("summary.csv"))) {
+            for (String line : csv) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+        out.println();
+        out.println(saturatedAt == null
+                ? "No stage saturated; raise --rates to find the limit."
+                : String.format(Locale.ROOT, "Saturation point: %.0f req/s offered.", saturatedAt));
+        out.println("Histograms and summary.csv written to " + directory.toAbsolutePath());
+    }
+}
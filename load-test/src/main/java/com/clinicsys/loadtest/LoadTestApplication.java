@@ -0,0 +1,76 @@
+package com.clinicsys.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Load generator for the register/login/refresh/validate flows through api-gateway.
+ * <p>
+ * Runs a warm-up and then one stage per offered rate, reporting throughput, error rate and
+ * latency percentiles per route so the rate at which each tier saturates can be read off.
+ * See {@link LoadTestOptions#USAGE} for options.
+ */
+public final class LoadTestApplication {
+
+    private LoadTestApplication() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        EmbeddedStack stack = null;
+        try {
+            URI target;
+            if (options.target() != null) {
+                target = URI.create(options.target());
+            } else {
+                System.out.println("Booting auth-service (H2) and api-gateway in-process...");
+                stack = new EmbeddedStack(options.bcryptStrength());
+                target = stack.gatewayUri();
+            }
+            run(options, target);
+        } finally {
+            if (stack != null) {
+                stack.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadTestOptions options, URI target) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        AuthScenario scenario = new AuthScenario(client, target, options.timeout());
+
+        System.out.printf("Target %s, registering %d accounts...%n", target, options.users());
+        scenario.seed(options.users());
+        System.out.printf("%d accounts ready%n", scenario.accounts());
+
+        OpenModelDriver driver = new OpenModelDriver(scenario, options);
+        if (!options.warmup().isZero()) {
+            System.out.printf("Warming up for %ds at %.0f req/s%n", options.warmup().toSeconds(), options.rates().get(0));
+            driver.run(options.rates().get(0), options.warmup());
+        }
+
+        Path reportDir = options.reportDir().resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        LoadReport report = new LoadReport(reportDir, options.sloP99().toMillis());
+        for (double rate : options.rates()) {
+            report.stage(driver.run(rate, options.stageDuration()), System.out);
+        }
+        report.finish(System.out);
+    }
+}
@@ -0,0 +1,92 @@
+package com.clinicsys.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, all given as {@code --name=value}.
+ *
+ * @param target        gateway base URL; when null, auth-service and api-gateway are booted in-process
+ * @param rates         total offered arrival rates (requests per second), one stage each, in order
+ * @param stageDuration how long each stage offers its rate
+ * @param warmup        unreported warm-up at the first rate
+ * @param mix           relative weight of each operation
+ * @param users         accounts registered up front for login/refresh/validate
+ * @param maxInFlight   outstanding requests above which new arrivals are dropped (and counted)
+ * @param poisson       exponential inter-arrival times (default) instead of a fixed interval
+ * @param timeout       per-request timeout
+ * @param sloP99        overall p99 above which a stage counts as saturated
+ * @param bcryptStrength bcrypt cost for the in-process auth-service
+ * @param reportDir     where histograms and the CSV summary are written
+ */
+record LoadTestOptions(
+        String target,
+        List<Double> rates,
+        Duration stageDuration,
+        Duration warmup,
+        Map<Operation, Integer> mix,
+        int users,
+        int maxInFlight,
+        boolean poisson,
+        Duration timeout,
+        Duration sloP99,
+        int bcryptStrength,
+        Path reportDir) {
+
+    static final String USAGE = """
+            Usage: java -jar load-test.jar [options]
+              --target=http://host:8080     run against a running gateway instead of booting one
+              --rates=25,50,100,200         offered requests/second per stage
+              --stage-duration=30           seconds per stage
+              --warmup=10                   seconds of unreported warm-up
+              --mix=register:5,login:15,refresh:10,validate:70
+              --users=100                   accounts registered before the first stage
+              --max-in-flight=1000          drop (and count) arrivals beyond this many outstanding requests
+              --arrivals=poisson|uniform
+              --timeout=10                  seconds per request
+              --slo-p99=500                 milliseconds; a stage whose p99 exceeds it counts as saturated
+              --bcrypt-strength=10          in-process auth-service only
+              --report-dir=load-test/results
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Unrecognised argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+
+        List<Double> rates = new ArrayList<>();
+        for (String rate : values.getOrDefault("rates", "25,50,100,200").split(",")) {
+            rates.add(Double.parseDouble(rate.trim()));
+        }
+
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : values.getOrDefault("mix", "register:5,login:15,refresh:10,validate:70").split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+
+        return new LoadTestOptions(
+                values.get("target"),
+                List.copyOf(rates),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("stage-duration", "30"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                mix,
+                Integer.parseInt(values.getOrDefault("users", "100")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                !"uniform".equals(values.getOrDefault("arrivals", "poisson")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("timeout", "10"))),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("slo-p99", "500"))),
+                Integer.parseInt(values.getOrDefault("bcrypt-strength", "10")),
+                Path.of(values.getOrDefault("report-dir", "load-test/results")));
+    }
+}
@@ -0,0 +1,104 @@
+package com.clinicsys.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests are started on an arrival schedule that does not wait for earlier
+ * responses, like independent clients would. A closed loop (N threads, send, wait, repeat)
+ * slows down with the server and hides exactly the queueing this test is meant to find.
+ */
+final class OpenModelDriver {
+
+    private final AuthScenario scenario;
+    private final Map<Operation, Integer> mix;
+    private final int totalWeight;
+    private final int maxInFlight;
+    private final boolean poisson;
+    private final Duration drainTimeout;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    OpenModelDriver(AuthScenario scenario, LoadTestOptions options) {
+        this.scenario = scenario;
+        this.mix = options.mix();
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.maxInFlight = options.maxInFlight();
+        this.poisson = options.poisson();
+        this.drainTimeout = options.timeout().plusSeconds(1);
+    }
+
+    /** Offers {@code rate} requests/second for {@code duration} and returns per-operation results. */
+    StageResult run(double rate, Duration duration) {
+        Map<Operation, RouteStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : mix.keySet()) {
+            stats.put(operation, new RouteStats());
+        }
+
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double intended = start;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (intended < end) {
+            long wait = (long) intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long intendedStart = (long) intended;
+            intended += poisson ? -Math.log(1 - random.nextDouble()) * meanIntervalNanos : meanIntervalNanos;
+
+            Operation operation = pick(random.nextInt(totalWeight));
+            RouteStats route = stats.get(operation);
+            route.scheduled();
+            if (inFlight.get() >= maxInFlight) {
+                route.dropped();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            scenario.execute(operation).whenComplete((success, error) -> {
+                long now = System.nanoTime();
+                route.completed(now - intendedStart, error == null && Boolean.TRUE.equals(success));
+                lastCompletion.accumulateAndGet(now, Math::max);
+                inFlight.decrementAndGet();
+            });
+        }
+
+        // Let the stage's stragglers finish so they are not attributed to the next stage
+        long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        Map<Operation, RouteStats.Snapshot> snapshots = new EnumMap<>(Operation.class);
+        stats.forEach((operation, route) -> snapshots.put(operation, route.snapshot()));
+        // A backlog still draining after the schedule ended stretches the window, which lowers throughput
+        long elapsed = Math.max(end, lastCompletion.get()) - start;
+        return new StageResult(rate, duration.toNanos() / 1e9, elapsed / 1e9, snapshots);
+    }
+
+    /**
+     * @param rate     nominal offered rate
+     * @param seconds  length of the arrival schedule
+     * @param elapsed  seconds from the first arrival to the last completion
+     */
+    record StageResult(double rate, double seconds, double elapsed, Map<Operation, RouteStats.Snapshot> routes) {
+    }
+
+    private Operation pick(int ticket) {
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+}
@@ -0,0 +1,21 @@
+package com.clinicsys.loadtest;
+
+/**
+ * The auth flows the generator drives, each reported as its own route.
+ */
+enum Operation {
+    REGISTER("POST /api/auth/register"),
+    LOGIN("POST /api/auth/login"),
+    REFRESH("POST /api/auth/refresh"),
+    VALIDATE("GET /api/auth/validate");
+
+    private final String route;
+
+    Operation(String route) {
+        this.route = route;
+    }
+
+    String route() {
+        return route;
+    }
+}
@@ -0,0 +1,57 @@
+package com.clinicsys.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counters and a latency histogram for one operation in one stage. Latency is
+ * recorded in microseconds from the <em>intended</em> send time, so time spent queued
+ * behind a saturated server is counted instead of silently omitted.
+ */
+final class RouteStats {
+
+    private final Recorder latency = new Recorder(3);
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    void scheduled() {
+        scheduled.increment();
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void completed(long latencyNanos, boolean success) {
+        latency.recordValue(Math.max(1, latencyNanos / 1_000));
+        if (success) {
+            succeeded.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(scheduled.sum(), succeeded.sum(), failed.sum(), dropped.sum(), latency.getIntervalHistogram());
+    }
+
+    record Snapshot(long scheduled, long succeeded, long failed, long dropped, Histogram latency) {
+
+        long completed() {
+            return succeeded + failed;
+        }
+
+        /** Failed plus dropped, as a fraction of everything offered. */
+        double errorRate() {
+            return scheduled == 0 ? 0 : (double) (failed + dropped) / scheduled;
+        }
+
+        double percentileMillis(double percentile) {
+            return latency.getTotalCount() == 0 ? 0 : latency.getValueAtPercentile(percentile) / 1_000.0;
+        }
+    }
+}
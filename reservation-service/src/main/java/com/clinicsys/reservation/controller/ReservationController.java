@@ -0,0 +1,174 @@
+package com.clinicsys.reservation.controller;
+
+import com.clinicsys.common.dto.ApiResponse;
+import com.clinicsys.common.exception.BadRequestException;
+import com.clinicsys.common.exception.ResourceNotFoundException;
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import com.clinicsys.common.exception.UnauthorizedException;
+import com.clinicsys.reservation.dto.BlockRequest;
+import com.clinicsys.reservation.dto.BlockResult;
+import com.clinicsys.reservation.dto.BookingRequest;
+import com.clinicsys.reservation.dto.DayAvailability;
+import com.clinicsys.reservation.exception.ForbiddenException;
+import com.clinicsys.reservation.exception.SlotUnavailableException;
+import com.clinicsys.reservation.model.Reservation;
+import com.clinicsys.reservation.service.ReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Callers are identified by the {@code X-User-Id} and {@code X-User-Role} headers the gateway sets
+ * from a verified token. Patients book, read and cancel only their own reservations; staff and
+ * admins may act for any patient and are the only ones who can block or unblock slots.
+ * Availability is open to every caller.
+ */
+@RestController
+@RequestMapping("/api/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+    
+    static final String USER_ID_HEADER = "X-User-Id";
+    static final String USER_ROLE_HEADER = "X-User-Role";
+    
+    private final ReservationService reservationService;
+    
+    /**
+     * Books for the caller. Staff and admins may book for another patient by naming them in
+     * {@code patientId}; for anyone else that field is ignored.
+     */
+    @PostMapping
+    public ResponseEntity<ApiResponse<Reservation>> book(
+            @RequestHeader(value = USER_ID_HEADER, required = false) Long userId,
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @Valid @RequestBody BookingRequest request) {
+        if (!isStaff(role) || request.getPatientId() == null) {
+            request.setPatientId(requireUser(userId));
+        }
+        Reservation reservation = reservationService.book(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Reservation confirmed", reservation));
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<Reservation>> getReservation(
+            @RequestHeader(value = USER_ID_HEADER, required = false) Long userId,
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @PathVariable long id) {
+        Reservation reservation = reservationService.getReservation(id);
+        checkOwnerOrStaff(reservation, userId, role);
+        return ResponseEntity.ok(ApiResponse.success(reservation));
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ApiResponse<Object>> cancel(
+            @RequestHeader(value = USER_ID_HEADER, required = false) Long userId,
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @PathVariable long id) {
+        checkOwnerOrStaff(reservationService.getReservation(id), userId, role);
+        reservationService.cancel(id);
+        return ResponseEntity.ok(ApiResponse.success("Reservation cancelled", null));
+    }
+    
+    @GetMapping("/availability")
+    public ResponseEntity<ApiResponse<DayAvailability>> availability(
+            @RequestParam long clinicId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(ApiResponse.success(reservationService.availability(clinicId, date)));
+    }
+    
+    /**
+     * Emergency closure of a clinic's slots; the response lists the reservations that need to be moved.
+     */
+    @PostMapping("/blocks")
+    public ResponseEntity<ApiResponse<BlockResult>> block(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @Valid @RequestBody BlockRequest request) {
+        requireStaff(role, "Blocking slots");
+        BlockResult result = reservationService.block(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Slots blocked", result));
+    }
+    
+    @DeleteMapping("/blocks/{id}")
+    public ResponseEntity<ApiResponse<Object>> unblock(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @PathVariable long id) {
+        requireStaff(role, "Removing a block");
+        reservationService.unblock(id);
+        return ResponseEntity.ok(ApiResponse.success("Block removed", null));
+    }
+    
+    private static boolean isStaff(String role) {
+        return "ADMIN".equals(role) || "STAFF".equals(role);
+    }
+    
+    private static long requireUser(Long userId) {
+        if (userId == null) {
+            throw new UnauthorizedException("Caller is not identified");
+        }
+        return userId;
+    }
+    
+    private static void requireStaff(String role, String action) {
+        if (!isStaff(role)) {
+            throw new ForbiddenException(action + " requires the ADMIN or STAFF role");
+        }
+    }
+    
+    private static void checkOwnerOrStaff(Reservation reservation, Long userId, String role) {
+        if (!isStaff(role) && reservation.patientId() != requireUser(userId)) {
+            throw new ForbiddenException("Reservation belongs to another patient");
+        }
+    }
+    
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        return ResponseEntity.badRequest().body(ApiResponse.error("Validation failed", errors));
+    }
+    
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiResponse<Object>> handleBadRequest(BadRequestException ex) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ApiResponse<Object>> handleNotFound(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleUnauthorized(UnauthorizedException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<ApiResponse<Object>> handleForbidden(ForbiddenException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(SlotUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleSlotUnavailable(SlotUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+}
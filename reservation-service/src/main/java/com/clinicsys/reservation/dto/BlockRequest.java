@@ -0,0 +1,35 @@
+package com.clinicsys.reservation.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockRequest {
+    
+    @NotNull(message = "Clinic is required")
+    private Long clinicId;
+    
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+    
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 1, message = "Duration must be positive")
+    private Integer durationMinutes;
+    
+    @NotBlank(message = "Reason is required")
+    @Size(max = 500, message = "Reason must be at most 500 characters")
+    private String reason;
+}
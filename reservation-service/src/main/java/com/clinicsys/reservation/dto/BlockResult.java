@@ -0,0 +1,12 @@
+package com.clinicsys.reservation.dto;
+
+import com.clinicsys.reservation.model.Reservation;
+import com.clinicsys.reservation.model.SlotBlock;
+
+import java.util.List;
+
+/**
+ * A new emergency block and the existing reservations inside it, which still need to be moved.
+ */
+public record BlockResult(SlotBlock block, List<Reservation> affectedReservations) {
+}
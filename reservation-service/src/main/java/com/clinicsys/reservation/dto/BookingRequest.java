@@ -0,0 +1,38 @@
+package com.clinicsys.reservation.dto;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingRequest {
+    
+    @NotNull(message = "Clinic is required")
+    private Long clinicId;
+    
+    // Taken from the caller's identity unless staff book for someone else
+    private Long patientId;
+    
+    @NotNull(message = "Date is required")
+    @FutureOrPresent(message = "Date must not be in the past")
+    private LocalDate date;
+    
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+    
+    @NotNull(message = "Duration is required")
+    @Min(value = 1, message = "Duration must be positive")
+    private Integer durationMinutes;
+    
+    // Optional; any free lane is taken when absent
+    @Min(value = 0, message = "Lane must not be negative")
+    private Integer lane;
+}
@@ -0,0 +1,19 @@
+package com.clinicsys.reservation.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Bookable slots of one clinic on one day; slots without a free lane are left out.
+ */
+public record DayAvailability(
+        long clinicId,
+        LocalDate date,
+        int slotMinutes,
+        int lanes,
+        List<Slot> slots) {
+    
+    public record Slot(LocalTime startTime, int freeLanes) {
+    }
+}
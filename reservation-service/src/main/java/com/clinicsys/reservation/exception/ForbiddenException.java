@@ -0,0 +1,11 @@
+package com.clinicsys.reservation.exception;
+
+/**
+ * The caller is authenticated but not allowed to touch the reservation or block; reported as {@code 403 Forbidden}.
+ */
+public class ForbiddenException extends RuntimeException {
+    
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
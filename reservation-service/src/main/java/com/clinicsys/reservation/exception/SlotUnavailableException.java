@@ -0,0 +1,11 @@
+package com.clinicsys.reservation.exception;
+
+/**
+ * The requested slots are already taken or blocked; reported as {@code 409 Conflict}.
+ */
+public class SlotUnavailableException extends RuntimeException {
+    
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
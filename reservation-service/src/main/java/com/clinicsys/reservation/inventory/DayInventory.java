@@ -0,0 +1,162 @@
+package com.clinicsys.reservation.inventory;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Slot occupancy of one clinic on one day: a bitset per lane (a treatment room or device) plus one
+ * bitset of emergency-blocked slots shared by all lanes. Bit {@code i} stands for slot {@code i}
+ * of the day grid, so a 15-minute grid fits a lane in two {@code long}s.
+ * <p>
+ * Reserving a range sets its bits with compare-and-set, word by word in ascending order, and undoes
+ * the words already taken if a later word conflicts. Concurrent attempts on the same window never
+ * wait on each other: of any set of overlapping attempts one wins and the others fail on their
+ * first conflicting word. A loser can also fail on bits that a competitor is about to roll back;
+ * that only happens to ranges that cross a word boundary and is reported as a normal conflict.
+ * <p>
+ * Blocked bits are only read on the booking path. Writers ({@link #block}, {@link #resetBlocked})
+ * are expected to be serialized by the caller.
+ */
+public final class DayInventory {
+
+    private final int lanes;
+    private final int slots;
+    private final int words;
+    private final AtomicLongArray booked;
+    private final AtomicLongArray blocked;
+
+    public DayInventory(int lanes, int slots) {
+        this.lanes = lanes;
+        this.slots = slots;
+        this.words = (slots + 63) >>> 6;
+        this.booked = new AtomicLongArray(lanes * words);
+        this.blocked = new AtomicLongArray(words);
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    public int slots() {
+        return slots;
+    }
+
+    /**
+     * Reserves the range on the first lane where it is entirely free and not blocked.
+     *
+     * @return the lane, or {@code -1} if no lane has the range free
+     */
+    public int reserveAny(SlotRange range) {
+        if (isBlocked(range)) {
+            return -1;
+        }
+        for (int lane = 0; lane < lanes; lane++) {
+            if (tryReserve(lane, range)) {
+                return lane;
+            }
+        }
+        return -1;
+    }
+
+    /** Reserves the range on one lane if it is entirely free and not blocked. */
+    public boolean reserve(int lane, SlotRange range) {
+        return !isBlocked(range) && tryReserve(lane, range);
+    }
+
+    public void release(int lane, SlotRange range) {
+        int base = lane * words;
+        for (int word = range.start() >>> 6; word <= (range.end() - 1) >>> 6; word++) {
+            long mask = mask(word, range);
+            booked.getAndAccumulate(base + word, mask, (current, bits) -> current & ~bits);
+        }
+    }
+
+    /** Marks the range as taken without checking it, for journal replay. */
+    public void restore(int lane, SlotRange range) {
+        int base = lane * words;
+        for (int word = range.start() >>> 6; word <= (range.end() - 1) >>> 6; word++) {
+            booked.getAndAccumulate(base + word, mask(word, range), (current, bits) -> current | bits);
+        }
+    }
+
+    public boolean isBlocked(SlotRange range) {
+        for (int word = range.start() >>> 6; word <= (range.end() - 1) >>> 6; word++) {
+            if ((blocked.get(word) & mask(word, range)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void block(SlotRange range) {
+        for (int word = range.start() >>> 6; word <= (range.end() - 1) >>> 6; word++) {
+            blocked.getAndAccumulate(word, mask(word, range), (current, bits) -> current | bits);
+        }
+    }
+
+    /** Replaces the blocked bits with the union of the given ranges, one word at a time. */
+    public void resetBlocked(List<SlotRange> ranges) {
+        long[] union = new long[words];
+        for (SlotRange range : ranges) {
+            for (int word = range.start() >>> 6; word <= (range.end() - 1) >>> 6; word++) {
+                union[word] |= mask(word, range);
+            }
+        }
+        for (int word = 0; word < words; word++) {
+            blocked.set(word, union[word]);
+        }
+    }
+
+    /** Number of lanes free at each slot of the day; blocked slots count as having none. */
+    public int[] freeLanes() {
+        int[] free = new int[slots];
+        for (int word = 0; word < words; word++) {
+            long blockedWord = blocked.get(word);
+            int from = word << 6;
+            int to = Math.min(slots, from + 64);
+            for (int lane = 0; lane < lanes; lane++) {
+                long taken = booked.get(lane * words + word) | blockedWord;
+                for (int slot = from; slot < to; slot++) {
+                    if ((taken & (1L << (slot - from))) == 0) {
+                        free[slot]++;
+                    }
+                }
+            }
+        }
+        return free;
+    }
+
+    private boolean tryReserve(int lane, SlotRange range) {
+        int base = lane * words;
+        int first = range.start() >>> 6;
+        int last = (range.end() - 1) >>> 6;
+        for (int word = first; word <= last; word++) {
+            long mask = mask(word, range);
+            long current;
+            do {
+                current = booked.get(base + word);
+                if ((current & mask) != 0) {
+                    rollback(base, first, word, range);
+                    return false;
+                }
+            } while (!booked.compareAndSet(base + word, current, current | mask));
+        }
+        return true;
+    }
+
+    // Clears the words taken so far, [first, failed)
+    private void rollback(int base, int first, int failed, SlotRange range) {
+        for (int word = first; word < failed; word++) {
+            long mask = mask(word, range);
+            booked.getAndAccumulate(base + word, mask, (current, bits) -> current & ~bits);
+        }
+    }
+
+    // Bits of the range that fall into the given 64-slot word
+    private static long mask(int word, SlotRange range) {
+        int from = Math.max(range.start(), word << 6) - (word << 6);
+        int to = Math.min(range.end(), (word + 1) << 6) - (word << 6);
+        long upper = to == 64 ? -1L : (1L << to) - 1;
+        return upper & (-1L << from);
+    }
+}
@@ -0,0 +1,91 @@
+package com.clinicsys.reservation.inventory;
+
+import com.clinicsys.common.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The in-memory slot grid of every clinic and day that has been touched. A day is divided into
+ * {@code reservation.inventory.slot-minutes} slots, and each clinic has
+ * {@code reservation.inventory.lanes} bookable lanes per slot.
+ * <p>
+ * The inventory lives in this process only, and its durable state is the reservation journal, so
+ * exactly one reservation-service instance may run. The gateway balances
+ * {@code lb://reservation-service} across every registered instance regardless of clinic; a
+ * second instance would check bookings against its own inventory and double-book slots. The
+ * journal lock stops a second instance on the same journal from starting, but instances with
+ * separate journals cannot see each other.
+ */
+@Component
+public class SlotInventory {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final int lanes;
+    private final Map<DayKey, DayInventory> days = new ConcurrentHashMap<>();
+
+    private record DayKey(long clinicId, long epochDay) {
+    }
+
+    public SlotInventory(
+            @Value("${reservation.inventory.slot-minutes:15}") int slotMinutes,
+            @Value("${reservation.inventory.lanes:4}") int lanes) {
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalArgumentException("reservation.inventory.slot-minutes must divide a day, got " + slotMinutes);
+        }
+        this.slotMinutes = slotMinutes;
+        this.slotsPerDay = MINUTES_PER_DAY / slotMinutes;
+        this.lanes = lanes;
+    }
+
+    public int slotMinutes() {
+        return slotMinutes;
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    public DayInventory day(long clinicId, LocalDate date) {
+        return days.computeIfAbsent(new DayKey(clinicId, date.toEpochDay()), key -> new DayInventory(lanes, slotsPerDay));
+    }
+
+    /** The day's inventory, or {@code null} if nothing was ever booked or blocked on it. */
+    public DayInventory existing(long clinicId, LocalDate date) {
+        return days.get(new DayKey(clinicId, date.toEpochDay()));
+    }
+
+    /** Converts a start time and duration to slots; both must be aligned to the grid and stay within the day. */
+    public SlotRange range(LocalTime startTime, int durationMinutes) {
+        int startMinute = startTime.getHour() * 60 + startTime.getMinute();
+        if (startTime.getSecond() != 0 || startTime.getNano() != 0 || startMinute % slotMinutes != 0) {
+            throw new BadRequestException("Start time must be on the " + slotMinutes + "-minute slot grid");
+        }
+        if (durationMinutes <= 0 || durationMinutes % slotMinutes != 0) {
+            throw new BadRequestException("Duration must be a positive multiple of " + slotMinutes + " minutes");
+        }
+        if (startMinute + durationMinutes > MINUTES_PER_DAY) {
+            throw new BadRequestException("Reservation must end on the day it starts");
+        }
+        return new SlotRange(startMinute / slotMinutes, durationMinutes / slotMinutes);
+    }
+
+    public LocalTime time(int slot) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) slot * slotMinutes);
+    }
+
+    /** Drops the grids of days before the given date. */
+    public int evictBefore(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        int before = days.size();
+        days.keySet().removeIf(key -> key.epochDay() < epochDay);
+        return before - days.size();
+    }
+}
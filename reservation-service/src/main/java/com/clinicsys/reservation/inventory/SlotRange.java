@@ -0,0 +1,15 @@
+package com.clinicsys.reservation.inventory;
+
+/**
+ * A run of consecutive slots on the day grid: {@code length} slots starting at slot {@code start}.
+ */
+public record SlotRange(int start, int length) {
+
+    public int end() {
+        return start + length;
+    }
+
+    public boolean overlaps(SlotRange other) {
+        return start < other.end() && other.start() < end();
+    }
+}
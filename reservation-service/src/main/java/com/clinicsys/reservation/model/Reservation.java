@@ -0,0 +1,20 @@
+package com.clinicsys.reservation.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A confirmed booking of one lane of a clinic. Times are kept as wall-clock times rather than slot
+ * numbers so the journal stays readable after a change of the slot grid.
+ */
+public record Reservation(
+        long id,
+        long clinicId,
+        long patientId,
+        LocalDate date,
+        LocalTime startTime,
+        int durationMinutes,
+        int lane,
+        Instant createdAt) {
+}
@@ -0,0 +1,19 @@
+package com.clinicsys.reservation.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * An emergency closure of every lane of a clinic for part of a day. New bookings in the window are
+ * refused; existing ones are kept and reported so they can be rescheduled.
+ */
+public record SlotBlock(
+        long id,
+        long clinicId,
+        LocalDate date,
+        LocalTime startTime,
+        int durationMinutes,
+        String reason,
+        Instant createdAt) {
+}
@@ -0,0 +1,22 @@
+package com.clinicsys.reservation.repository;
+
+import com.clinicsys.reservation.model.Reservation;
+import com.clinicsys.reservation.model.SlotBlock;
+
+/**
+ * One state change recorded in the {@link ReservationJournal}.
+ */
+public sealed interface JournalEntry {
+
+    record Booked(Reservation reservation) implements JournalEntry {
+    }
+
+    record Cancelled(long reservationId) implements JournalEntry {
+    }
+
+    record Blocked(SlotBlock block) implements JournalEntry {
+    }
+
+    record Unblocked(long blockId) implements JournalEntry {
+    }
+}
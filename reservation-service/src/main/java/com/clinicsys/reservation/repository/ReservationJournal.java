@@ -0,0 +1,427 @@
+package com.clinicsys.reservation.repository;
+
+import com.clinicsys.reservation.model.Reservation;
+import com.clinicsys.reservation.model.SlotBlock;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of reservation state changes, written behind the in-memory inventory.
+ * <p>
+ * Callers encode their entry and enqueue it; a single writer thread drains the queue in batches of
+ * up to {@code reservation.journal.batch-size}, waiting at most {@code reservation.journal.linger}
+ * for a batch to fill, writes the batch with one call and forces it to disk once (group commit).
+ * Each record is framed as {@code length, CRC32, payload}. On start the journal is replayed up to
+ * the first incomplete or corrupt record, which is what a crash in the middle of a write leaves,
+ * and the file is truncated there. {@link #rewrite} replaces the file with only the live entries,
+ * through a temporary file that is moved over the journal.
+ * <p>
+ * Lifecycle: {@link #replay}, optionally {@link #rewrite}, then {@link #start}; {@link #append}
+ * is only accepted after {@code start}.
+ * <p>
+ * {@code replay} takes an exclusive lock on a {@code .lock} file next to the journal and holds it
+ * until {@link #close}, so a second process pointed at the same journal fails to start instead of
+ * replaying and appending alongside the first.
+ */
+@Slf4j
+@Component
+public class ReservationJournal {
+
+    private static final int MAGIC = 0x43534A31; // "CSJ1"
+    private static final int HEADER_BYTES = 4;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private static final byte BOOKED = 1;
+    private static final byte CANCELLED = 2;
+    private static final byte BLOCKED = 3;
+    private static final byte UNBLOCKED = 4;
+
+    private final Path file;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final boolean fsync;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private FileChannel lockChannel;
+    private FileChannel channel;
+    private Thread writer;
+    private volatile boolean running;
+    // Set once a failed batch could not be cut back off the journal; nothing is written after it
+    private volatile IOException failure;
+
+    private record Pending(byte[] frame, CompletableFuture<Void> written) {
+    }
+
+    /** Outcome of a replay: records applied, and bytes dropped from a torn tail. */
+    public record ReplayResult(long records, long truncatedBytes) {
+    }
+
+    public ReservationJournal(
+            @Value("${reservation.journal.path:data/reservations.journal}") String path,
+            @Value("${reservation.journal.batch-size:256}") int batchSize,
+            @Value("${reservation.journal.linger:1}") long lingerMillis,
+            @Value("${reservation.journal.fsync:true}") boolean fsync) {
+        this.file = Paths.get(path).toAbsolutePath();
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.fsync = fsync;
+    }
+
+    /**
+     * Feeds every intact record to the consumer in write order and truncates whatever follows
+     * the last intact one. Creates the journal if it does not exist.
+     */
+    public synchronized ReplayResult replay(Consumer<JournalEntry> consumer) throws IOException {
+        Files.createDirectories(file.getParent());
+        lock();
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            writeHeader(file);
+            return new ReplayResult(0, 0);
+        }
+        long size = Files.size(file);
+        long valid = HEADER_BYTES;
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a reservation journal: " + file);
+            }
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        break;
+                    }
+                    payload = in.readNBytes(length);
+                    if (payload.length < length) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                consumer.accept(decode(payload));
+                valid += 8 + payload.length;
+                records++;
+            }
+        }
+        if (valid < size) {
+            log.warn("Reservation journal {} has a torn or corrupt tail; dropping {} bytes after offset {}", file, size - valid, valid);
+            try (FileChannel truncating = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncating.truncate(valid);
+                truncating.force(true);
+            }
+        }
+        return new ReplayResult(records, size - valid);
+    }
+
+    /** Replaces the journal with the given entries. Only allowed before {@link #start}. */
+    public synchronized void rewrite(List<JournalEntry> entries) throws IOException {
+        if (running) {
+            throw new IllegalStateException("Reservation journal is already started");
+        }
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+                new DataOutputStream(buffer).writeInt(MAGIC);
+                for (JournalEntry entry : entries) {
+                    buffer.write(frame(entry));
+                    if (buffer.size() >= 1024 * 1024) {
+                        writeFully(out, buffer.toByteArray());
+                        buffer.reset();
+                    }
+                }
+                writeFully(out, buffer.toByteArray());
+                out.force(true);
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        running = true;
+        writer = new Thread(this::drain, "reservation-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues an entry for the next batch. The future completes once the batch containing it has
+     * been written (and forced, if {@code reservation.journal.fsync} is on).
+     */
+    public CompletableFuture<Void> append(JournalEntry entry) {
+        if (!running) {
+            throw new IllegalStateException("Reservation journal is not open");
+        }
+        Pending pending = new Pending(frame(entry), new CompletableFuture<>());
+        queue.add(pending);
+        return pending.written();
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        synchronized (this) {
+            if (!running) {
+                unlock();
+                return;
+            }
+            running = false;
+        }
+        // The writer drains the queue before it exits
+        writer.join();
+        Pending leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.written().completeExceptionally(new IllegalStateException("Reservation journal closed"));
+        }
+        channel.close();
+        unlock();
+    }
+
+    private void lock() throws IOException {
+        if (lockChannel != null) {
+            return;
+        }
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        FileChannel opened = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = opened.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            opened.close();
+            throw new IllegalStateException("Reservation journal " + file + " is in use by another process; "
+                    + "only one reservation-service instance may run against it");
+        }
+        lockChannel = opened;
+    }
+
+    private synchronized void unlock() throws IOException {
+        if (lockChannel != null) {
+            // Closing the channel releases the lock
+            lockChannel.close();
+            lockChannel = null;
+        }
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize && lingerNanos > 0) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Reservation journal writer interrupted with {} entries queued", queue.size());
+                return;
+            }
+            write(batch, buffer);
+            batch.clear();
+            buffer.reset();
+        }
+    }
+
+    private void write(List<Pending> batch, ByteArrayOutputStream buffer) {
+        if (failure != null) {
+            for (Pending pending : batch) {
+                pending.written().completeExceptionally(failure);
+            }
+            return;
+        }
+        long start = -1;
+        try {
+            for (Pending pending : batch) {
+                buffer.write(pending.frame());
+            }
+            start = channel.position();
+            writeFully(channel, buffer.toByteArray());
+            if (fsync) {
+                channel.force(false);
+            }
+            for (Pending pending : batch) {
+                pending.written().complete(null);
+            }
+        } catch (IOException e) {
+            log.error("Could not write {} entries to reservation journal {}", batch.size(), file, e);
+            for (Pending pending : batch) {
+                pending.written().completeExceptionally(e);
+            }
+            discardFrom(start, e);
+        }
+    }
+
+    /**
+     * Cuts a failed batch off the end of the journal. A torn frame left there would end replay,
+     * dropping every later batch although those were acknowledged. If the journal cannot be cut
+     * back, it stops accepting entries instead.
+     */
+    private void discardFrom(long position, IOException cause) {
+        if (position >= 0) {
+            try {
+                channel.truncate(position);
+                channel.force(false);
+                return;
+            } catch (IOException e) {
+                log.error("Could not truncate reservation journal {} back to offset {}", file, position, e);
+            }
+        }
+        failure = cause;
+        running = false;
+        log.error("Reservation journal {} stopped; no further bookings will be confirmed until restart", file);
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void writeHeader(Path file) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).array());
+            out.force(true);
+        }
+    }
+
+    private static byte[] frame(JournalEntry entry) {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+            encode(entry, new DataOutputStream(buffer));
+            byte[] payload = buffer.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return ByteBuffer.allocate(8 + payload.length)
+                    .putInt(payload.length)
+                    .putInt((int) crc.getValue())
+                    .put(payload)
+                    .array();
+        } catch (IOException e) {
+            // In-memory streams do not fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void encode(JournalEntry entry, DataOutputStream out) throws IOException {
+        if (entry instanceof JournalEntry.Booked booked) {
+            Reservation reservation = booked.reservation();
+            out.writeByte(BOOKED);
+            out.writeLong(reservation.id());
+            out.writeLong(reservation.clinicId());
+            out.writeLong(reservation.patientId());
+            out.writeLong(reservation.date().toEpochDay());
+            out.writeInt(reservation.startTime().toSecondOfDay());
+            out.writeInt(reservation.durationMinutes());
+            out.writeShort(reservation.lane());
+            out.writeLong(reservation.createdAt().toEpochMilli());
+        } else if (entry instanceof JournalEntry.Cancelled cancelled) {
+            out.writeByte(CANCELLED);
+            out.writeLong(cancelled.reservationId());
+        } else if (entry instanceof JournalEntry.Blocked blocked) {
+            SlotBlock block = blocked.block();
+            out.writeByte(BLOCKED);
+            out.writeLong(block.id());
+            out.writeLong(block.clinicId());
+            out.writeLong(block.date().toEpochDay());
+            out.writeInt(block.startTime().toSecondOfDay());
+            out.writeInt(block.durationMinutes());
+            out.writeUTF(block.reason());
+            out.writeLong(block.createdAt().toEpochMilli());
+        } else if (entry instanceof JournalEntry.Unblocked unblocked) {
+            out.writeByte(UNBLOCKED);
+            out.writeLong(unblocked.blockId());
+        }
+    }
+
+    private static JournalEntry decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        return switch (type) {
+            case BOOKED -> new JournalEntry.Booked(new Reservation(
+                    in.readLong(), in.readLong(), in.readLong(),
+                    LocalDate.ofEpochDay(in.readLong()),
+                    LocalTime.ofSecondOfDay(in.readInt()),
+                    in.readInt(), in.readShort(),
+                    Instant.ofEpochMilli(in.readLong())));
+            case CANCELLED -> new JournalEntry.Cancelled(in.readLong());
+            case BLOCKED -> new JournalEntry.Blocked(new SlotBlock(
+                    in.readLong(), in.readLong(),
+                    LocalDate.ofEpochDay(in.readLong()),
+                    LocalTime.ofSecondOfDay(in.readInt()),
+                    in.readInt(), in.readUTF(),
+                    Instant.ofEpochMilli(in.readLong())));
+            case UNBLOCKED -> new JournalEntry.Unblocked(in.readLong());
+            default -> throw new IOException("Unknown reservation journal record type " + type);
+        };
+    }
+}
@@ -0,0 +1,359 @@
+package com.clinicsys.reservation.service;
+
+import com.clinicsys.common.exception.BadRequestException;
+import com.clinicsys.common.exception.ResourceNotFoundException;
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import com.clinicsys.reservation.dto.BlockRequest;
+import com.clinicsys.reservation.dto.BlockResult;
+import com.clinicsys.reservation.dto.BookingRequest;
+import com.clinicsys.reservation.dto.DayAvailability;
+import com.clinicsys.reservation.exception.SlotUnavailableException;
+import com.clinicsys.reservation.inventory.DayInventory;
+import com.clinicsys.reservation.inventory.SlotInventory;
+import com.clinicsys.reservation.inventory.SlotRange;
+import com.clinicsys.reservation.model.Reservation;
+import com.clinicsys.reservation.model.SlotBlock;
+import com.clinicsys.reservation.repository.JournalEntry;
+import com.clinicsys.reservation.repository.ReservationJournal;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking, cancellation and emergency blocking on top of the in-memory {@link SlotInventory}.
+ * <p>
+ * A booking is decided entirely in memory by compare-and-set on the day's bitsets, so a burst of
+ * requests for the same opening window costs no database round trip or row lock: the winners are
+ * then written to the {@link ReservationJournal} in batches. With
+ * {@code reservation.journal.wait-for-sync} on (the default) a booking is only confirmed once its
+ * batch is on disk and is rolled back if the write fails; with it off, confirmation is immediate
+ * and a crash can lose the last batch.
+ * <p>
+ * On startup the journal is replayed into memory, days before today are dropped, and the journal
+ * is compacted if most of its records no longer describe live state.
+ */
+@Slf4j
+@Service
+public class ReservationService {
+
+    private final SlotInventory inventory;
+    private final ReservationJournal journal;
+    private final boolean waitForSync;
+    private final long syncTimeout;
+
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private final Map<Long, SlotBlock> blocks = new ConcurrentHashMap<>();
+    // Bookings that hold their bits but have not yet checked them against the blocked bits
+    private final Set<Long> undecided = ConcurrentHashMap.newKeySet();
+    private final AtomicLong ids = new AtomicLong();
+
+    public ReservationService(
+            SlotInventory inventory,
+            ReservationJournal journal,
+            @Value("${reservation.journal.wait-for-sync:true}") boolean waitForSync,
+            @Value("${reservation.journal.sync-timeout:5000}") long syncTimeout) {
+        this.inventory = inventory;
+        this.journal = journal;
+        this.waitForSync = waitForSync;
+        this.syncTimeout = syncTimeout;
+    }
+
+    @PostConstruct
+    void recover() throws IOException {
+        long started = System.nanoTime();
+        AtomicLong maxId = new AtomicLong();
+        ReservationJournal.ReplayResult replay = journal.replay(entry -> {
+            maxId.accumulateAndGet(entityId(entry), Math::max);
+            try {
+                apply(entry);
+            } catch (BadRequestException e) {
+                // Written under a different slot grid; dropped by the next compaction
+                log.warn("Skipping journal entry {}: {}", entry, e.getMessage());
+            }
+        });
+        evictPastDays();
+        long live = reservations.size() + blocks.size();
+        if (replay.records() > 2 * live) {
+            journal.rewrite(liveEntries());
+        }
+        // Clock-based floor so ids are not reused when compaction dropped the highest ones
+        ids.set(Math.max(maxId.get(), System.currentTimeMillis() * 1000));
+        journal.start();
+        log.info("Recovered {} reservations and {} blocks from {} journal records in {} ms",
+                reservations.size(), blocks.size(), replay.records(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    public Reservation book(BookingRequest request) {
+        SlotRange range = inventory.range(request.getStartTime(), request.getDurationMinutes());
+        DayInventory day = inventory.day(request.getClinicId(), request.getDate());
+        Integer requestedLane = request.getLane();
+        if (requestedLane != null && requestedLane >= day.lanes()) {
+            throw new BadRequestException("Clinic has " + day.lanes() + " lanes");
+        }
+
+        long id = ids.incrementAndGet();
+        undecided.add(id);
+        int lane;
+        if (requestedLane != null) {
+            lane = day.reserve(requestedLane, range) ? requestedLane : -1;
+        } else {
+            lane = day.reserveAny(range);
+        }
+        if (lane < 0) {
+            undecided.remove(id);
+            throw new SlotUnavailableException(day.isBlocked(range)
+                    ? "Requested slot has been blocked"
+                    : "Requested slot is no longer available");
+        }
+
+        Reservation reservation = new Reservation(id, request.getClinicId(), request.getPatientId(), request.getDate(),
+                request.getStartTime(), request.getDurationMinutes(), lane, Instant.now());
+        reservations.put(id, reservation);
+        // Dekker-style handshake with block(): either this check sees the block, or the block's scan sees this booking
+        if (day.isBlocked(range)) {
+            reservations.remove(id);
+            day.release(lane, range);
+            undecided.remove(id);
+            throw new SlotUnavailableException("Requested slot has been blocked");
+        }
+        undecided.remove(id);
+
+        persist(new JournalEntry.Booked(reservation), () -> {
+            if (reservations.remove(id, reservation)) {
+                day.release(lane, range);
+            }
+        });
+        return reservation;
+    }
+
+    public Reservation getReservation(long id) {
+        Reservation reservation = reservations.get(id);
+        if (reservation == null) {
+            throw new ResourceNotFoundException("Reservation", "id", id);
+        }
+        return reservation;
+    }
+
+    public void cancel(long id) {
+        Reservation reservation = getReservation(id);
+        // Journaled before the slots are freed, so a booking that reuses them is always recorded after this
+        persist(new JournalEntry.Cancelled(id), () -> { });
+        if (reservations.remove(id, reservation)) {
+            DayInventory day = inventory.existing(reservation.clinicId(), reservation.date());
+            if (day != null) {
+                day.release(reservation.lane(), inventory.range(reservation.startTime(), reservation.durationMinutes()));
+            }
+        }
+    }
+
+    public DayAvailability availability(long clinicId, LocalDate date) {
+        DayInventory day = inventory.existing(clinicId, date);
+        int[] free = day != null ? day.freeLanes() : null;
+        int slotsPerDay = 24 * 60 / inventory.slotMinutes();
+        List<DayAvailability.Slot> slots = new ArrayList<>();
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            int freeLanes = free != null ? free[slot] : inventory.lanes();
+            if (freeLanes > 0) {
+                slots.add(new DayAvailability.Slot(inventory.time(slot), freeLanes));
+            }
+        }
+        return new DayAvailability(clinicId, date, inventory.slotMinutes(), inventory.lanes(), slots);
+    }
+
+    /**
+     * Closes every lane of a clinic for part of a day. Reservations already holding slots in the
+     * window are kept and returned, including bookings that were being decided while the block
+     * was applied.
+     */
+    public BlockResult block(BlockRequest request) {
+        SlotRange range = inventory.range(request.getStartTime(), request.getDurationMinutes());
+        DayInventory day = inventory.day(request.getClinicId(), request.getDate());
+        SlotBlock block = new SlotBlock(ids.incrementAndGet(), request.getClinicId(), request.getDate(),
+                request.getStartTime(), request.getDurationMinutes(), request.getReason(), Instant.now());
+        synchronized (day) {
+            blocks.put(block.id(), block);
+            day.block(range);
+        }
+
+        List<Reservation> affected = new ArrayList<>();
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.clinicId() != block.clinicId() || !reservation.date().equals(block.date())
+                    || !range.overlaps(inventory.range(reservation.startTime(), reservation.durationMinutes()))) {
+                continue;
+            }
+            // A booking between taking its bits and its blocked check either backs off or stays; wait for which
+            while (undecided.contains(reservation.id())) {
+                Thread.onSpinWait();
+            }
+            if (reservations.containsKey(reservation.id())) {
+                affected.add(reservation);
+            }
+        }
+        affected.sort(Comparator.comparing(Reservation::startTime).thenComparingInt(Reservation::lane));
+
+        persist(new JournalEntry.Blocked(block), () -> removeBlock(block));
+        log.info("Blocked clinic {} on {} from {} for {} min ({}); {} reservations affected", block.clinicId(),
+                block.date(), block.startTime(), block.durationMinutes(), block.reason(), affected.size());
+        return new BlockResult(block, affected);
+    }
+
+    public void unblock(long blockId) {
+        SlotBlock block = blocks.get(blockId);
+        if (block == null) {
+            throw new ResourceNotFoundException("Block", "id", blockId);
+        }
+        persist(new JournalEntry.Unblocked(blockId), () -> { });
+        removeBlock(block);
+    }
+
+    /** Drops reservations, blocks and slot grids of days before today; the journal sheds them at the next compaction. */
+    @Scheduled(cron = "${reservation.inventory.eviction-cron:0 5 0 * * *}")
+    public void evictPastDays() {
+        LocalDate today = LocalDate.now();
+        reservations.values().removeIf(reservation -> reservation.date().isBefore(today));
+        blocks.values().removeIf(block -> block.date().isBefore(today));
+        int days = inventory.evictBefore(today);
+        if (days > 0) {
+            log.debug("Evicted {} past clinic days from the slot inventory", days);
+        }
+    }
+
+    // Journals the entry; when waiting for the sync, a failed write undoes the in-memory change
+    private void persist(JournalEntry entry, Runnable undo) {
+        CompletableFuture<Void> written;
+        try {
+            written = journal.append(entry);
+        } catch (IllegalStateException e) {
+            undo.run();
+            throw new ServiceUnavailableException("Reservation journal is not available");
+        }
+        if (!waitForSync) {
+            return;
+        }
+        try {
+            written.get(syncTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            compensate(entry, undo);
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Reservation journal write failed for {}", entry, e);
+            compensate(entry, undo);
+        }
+    }
+
+    private void compensate(JournalEntry entry, Runnable undo) {
+        undo.run();
+        // The record may still reach the file; make sure a replay undoes it too
+        JournalEntry counter = counterEntry(entry);
+        if (counter != null) {
+            try {
+                journal.append(counter);
+            } catch (IllegalStateException ignored) {
+                // Journal closed; nothing more can be recorded
+            }
+        }
+        throw new ServiceUnavailableException("Reservation could not be recorded, please retry");
+    }
+
+    // Cancel and unblock change memory only after their record is written, so the live copy is re-recorded as is
+    private JournalEntry counterEntry(JournalEntry entry) {
+        if (entry instanceof JournalEntry.Booked booked) {
+            return new JournalEntry.Cancelled(booked.reservation().id());
+        } else if (entry instanceof JournalEntry.Blocked blocked) {
+            return new JournalEntry.Unblocked(blocked.block().id());
+        } else if (entry instanceof JournalEntry.Cancelled cancelled) {
+            Reservation reservation = reservations.get(cancelled.reservationId());
+            return reservation != null ? new JournalEntry.Booked(reservation) : null;
+        } else if (entry instanceof JournalEntry.Unblocked unblocked) {
+            SlotBlock block = blocks.get(unblocked.blockId());
+            return block != null ? new JournalEntry.Blocked(block) : null;
+        }
+        return null;
+    }
+
+    private void removeBlock(SlotBlock block) {
+        DayInventory day = inventory.existing(block.clinicId(), block.date());
+        if (day == null) {
+            blocks.remove(block.id());
+            return;
+        }
+        synchronized (day) {
+            blocks.remove(block.id());
+            List<SlotRange> remaining = new ArrayList<>();
+            for (SlotBlock other : blocks.values()) {
+                if (other.clinicId() == block.clinicId() && other.date().equals(block.date())) {
+                    remaining.add(inventory.range(other.startTime(), other.durationMinutes()));
+                }
+            }
+            day.resetBlocked(remaining);
+        }
+    }
+
+    private void apply(JournalEntry entry) {
+        if (entry instanceof JournalEntry.Booked booked) {
+            Reservation reservation = booked.reservation();
+            SlotRange range = inventory.range(reservation.startTime(), reservation.durationMinutes());
+            DayInventory day = inventory.day(reservation.clinicId(), reservation.date());
+            if (reservation.lane() >= day.lanes()) {
+                throw new BadRequestException("lane " + reservation.lane() + " no longer exists");
+            }
+            // Restored without checks: a booking that raced a block was kept, whatever the record order
+            day.restore(reservation.lane(), range);
+            reservations.put(reservation.id(), reservation);
+        } else if (entry instanceof JournalEntry.Cancelled cancelled) {
+            Reservation reservation = reservations.remove(cancelled.reservationId());
+            if (reservation != null) {
+                inventory.day(reservation.clinicId(), reservation.date())
+                        .release(reservation.lane(), inventory.range(reservation.startTime(), reservation.durationMinutes()));
+            }
+        } else if (entry instanceof JournalEntry.Blocked blocked) {
+            SlotBlock block = blocked.block();
+            SlotRange range = inventory.range(block.startTime(), block.durationMinutes());
+            blocks.put(block.id(), block);
+            inventory.day(block.clinicId(), block.date()).block(range);
+        } else if (entry instanceof JournalEntry.Unblocked unblocked) {
+            SlotBlock block = blocks.get(unblocked.blockId());
+            if (block != null) {
+                removeBlock(block);
+            }
+        }
+    }
+
+    private List<JournalEntry> liveEntries() {
+        List<JournalEntry> entries = new ArrayList<>(reservations.size() + blocks.size());
+        blocks.values().stream()
+                .sorted(Comparator.comparingLong(SlotBlock::id))
+                .forEach(block -> entries.add(new JournalEntry.Blocked(block)));
+        reservations.values().stream()
+                .sorted(Comparator.comparingLong(Reservation::id))
+                .forEach(reservation -> entries.add(new JournalEntry.Booked(reservation)));
+        return entries;
+    }
+
+    private static long entityId(JournalEntry entry) {
+        if (entry instanceof JournalEntry.Booked booked) {
+            return booked.reservation().id();
+        } else if (entry instanceof JournalEntry.Blocked blocked) {
+            return blocked.block().id();
+        }
+        return 0;
+    }
+}
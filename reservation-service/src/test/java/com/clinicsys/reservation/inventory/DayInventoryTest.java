@@ -0,0 +1,123 @@
+package com.clinicsys.reservation.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DayInventoryTest {
+
+    // A 15-minute grid: slots 0-63 in the first word, 64-95 in the second
+    private static final int SLOTS = 96;
+
+    @Test
+    void reservesAndReleasesRangesAcrossTheWordBoundary() {
+        DayInventory day = new DayInventory(1, SLOTS);
+        SlotRange crossing = new SlotRange(60, 8);
+
+        assertTrue(day.reserve(0, crossing));
+        assertFalse(day.reserve(0, new SlotRange(63, 1)));
+        assertFalse(day.reserve(0, new SlotRange(64, 1)));
+        assertTrue(day.reserve(0, new SlotRange(68, 4)));
+
+        day.release(0, crossing);
+        assertTrue(day.reserve(0, new SlotRange(56, 12)));
+    }
+
+    @Test
+    void failedReservationLeavesNoBitsBehind() {
+        DayInventory day = new DayInventory(1, SLOTS);
+        assertTrue(day.reserve(0, new SlotRange(66, 2)));
+
+        // Takes its bits in the first word, then conflicts in the second and must undo the first
+        assertFalse(day.reserve(0, new SlotRange(58, 10)));
+
+        assertArrayEquals(expectedFree(1, List.of(new SlotRange(66, 2))), day.freeLanes());
+    }
+
+    @Test
+    void blockedSlotsRefuseBookingsOnEveryLane() {
+        DayInventory day = new DayInventory(3, SLOTS);
+        day.block(new SlotRange(62, 4));
+
+        assertEquals(-1, day.reserveAny(new SlotRange(60, 3)));
+        assertEquals(-1, day.reserveAny(new SlotRange(65, 2)));
+        assertEquals(0, day.reserveAny(new SlotRange(66, 2)));
+
+        day.resetBlocked(List.of());
+        assertEquals(0, day.reserveAny(new SlotRange(60, 3)));
+    }
+
+    @Test
+    void concurrentOverlappingReservationsNeverShareASlot() throws Exception {
+        int lanes = 2;
+        int threads = 8;
+        Random random = new Random(42);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 300; round++) {
+                DayInventory day = new DayInventory(lanes, SLOTS);
+                List<SlotRange> ranges = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    // Every range starts in the first word and most end in the second
+                    ranges.add(new SlotRange(52 + random.nextInt(12), 2 + random.nextInt(14)));
+                }
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> lanesTaken = new ArrayList<>();
+                for (SlotRange range : ranges) {
+                    lanesTaken.add(executor.submit(() -> {
+                        start.await();
+                        return day.reserveAny(range);
+                    }));
+                }
+                start.countDown();
+
+                List<List<SlotRange>> won = new ArrayList<>();
+                for (int lane = 0; lane < lanes; lane++) {
+                    won.add(new ArrayList<>());
+                }
+                for (int i = 0; i < threads; i++) {
+                    int lane = lanesTaken.get(i).get();
+                    if (lane >= 0) {
+                        won.get(lane).add(ranges.get(i));
+                    }
+                }
+                for (List<SlotRange> laneRanges : won) {
+                    for (int a = 0; a < laneRanges.size(); a++) {
+                        for (int b = a + 1; b < laneRanges.size(); b++) {
+                            assertFalse(laneRanges.get(a).overlaps(laneRanges.get(b)),
+                                    "round " + round + ": " + laneRanges.get(a) + " and " + laneRanges.get(b) + " share a lane");
+                        }
+                    }
+                }
+                // Losers must have rolled back every word they had taken
+                assertArrayEquals(expectedFree(lanes, won.stream().flatMap(List::stream).toList()), day.freeLanes(),
+                        "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int[] expectedFree(int lanes, List<SlotRange> taken) {
+        int[] free = new int[SLOTS];
+        Arrays.fill(free, lanes);
+        for (SlotRange range : taken) {
+            for (int slot = range.start(); slot < range.end(); slot++) {
+                free[slot]--;
+            }
+        }
+        return free;
+    }
+}
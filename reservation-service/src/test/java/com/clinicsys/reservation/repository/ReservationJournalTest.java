@@ -0,0 +1,126 @@
+package com.clinicsys.reservation.repository;
+
+import com.clinicsys.reservation.model.Reservation;
+import com.clinicsys.reservation.model.SlotBlock;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReservationJournalTest {
+
+    // Header, then each Cancelled entry is an 8-byte frame header and a 9-byte payload
+    private static final int HEADER_BYTES = 4;
+    private static final int CANCELLED_FRAME_BYTES = 17;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryKindOfEntry() throws Exception {
+        Path file = directory.resolve("reservations.journal");
+        Instant createdAt = Instant.ofEpochMilli(1_700_000_000_000L);
+        List<JournalEntry> entries = List.of(
+                new JournalEntry.Booked(new Reservation(1, 2, 3, LocalDate.of(2026, 10, 19), LocalTime.of(9, 15), 45, 1, createdAt)),
+                new JournalEntry.Blocked(new SlotBlock(2, 2, LocalDate.of(2026, 10, 19), LocalTime.of(12, 0), 60, "Inspection", createdAt)),
+                new JournalEntry.Cancelled(1),
+                new JournalEntry.Unblocked(2));
+        write(file, entries);
+
+        assertEquals(entries, replay(file, new ArrayList<>()));
+    }
+
+    @Test
+    void replayDropsATornTailAndLaterAppendsSurvive() throws Exception {
+        Path file = directory.resolve("reservations.journal");
+        write(file, cancellations(1, 3));
+        // A crash in the middle of a write: the length and part of the payload made it to disk
+        byte[] torn = {0, 0, 0, 9, 1, 2, 3, 4, 5};
+        Files.write(file, torn, StandardOpenOption.APPEND);
+
+        ReservationJournal journal = journal(file);
+        List<JournalEntry> replayed = new ArrayList<>();
+        ReservationJournal.ReplayResult result = journal.replay(replayed::add);
+        assertEquals(cancellations(1, 3), replayed);
+        assertEquals(torn.length, result.truncatedBytes());
+        assertEquals(HEADER_BYTES + 3 * CANCELLED_FRAME_BYTES, Files.size(file));
+
+        journal.start();
+        journal.append(new JournalEntry.Cancelled(4)).get();
+        journal.close();
+
+        assertEquals(cancellations(1, 4), replay(file, new ArrayList<>()));
+    }
+
+    @Test
+    void replayStopsAtACorruptRecord() throws Exception {
+        Path file = directory.resolve("reservations.journal");
+        write(file, cancellations(1, 5));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[HEADER_BYTES + 2 * CANCELLED_FRAME_BYTES + 12] ^= 0x40;
+        Files.write(file, bytes);
+
+        ReservationJournal journal = journal(file);
+        List<JournalEntry> replayed = new ArrayList<>();
+        ReservationJournal.ReplayResult result = journal.replay(replayed::add);
+        journal.close();
+
+        assertEquals(cancellations(1, 2), replayed);
+        assertEquals(3 * CANCELLED_FRAME_BYTES, result.truncatedBytes());
+    }
+
+    @Test
+    void secondProcessCannotOpenAJournalInUse() throws Exception {
+        Path file = directory.resolve("reservations.journal");
+        ReservationJournal first = journal(file);
+        first.replay(entry -> { });
+        try {
+            assertThrows(IllegalStateException.class, () -> journal(file).replay(entry -> { }));
+        } finally {
+            first.close();
+        }
+        ReservationJournal next = journal(file);
+        next.replay(entry -> { });
+        next.close();
+    }
+
+    private static ReservationJournal journal(Path file) {
+        return new ReservationJournal(file.toString(), 16, 0, false);
+    }
+
+    private static void write(Path file, List<JournalEntry> entries) throws Exception {
+        ReservationJournal journal = journal(file);
+        journal.replay(entry -> { });
+        journal.start();
+        for (JournalEntry entry : entries) {
+            journal.append(entry).get();
+        }
+        journal.close();
+    }
+
+    private static List<JournalEntry> replay(Path file, List<JournalEntry> into) throws IOException, InterruptedException {
+        ReservationJournal journal = journal(file);
+        journal.replay(into::add);
+        journal.close();
+        return into;
+    }
+
+    private static List<JournalEntry> cancellations(long from, long to) {
+        List<JournalEntry> entries = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            entries.add(new JournalEntry.Cancelled(id));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,148 @@
+package com.clinicsys.reservation.service;
+
+import com.clinicsys.common.exception.ServiceUnavailableException;
+import com.clinicsys.reservation.dto.BlockRequest;
+import com.clinicsys.reservation.dto.BlockResult;
+import com.clinicsys.reservation.dto.BookingRequest;
+import com.clinicsys.reservation.exception.SlotUnavailableException;
+import com.clinicsys.reservation.inventory.SlotInventory;
+import com.clinicsys.reservation.inventory.SlotRange;
+import com.clinicsys.reservation.model.Reservation;
+import com.clinicsys.reservation.repository.ReservationJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReservationServiceTest {
+
+    private static final LocalDate DATE = LocalDate.now().plusDays(1);
+    // 15:30-16:30 on the 15-minute grid is slots 62-65, across the first word boundary
+    private static final LocalTime BLOCK_START = LocalTime.of(15, 30);
+    private static final int BLOCK_MINUTES = 60;
+
+    @TempDir
+    Path directory;
+
+    private SlotInventory inventory;
+    private ReservationJournal journal;
+    private ReservationService service;
+
+    @BeforeEach
+    void open() throws IOException {
+        reopen(0, 5000);
+    }
+
+    @AfterEach
+    void close() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    void blockRefusesLaterBookingsInItsWindow() {
+        Reservation before = service.book(booking(1, LocalTime.of(15, 0), 45));
+
+        BlockResult result = service.block(new BlockRequest(1L, DATE, BLOCK_START, BLOCK_MINUTES, "Power outage"));
+
+        assertEquals(List.of(before), result.affectedReservations());
+        assertThrows(SlotUnavailableException.class, () -> service.book(booking(1, LocalTime.of(16, 15), 30)));
+        service.book(booking(1, LocalTime.of(16, 30), 30));
+    }
+
+    @Test
+    void cancelAndUnblockThatTimeOutAreStillInTheJournal() throws Exception {
+        Reservation reservation = service.book(booking(1, LocalTime.of(9, 0), 30));
+        BlockResult result = service.block(new BlockRequest(1L, DATE, BLOCK_START, BLOCK_MINUTES, "Inspection"));
+        journal.close();
+
+        // The writer lingers before each batch, so a zero sync timeout always expires
+        reopen(200, 0);
+        assertThrows(ServiceUnavailableException.class, () -> service.cancel(reservation.id()));
+        assertThrows(ServiceUnavailableException.class, () -> service.unblock(result.block().id()));
+        assertEquals(reservation.id(), service.getReservation(reservation.id()).id());
+        journal.close();
+
+        reopen(0, 5000);
+        assertEquals(reservation.id(), service.getReservation(reservation.id()).id());
+        assertThrows(SlotUnavailableException.class, () -> service.book(booking(1, BLOCK_START, 30)));
+    }
+
+    @Test
+    void blockRacingBookingsReportsEveryBookingItLetThrough() throws Exception {
+        int bookers = 6;
+        Random random = new Random(7);
+        SlotRange blocked = inventory.range(BLOCK_START, BLOCK_MINUTES);
+        ExecutorService executor = Executors.newFixedThreadPool(bookers + 1);
+        try {
+            for (long clinic = 1; clinic <= 100; clinic++) {
+                long clinicId = clinic;
+                List<BookingRequest> requests = new ArrayList<>();
+                for (int i = 0; i < bookers; i++) {
+                    requests.add(booking(clinicId, LocalTime.of(14, 0).plusMinutes(15L * random.nextInt(14)),
+                            15 * (1 + random.nextInt(6))));
+                }
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Reservation>> bookings = new ArrayList<>();
+                for (BookingRequest request : requests) {
+                    bookings.add(executor.submit(() -> {
+                        start.await();
+                        try {
+                            return service.book(request);
+                        } catch (SlotUnavailableException e) {
+                            return null;
+                        }
+                    }));
+                }
+                Future<BlockResult> block = executor.submit(() -> {
+                    start.await();
+                    return service.block(new BlockRequest(clinicId, DATE, BLOCK_START, BLOCK_MINUTES, "Leak"));
+                });
+                start.countDown();
+
+                Set<Long> affected = block.get().affectedReservations().stream()
+                        .map(Reservation::id)
+                        .collect(Collectors.toSet());
+                Set<Long> kept = new HashSet<>();
+                for (Future<Reservation> booking : bookings) {
+                    Reservation reservation = booking.get();
+                    if (reservation != null && blocked.overlaps(inventory.range(reservation.startTime(),
+                            reservation.durationMinutes()))) {
+                        kept.add(reservation.id());
+                    }
+                }
+                assertEquals(kept, affected, "clinic " + clinicId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void reopen(long lingerMillis, long syncTimeout) throws IOException {
+        inventory = new SlotInventory(15, 3);
+        journal = new ReservationJournal(directory.resolve("reservations.journal").toString(), 64, lingerMillis, false);
+        service = new ReservationService(inventory, journal, true, syncTimeout);
+        service.recover();
+    }
+
+    private static BookingRequest booking(long clinicId, LocalTime startTime, int minutes) {
+        return new BookingRequest(clinicId, 100L, DATE, startTime, minutes, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.clinicsys.schedule;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class ScheduleServiceApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ScheduleServiceApplication.class, args);
+    }
+}
@@ -0,0 +1,183 @@
+package com.clinicsys.schedule.controller;
+
+import com.clinicsys.common.dto.ApiResponse;
+import com.clinicsys.common.exception.BadRequestException;
+import com.clinicsys.common.exception.ResourceNotFoundException;
+import com.clinicsys.schedule.dto.BusyPeriodRequest;
+import com.clinicsys.schedule.dto.ClosureRequest;
+import com.clinicsys.schedule.dto.FreeWindow;
+import com.clinicsys.schedule.dto.ShiftRequest;
+import com.clinicsys.schedule.dto.StaffRequest;
+import com.clinicsys.schedule.exception.ForbiddenException;
+import com.clinicsys.schedule.index.Opening;
+import com.clinicsys.schedule.model.BusyPeriod;
+import com.clinicsys.schedule.model.ClinicClosure;
+import com.clinicsys.schedule.model.Shift;
+import com.clinicsys.schedule.model.StaffMember;
+import com.clinicsys.schedule.service.AvailabilityService;
+import com.clinicsys.schedule.service.ScheduleService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Staff, shifts, busy periods and closures feed the availability index patients book from, so
+ * changing them requires the ADMIN or STAFF role the gateway verified ({@code X-User-Role}).
+ * Availability queries are open to every caller.
+ */
+@RestController
+@RequestMapping("/api/schedules")
+@RequiredArgsConstructor
+public class ScheduleController {
+    
+    static final String USER_ROLE_HEADER = "X-User-Role";
+    
+    private final ScheduleService scheduleService;
+    private final AvailabilityService availabilityService;
+    
+    @Value("${schedule.availability.max-clinics:20}")
+    private int maxClinics;
+    
+    @PutMapping("/staff/{id}")
+    public ResponseEntity<ApiResponse<StaffMember>> saveStaff(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @PathVariable Long id, @Valid @RequestBody StaffRequest request) {
+        requireStaff(role);
+        return ResponseEntity.ok(ApiResponse.success("Staff member saved", scheduleService.saveStaff(id, request)));
+    }
+    
+    @PostMapping("/shifts")
+    public ResponseEntity<ApiResponse<Shift>> addShift(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @Valid @RequestBody ShiftRequest request) {
+        requireStaff(role);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Shift added", scheduleService.addShift(request)));
+    }
+    
+    @DeleteMapping("/shifts/{id}")
+    public ResponseEntity<ApiResponse<Object>> deleteShift(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @PathVariable Long id) {
+        requireStaff(role);
+        scheduleService.deleteShift(id);
+        return ResponseEntity.ok(ApiResponse.success("Shift deleted", null));
+    }
+    
+    @PostMapping("/busy")
+    public ResponseEntity<ApiResponse<BusyPeriod>> addBusyPeriod(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @Valid @RequestBody BusyPeriodRequest request) {
+        requireStaff(role);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Busy period added", scheduleService.addBusyPeriod(request)));
+    }
+    
+    @DeleteMapping("/busy/{id}")
+    public ResponseEntity<ApiResponse<Object>> deleteBusyPeriod(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @PathVariable Long id) {
+        requireStaff(role);
+        scheduleService.deleteBusyPeriod(id);
+        return ResponseEntity.ok(ApiResponse.success("Busy period deleted", null));
+    }
+    
+    @PostMapping("/closures")
+    public ResponseEntity<ApiResponse<ClinicClosure>> addClosure(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @Valid @RequestBody ClosureRequest request) {
+        requireStaff(role);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Clinic closure added", scheduleService.addClosure(request)));
+    }
+    
+    @DeleteMapping("/closures/{id}")
+    public ResponseEntity<ApiResponse<Object>> deleteClosure(
+            @RequestHeader(value = USER_ROLE_HEADER, required = false) String role,
+            @PathVariable Long id) {
+        requireStaff(role);
+        scheduleService.deleteClosure(id);
+        return ResponseEntity.ok(ApiResponse.success("Clinic closure deleted", null));
+    }
+    
+    /**
+     * First window of {@code durationMinutes} for any staff member with {@code skill} at one of the
+     * clinics, between {@code from} (not before {@code after} on that day) and {@code to}.
+     * Defaults to the week starting today. {@code data} is null when nothing is free.
+     */
+    @GetMapping("/availability/first")
+    public ResponseEntity<ApiResponse<Opening>> firstAvailable(
+            @RequestParam List<Long> clinicIds,
+            @RequestParam int durationMinutes,
+            @RequestParam(required = false) String skill,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime after) {
+        if (clinicIds.isEmpty() || clinicIds.size() > maxClinics) {
+            throw new BadRequestException("Between 1 and " + maxClinics + " clinics per query");
+        }
+        if (durationMinutes <= 0 || durationMinutes > 24 * 60) {
+            throw new BadRequestException("Duration must be between 1 and 1440 minutes");
+        }
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(6);
+        if (end.isBefore(start) || end.isAfter(availabilityService.lastIndexedDay())) {
+            throw new BadRequestException("Range must end on or after its start and by " + availabilityService.lastIndexedDay());
+        }
+        long[] clinics = clinicIds.stream().mapToLong(Long::longValue).toArray();
+        Optional<Opening> opening = availabilityService.firstAvailable(skill, clinics, start, end, after, durationMinutes);
+        return ResponseEntity.ok(opening
+                .map(ApiResponse::success)
+                .orElseGet(() -> ApiResponse.success("No availability", null)));
+    }
+    
+    @GetMapping("/availability/staff/{staffId}")
+    public ResponseEntity<ApiResponse<List<FreeWindow>>> staffAvailability(
+            @PathVariable long staffId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        List<FreeWindow> windows = availabilityService.freeRanges(staffId, date).stream().map(FreeWindow::of).toList();
+        return ResponseEntity.ok(ApiResponse.success(windows));
+    }
+    
+    private static void requireStaff(String role) {
+        if (!"ADMIN".equals(role) && !"STAFF".equals(role)) {
+            throw new ForbiddenException("Changing schedules requires the ADMIN or STAFF role");
+        }
+    }
+    
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ApiResponse<Map<String, String>>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        return ResponseEntity.badRequest().body(ApiResponse.error("Validation failed", errors));
+    }
+    
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiResponse<Object>> handleBadRequest(BadRequestException ex) {
+        return ResponseEntity.badRequest().body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<ApiResponse<Object>> handleForbidden(ForbiddenException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ApiResponse.error(ex.getMessage()));
+    }
+    
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ApiResponse<Object>> handleNotFound(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ApiResponse.error(ex.getMessage()));
+    }
+}
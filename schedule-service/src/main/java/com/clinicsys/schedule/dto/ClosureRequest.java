@@ -0,0 +1,31 @@
+package com.clinicsys.schedule.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClosureRequest {
+    
+    @NotNull(message = "Clinic is required")
+    private Long clinicId;
+    
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+    
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+    
+    @NotNull(message = "End time is required")
+    private LocalTime endTime;
+    
+    @Size(max = 500, message = "Reason must be at most 500 characters")
+    private String reason;
+}
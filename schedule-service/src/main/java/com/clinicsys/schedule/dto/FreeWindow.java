@@ -0,0 +1,15 @@
+package com.clinicsys.schedule.dto;
+
+import com.clinicsys.schedule.index.TimeRange;
+
+import java.time.LocalTime;
+
+/**
+ * A free window of one staff member; an end time of {@code 00:00} means midnight.
+ */
+public record FreeWindow(LocalTime startTime, LocalTime endTime) {
+    
+    public static FreeWindow of(TimeRange range) {
+        return new FreeWindow(range.startTime(), range.endTime());
+    }
+}
@@ -0,0 +1,31 @@
+package com.clinicsys.schedule.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShiftRequest {
+    
+    @NotNull(message = "Staff member is required")
+    private Long staffId;
+    
+    @NotNull(message = "Clinic is required")
+    private Long clinicId;
+    
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+    
+    @NotNull(message = "Start time is required")
+    private LocalTime startTime;
+    
+    // 00:00 means midnight at the end of the day
+    @NotNull(message = "End time is required")
+    private LocalTime endTime;
+}
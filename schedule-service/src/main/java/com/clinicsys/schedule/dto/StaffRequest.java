@@ -0,0 +1,20 @@
+package com.clinicsys.schedule.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StaffRequest {
+    
+    @NotNull(message = "Skills are required")
+    private Set<String> skills = new HashSet<>();
+    
+    private boolean active = true;
+}
@@ -0,0 +1,10 @@
+package com.clinicsys.schedule.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published whenever a schedule row is written. Names what has to be re-read: a staff member's
+ * profile ({@code date} null), one staff-day, or one clinic-day ({@code staffId} null).
+ */
+public record ScheduleChangedEvent(Long staffId, Long clinicId, LocalDate date) {
+}
@@ -0,0 +1,38 @@
+package com.clinicsys.schedule.event;
+
+import com.clinicsys.schedule.model.BusyPeriod;
+import com.clinicsys.schedule.model.ClinicClosure;
+import com.clinicsys.schedule.model.Shift;
+import com.clinicsys.schedule.model.StaffMember;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener for the schedule entities. Hibernate resolves it through Spring's bean
+ * container, so every write that goes through a repository raises a {@link ScheduleChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScheduleEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onScheduleWritten(Object entity) {
+        if (entity instanceof Shift shift) {
+            eventPublisher.publishEvent(new ScheduleChangedEvent(shift.getStaffId(), shift.getClinicId(), shift.getDate()));
+        } else if (entity instanceof BusyPeriod period) {
+            eventPublisher.publishEvent(new ScheduleChangedEvent(period.getStaffId(), null, period.getDate()));
+        } else if (entity instanceof ClinicClosure closure) {
+            eventPublisher.publishEvent(new ScheduleChangedEvent(null, closure.getClinicId(), closure.getDate()));
+        } else if (entity instanceof StaffMember staff) {
+            eventPublisher.publishEvent(new ScheduleChangedEvent(staff.getId(), null, null));
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.clinicsys.schedule.index;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory availability of every staff member over a fixed horizon of days, as time-bucket bitmaps.
+ * <p>
+ * Each staff member has three bitmaps laid out day after day, one bit per {@code bucketMinutes}:
+ * working time from their shifts, busy time from appointments and leave, and the derived free time,
+ * {@code working & ~busy & ~closed}, where {@code closed} is the closure bitmap of the clinic the
+ * shift is at. Shifts are rounded inwards to whole buckets and busy time and closures outwards,
+ * so the index never offers time that is not entirely free.
+ * <p>
+ * A query such as "first free 45 minutes for any laser-certified staff at five branches this week"
+ * walks the days in order and, for each candidate staff member working at one of the branches that
+ * day, finds the earliest run of free buckets with a few word-wide shift-and-AND steps. That is a
+ * handful of operations per staff-day instead of a range join over shifts and appointments.
+ * <p>
+ * Updates replace one staff-day or one clinic-day at a time and are expected to come from the
+ * rows that changed. Queries share a read lock; updates take the write lock.
+ */
+public final class AvailabilityIndex {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final LocalDate firstDay;
+    private final int days;
+    private final int bucketMinutes;
+    private final int bucketsPerDay;
+    private final int wordsPerDay;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> rowsByStaff = new HashMap<>();
+    private final List<StaffRow> rows = new ArrayList<>();
+    private final Map<String, BitSet> rowsBySkill = new HashMap<>();
+    private final BitSet activeRows = new BitSet();
+    private final Map<Long, long[]> closedByClinic = new HashMap<>();
+
+    private static final class StaffRow {
+        final long staffId;
+        final long[] working;
+        final long[] busy;
+        final long[] free;
+        // Clinic of the day's shifts, 0 when not working
+        final long[] clinicByDay;
+        List<String> skills = List.of();
+
+        StaffRow(long staffId, int days, int wordsPerDay) {
+            this.staffId = staffId;
+            this.working = new long[days * wordsPerDay];
+            this.busy = new long[days * wordsPerDay];
+            this.free = new long[days * wordsPerDay];
+            this.clinicByDay = new long[days];
+        }
+    }
+
+    public AvailabilityIndex(LocalDate firstDay, int days, int bucketMinutes) {
+        if (bucketMinutes <= 0 || MINUTES_PER_DAY % bucketMinutes != 0) {
+            throw new IllegalArgumentException("Bucket size must divide a day, got " + bucketMinutes);
+        }
+        this.firstDay = firstDay;
+        this.days = days;
+        this.bucketMinutes = bucketMinutes;
+        this.bucketsPerDay = MINUTES_PER_DAY / bucketMinutes;
+        this.wordsPerDay = (bucketsPerDay + 63) >>> 6;
+    }
+
+    public LocalDate firstDay() {
+        return firstDay;
+    }
+
+    public LocalDate lastDay() {
+        return firstDay.plusDays(days - 1L);
+    }
+
+    public int bucketMinutes() {
+        return bucketMinutes;
+    }
+
+    public boolean covers(LocalDate date) {
+        long day = date.toEpochDay() - firstDay.toEpochDay();
+        return day >= 0 && day < days;
+    }
+
+    /** Adds or replaces a staff member's skills; inactive staff are never offered. */
+    public void setStaff(long staffId, Collection<String> skills, boolean active) {
+        lock.writeLock().lock();
+        try {
+            int index = row(staffId);
+            StaffRow row = rows.get(index);
+            for (String skill : row.skills) {
+                rowsBySkill.get(skill).clear(index);
+            }
+            row.skills = List.copyOf(skills);
+            for (String skill : row.skills) {
+                rowsBySkill.computeIfAbsent(skill, key -> new BitSet()).set(index);
+            }
+            activeRows.set(index, active);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces one day of a staff member's schedule. All shifts of a day are at one clinic;
+     * {@code clinicId} is ignored when there are none.
+     */
+    public void setStaffDay(long staffId, LocalDate date, long clinicId, List<TimeRange> shifts, List<TimeRange> busy) {
+        int day = dayIndex(date);
+        if (day < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            StaffRow row = rows.get(row(staffId));
+            int offset = day * wordsPerDay;
+            clear(row.working, offset);
+            clear(row.busy, offset);
+            for (TimeRange shift : shifts) {
+                setBuckets(row.working, offset, ceilBucket(shift.startMinute()), floorBucket(shift.endMinute()));
+            }
+            for (TimeRange period : busy) {
+                setBuckets(row.busy, offset, floorBucket(period.startMinute()), ceilBucket(period.endMinute()));
+            }
+            row.clinicByDay[day] = shifts.isEmpty() ? 0 : clinicId;
+            recompute(row, day);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Replaces the closures of one clinic on one day and re-derives free time of everyone working there. */
+    public void setClinicClosures(long clinicId, LocalDate date, List<TimeRange> closures) {
+        int day = dayIndex(date);
+        if (day < 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long[] closed = closedByClinic.computeIfAbsent(clinicId, key -> new long[days * wordsPerDay]);
+            int offset = day * wordsPerDay;
+            clear(closed, offset);
+            for (TimeRange closure : closures) {
+                setBuckets(closed, offset, floorBucket(closure.startMinute()), ceilBucket(closure.endMinute()));
+            }
+            for (StaffRow row : rows) {
+                if (row.clinicByDay[day] == clinicId) {
+                    recompute(row, day);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Earliest window of at least {@code durationMinutes} between {@code from} and {@code to}
+     * (inclusive), not starting before {@code notBefore} on the first day, for any active staff
+     * member with the skill (any skill when {@code null}) working at one of the clinics. Ties go to
+     * the staff member indexed first.
+     */
+    public Optional<Opening> firstAvailable(String skill, long[] clinicIds, LocalDate from, LocalDate to,
+                                            LocalTime notBefore, int durationMinutes) {
+        int length = ceilBucket(durationMinutes);
+        if (length <= 0 || length > bucketsPerDay) {
+            return Optional.empty();
+        }
+        long fromDay = from.toEpochDay() - firstDay.toEpochDay();
+        int firstIndex = (int) Math.max(0, fromDay);
+        int lastIndex = (int) Math.min(days - 1L, to.toEpochDay() - firstDay.toEpochDay());
+        long[] scratch = new long[wordsPerDay];
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates;
+            if (skill == null) {
+                candidates = activeRows;
+            } else {
+                BitSet withSkill = rowsBySkill.get(skill);
+                if (withSkill == null) {
+                    return Optional.empty();
+                }
+                candidates = (BitSet) withSkill.clone();
+                candidates.and(activeRows);
+            }
+            for (int day = firstIndex; day <= lastIndex; day++) {
+                int earliest = day == fromDay && notBefore != null
+                        ? ceilBucket(notBefore.getHour() * 60 + notBefore.getMinute())
+                        : 0;
+                int bestStart = Integer.MAX_VALUE;
+                StaffRow best = null;
+                for (int index = candidates.nextSetBit(0); index >= 0; index = candidates.nextSetBit(index + 1)) {
+                    StaffRow row = rows.get(index);
+                    if (!contains(clinicIds, row.clinicByDay[day])) {
+                        continue;
+                    }
+                    int start = firstRun(row.free, day * wordsPerDay, length, earliest, scratch);
+                    if (start >= 0 && start < bestStart) {
+                        bestStart = start;
+                        best = row;
+                        if (start == earliest) {
+                            break;
+                        }
+                    }
+                }
+                if (best != null) {
+                    return Optional.of(new Opening(best.staffId, best.clinicByDay[day], firstDay.plusDays(day),
+                            time(bestStart), time(bestStart + length)));
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Free windows of one staff member on one day, in order. */
+    public List<TimeRange> freeRanges(long staffId, LocalDate date) {
+        int day = dayIndex(date);
+        List<TimeRange> ranges = new ArrayList<>();
+        if (day < 0) {
+            return ranges;
+        }
+        lock.readLock().lock();
+        try {
+            Integer index = rowsByStaff.get(staffId);
+            if (index == null) {
+                return ranges;
+            }
+            long[] free = rows.get(index).free;
+            int offset = day * wordsPerDay;
+            int start = -1;
+            for (int bucket = 0; bucket <= bucketsPerDay; bucket++) {
+                boolean set = bucket < bucketsPerDay && (free[offset + (bucket >>> 6)] & (1L << bucket)) != 0;
+                if (set && start < 0) {
+                    start = bucket;
+                } else if (!set && start >= 0) {
+                    ranges.add(new TimeRange(start * bucketMinutes, bucket * bucketMinutes));
+                    start = -1;
+                }
+            }
+            return ranges;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int row(long staffId) {
+        Integer index = rowsByStaff.get(staffId);
+        if (index == null) {
+            index = rows.size();
+            rows.add(new StaffRow(staffId, days, wordsPerDay));
+            rowsByStaff.put(staffId, index);
+            activeRows.set(index);
+        }
+        return index;
+    }
+
+    private void recompute(StaffRow row, int day) {
+        int offset = day * wordsPerDay;
+        long[] closed = row.clinicByDay[day] != 0 ? closedByClinic.get(row.clinicByDay[day]) : null;
+        for (int word = offset; word < offset + wordsPerDay; word++) {
+            long blocked = row.busy[word] | (closed != null ? closed[word] : 0);
+            row.free[word] = row.working[word] & ~blocked;
+        }
+    }
+
+    /**
+     * First bucket at or after {@code earliest} that starts {@code length} consecutive set bits, or -1.
+     * After each step bit {@code i} says "the next {@code run} buckets from {@code i} are free";
+     * doubling the run each step needs only log2(length) passes over the day's words.
+     */
+    private int firstRun(long[] bits, int offset, int length, int earliest, long[] scratch) {
+        boolean any = false;
+        for (int word = 0; word < wordsPerDay; word++) {
+            long value = bits[offset + word];
+            int from = earliest - (word << 6);
+            if (from >= 64) {
+                value = 0;
+            } else if (from > 0) {
+                value &= -1L << from;
+            }
+            scratch[word] = value;
+            any |= value != 0;
+        }
+        if (!any) {
+            return -1;
+        }
+        int run = 1;
+        while (run < length) {
+            int shift = Math.min(run, length - run);
+            if (!shiftAnd(scratch, shift)) {
+                return -1;
+            }
+            run += shift;
+        }
+        for (int word = 0; word < wordsPerDay; word++) {
+            if (scratch[word] != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(scratch[word]);
+            }
+        }
+        return -1;
+    }
+
+    // words &= words >>> shift, as one bit string across the words; false when nothing is left
+    private boolean shiftAnd(long[] words, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        boolean any = false;
+        for (int word = 0; word < wordsPerDay; word++) {
+            int source = word + wordShift;
+            long low = source < wordsPerDay ? words[source] : 0;
+            long high = source + 1 < wordsPerDay ? words[source + 1] : 0;
+            long shifted = bitShift == 0 ? low : (low >>> bitShift) | (high << (64 - bitShift));
+            words[word] &= shifted;
+            any |= words[word] != 0;
+        }
+        return any;
+    }
+
+    private void setBuckets(long[] bits, int offset, int from, int to) {
+        for (int bucket = Math.max(0, from); bucket < Math.min(to, bucketsPerDay); bucket++) {
+            bits[offset + (bucket >>> 6)] |= 1L << bucket;
+        }
+    }
+
+    private void clear(long[] bits, int offset) {
+        for (int word = offset; word < offset + wordsPerDay; word++) {
+            bits[word] = 0;
+        }
+    }
+
+    private int dayIndex(LocalDate date) {
+        long day = date.toEpochDay() - firstDay.toEpochDay();
+        return day >= 0 && day < days ? (int) day : -1;
+    }
+
+    private int floorBucket(int minute) {
+        return minute / bucketMinutes;
+    }
+
+    private int ceilBucket(int minute) {
+        return (minute + bucketMinutes - 1) / bucketMinutes;
+    }
+
+    private LocalTime time(int bucket) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) bucket * bucketMinutes);
+    }
+
+    private static boolean contains(long[] values, long value) {
+        if (value == 0) {
+            return false;
+        }
+        for (long candidate : values) {
+            if (candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.clinicsys.schedule.index;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A free window found by {@link AvailabilityIndex#firstAvailable}.
+ */
+public record Opening(long staffId, long clinicId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+}
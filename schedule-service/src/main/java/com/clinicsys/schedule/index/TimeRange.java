@@ -0,0 +1,23 @@
+package com.clinicsys.schedule.index;
+
+import java.time.LocalTime;
+
+/**
+ * A half-open interval {@code [startMinute, endMinute)} within one day, in minutes since midnight.
+ * An end time of {@code 00:00} stands for midnight at the end of the day.
+ */
+public record TimeRange(int startMinute, int endMinute) {
+
+    public static TimeRange of(LocalTime start, LocalTime end) {
+        int endMinute = end.equals(LocalTime.MIDNIGHT) ? 24 * 60 : end.getHour() * 60 + end.getMinute();
+        return new TimeRange(start.getHour() * 60 + start.getMinute(), endMinute);
+    }
+
+    public LocalTime startTime() {
+        return LocalTime.MIDNIGHT.plusMinutes(startMinute);
+    }
+
+    public LocalTime endTime() {
+        return LocalTime.MIDNIGHT.plusMinutes(endMinute);
+    }
+}
@@ -0,0 +1,45 @@
+package com.clinicsys.schedule.model;
+
+import com.clinicsys.schedule.event.ScheduleEntityListener;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Time a staff member is not available within their shifts: an appointment, a break or leave.
+ */
+@Entity
+@Table(name = "busy_periods", indexes = {
+        @Index(name = "idx_busy_periods_staff_date", columnList = "staff_id, busy_date"),
+        @Index(name = "idx_busy_periods_date", columnList = "busy_date")
+})
+@EntityListeners(ScheduleEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusyPeriod {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "staff_id", nullable = false, updatable = false)
+    private Long staffId;
+    
+    @Column(name = "busy_date", nullable = false, updatable = false)
+    private LocalDate date;
+    
+    @Column(name = "start_time", nullable = false, updatable = false)
+    private LocalTime startTime;
+    
+    @Column(name = "end_time", nullable = false, updatable = false)
+    private LocalTime endTime;
+    
+    // e.g. "reservation:42" or "leave"
+    @Column(name = "reference")
+    private String reference;
+}
@@ -0,0 +1,44 @@
+package com.clinicsys.schedule.model;
+
+import com.clinicsys.schedule.event.ScheduleEntityListener;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A clinic closed for part or all of a day; nobody working there is offered in that window.
+ */
+@Entity
+@Table(name = "clinic_closures", indexes = {
+        @Index(name = "idx_clinic_closures_clinic_date", columnList = "clinic_id, closure_date"),
+        @Index(name = "idx_clinic_closures_date", columnList = "closure_date")
+})
+@EntityListeners(ScheduleEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClinicClosure {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "clinic_id", nullable = false, updatable = false)
+    private Long clinicId;
+    
+    @Column(name = "closure_date", nullable = false, updatable = false)
+    private LocalDate date;
+    
+    @Column(name = "start_time", nullable = false, updatable = false)
+    private LocalTime startTime;
+    
+    @Column(name = "end_time", nullable = false, updatable = false)
+    private LocalTime endTime;
+    
+    @Column(name = "reason")
+    private String reason;
+}
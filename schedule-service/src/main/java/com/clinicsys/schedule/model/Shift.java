@@ -0,0 +1,45 @@
+package com.clinicsys.schedule.model;
+
+import com.clinicsys.schedule.event.ScheduleEntityListener;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Working hours of a staff member at one clinic on one day. An end time of {@code 00:00} means midnight.
+ * Shifts are created and deleted, never edited, so every change maps to the one staff-day it touches.
+ */
+@Entity
+@Table(name = "shifts", indexes = {
+        @Index(name = "idx_shifts_staff_date", columnList = "staff_id, work_date"),
+        @Index(name = "idx_shifts_date", columnList = "work_date")
+})
+@EntityListeners(ScheduleEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Shift {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "staff_id", nullable = false, updatable = false)
+    private Long staffId;
+    
+    @Column(name = "clinic_id", nullable = false, updatable = false)
+    private Long clinicId;
+    
+    @Column(name = "work_date", nullable = false, updatable = false)
+    private LocalDate date;
+    
+    @Column(name = "start_time", nullable = false, updatable = false)
+    private LocalTime startTime;
+    
+    @Column(name = "end_time", nullable = false, updatable = false)
+    private LocalTime endTime;
+}
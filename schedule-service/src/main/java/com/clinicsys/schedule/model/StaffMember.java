@@ -0,0 +1,34 @@
+package com.clinicsys.schedule.model;
+
+import com.clinicsys.schedule.event.ScheduleEntityListener;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * What the schedule needs to know about a staff member: the skills that decide which treatments
+ * they can take. The id is the staff-service id.
+ */
+@Entity
+@Table(name = "staff_members")
+@EntityListeners(ScheduleEntityListener.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StaffMember {
+    
+    @Id
+    private Long id;
+    
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "staff_skills", joinColumns = @JoinColumn(name = "staff_id"))
+    @Column(name = "skill", nullable = false)
+    private Set<String> skills = new HashSet<>();
+    
+    @Column(name = "is_active", nullable = false)
+    private boolean active = true;
+}
@@ -0,0 +1,16 @@
+package com.clinicsys.schedule.repository;
+
+import com.clinicsys.schedule.model.BusyPeriod;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BusyPeriodRepository extends JpaRepository<BusyPeriod, Long> {
+    
+    List<BusyPeriod> findByStaffIdAndDate(Long staffId, LocalDate date);
+    
+    List<BusyPeriod> findByDateBetween(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,16 @@
+package com.clinicsys.schedule.repository;
+
+import com.clinicsys.schedule.model.ClinicClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ClinicClosureRepository extends JpaRepository<ClinicClosure, Long> {
+    
+    List<ClinicClosure> findByClinicIdAndDate(Long clinicId, LocalDate date);
+    
+    List<ClinicClosure> findByDateBetween(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,16 @@
+package com.clinicsys.schedule.repository;
+
+import com.clinicsys.schedule.model.Shift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ShiftRepository extends JpaRepository<Shift, Long> {
+    
+    List<Shift> findByStaffIdAndDate(Long staffId, LocalDate date);
+    
+    List<Shift> findByDateBetween(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,9 @@
+package com.clinicsys.schedule.repository;
+
+import com.clinicsys.schedule.model.StaffMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StaffMemberRepository extends JpaRepository<StaffMember, Long> {
+}
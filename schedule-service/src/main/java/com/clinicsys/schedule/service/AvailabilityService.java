@@ -0,0 +1,205 @@
+package com.clinicsys.schedule.service;
+
+import com.clinicsys.schedule.event.ScheduleChangedEvent;
+import com.clinicsys.schedule.index.AvailabilityIndex;
+import com.clinicsys.schedule.index.Opening;
+import com.clinicsys.schedule.index.TimeRange;
+import com.clinicsys.schedule.model.BusyPeriod;
+import com.clinicsys.schedule.model.ClinicClosure;
+import com.clinicsys.schedule.model.Shift;
+import com.clinicsys.schedule.model.StaffMember;
+import com.clinicsys.schedule.repository.BusyPeriodRepository;
+import com.clinicsys.schedule.repository.ClinicClosureRepository;
+import com.clinicsys.schedule.repository.ShiftRepository;
+import com.clinicsys.schedule.repository.StaffMemberRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link AvailabilityIndex} in step with the schedule tables and answers availability
+ * queries from it.
+ * <p>
+ * The index covers {@code schedule.index.horizon-days} days from today. It is built from the
+ * database on startup and rebuilt after midnight to move the horizon; in between, every committed
+ * write raises a {@link ScheduleChangedEvent} and only the staff-day or clinic-day it names is
+ * re-read. Changes that commit while a rebuild is loading are applied again to the new index.
+ * <p>
+ * Re-reading a staff-day or clinic-day and writing it into the index happen under one lock per
+ * key (striped over {@link #REFRESH_STRIPES} locks). Without it, two commits to the same day could
+ * be re-read in one order and written in the other, leaving the older state in the index. With it,
+ * the last write always comes from a read taken after every commit already announced.
+ */
+@Slf4j
+@Service
+public class AvailabilityService {
+
+    private static final int REFRESH_STRIPES = 64;
+
+    private final StaffMemberRepository staffMemberRepository;
+    private final ShiftRepository shiftRepository;
+    private final BusyPeriodRepository busyPeriodRepository;
+    private final ClinicClosureRepository clinicClosureRepository;
+    private final int horizonDays;
+    private final int bucketMinutes;
+
+    private volatile AvailabilityIndex index;
+    private volatile boolean rebuilding;
+    private final Queue<ScheduleChangedEvent> changedDuringRebuild = new ConcurrentLinkedQueue<>();
+    private final Object[] refreshLocks = new Object[REFRESH_STRIPES];
+
+    private record StaffDay(long staffId, LocalDate date) {
+    }
+
+    private record ClinicDay(long clinicId, LocalDate date) {
+    }
+
+    public AvailabilityService(
+            StaffMemberRepository staffMemberRepository,
+            ShiftRepository shiftRepository,
+            BusyPeriodRepository busyPeriodRepository,
+            ClinicClosureRepository clinicClosureRepository,
+            @Value("${schedule.index.horizon-days:90}") int horizonDays,
+            @Value("${schedule.index.bucket-minutes:15}") int bucketMinutes) {
+        this.staffMemberRepository = staffMemberRepository;
+        this.shiftRepository = shiftRepository;
+        this.busyPeriodRepository = busyPeriodRepository;
+        this.clinicClosureRepository = clinicClosureRepository;
+        this.horizonDays = horizonDays;
+        this.bucketMinutes = bucketMinutes;
+        for (int i = 0; i < refreshLocks.length; i++) {
+            refreshLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(cron = "${schedule.index.rebuild-cron:0 1 0 * * *}")
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        rebuilding = true;
+        try {
+            index = load(LocalDate.now());
+        } finally {
+            rebuilding = false;
+        }
+        ScheduleChangedEvent event;
+        while ((event = changedDuringRebuild.poll()) != null) {
+            refresh(index, event);
+        }
+        log.info("Built availability index for {} to {} in {} ms", index.firstDay(), index.lastDay(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (rebuilding) {
+            changedDuringRebuild.add(event);
+        }
+        AvailabilityIndex current = index;
+        if (current != null) {
+            refresh(current, event);
+        }
+    }
+
+    public Optional<Opening> firstAvailable(String skill, long[] clinicIds, LocalDate from, LocalDate to,
+                                            LocalTime notBefore, int durationMinutes) {
+        return index.firstAvailable(skill, clinicIds, from, to, notBefore, durationMinutes);
+    }
+
+    public List<TimeRange> freeRanges(long staffId, LocalDate date) {
+        return index.freeRanges(staffId, date);
+    }
+
+    public LocalDate lastIndexedDay() {
+        return index.lastDay();
+    }
+
+    private AvailabilityIndex load(LocalDate firstDay) {
+        AvailabilityIndex fresh = new AvailabilityIndex(firstDay, horizonDays, bucketMinutes);
+        LocalDate lastDay = fresh.lastDay();
+        for (StaffMember staff : staffMemberRepository.findAll()) {
+            fresh.setStaff(staff.getId(), staff.getSkills(), staff.isActive());
+        }
+
+        Map<ClinicDay, List<ClinicClosure>> closures = clinicClosureRepository.findByDateBetween(firstDay, lastDay).stream()
+                .collect(Collectors.groupingBy(closure -> new ClinicDay(closure.getClinicId(), closure.getDate())));
+        closures.forEach((clinicDay, dayClosures) ->
+                fresh.setClinicClosures(clinicDay.clinicId(), clinicDay.date(), closureRanges(dayClosures)));
+
+        Map<StaffDay, List<Shift>> shifts = shiftRepository.findByDateBetween(firstDay, lastDay).stream()
+                .collect(Collectors.groupingBy(shift -> new StaffDay(shift.getStaffId(), shift.getDate())));
+        Map<StaffDay, List<BusyPeriod>> busy = busyPeriodRepository.findByDateBetween(firstDay, lastDay).stream()
+                .collect(Collectors.groupingBy(period -> new StaffDay(period.getStaffId(), period.getDate())));
+        Set<StaffDay> staffDays = new HashSet<>(shifts.keySet());
+        staffDays.addAll(busy.keySet());
+        for (StaffDay staffDay : staffDays) {
+            List<Shift> dayShifts = shifts.getOrDefault(staffDay, List.of());
+            fresh.setStaffDay(staffDay.staffId(), staffDay.date(), clinicOf(dayShifts),
+                    shiftRanges(dayShifts), busyRanges(busy.getOrDefault(staffDay, List.of())));
+        }
+        return fresh;
+    }
+
+    private void refresh(AvailabilityIndex target, ScheduleChangedEvent event) {
+        synchronized (refreshLock(event)) {
+            refreshLocked(target, event);
+        }
+    }
+
+    private void refreshLocked(AvailabilityIndex target, ScheduleChangedEvent event) {
+        if (event.date() == null) {
+            Optional<StaffMember> staff = staffMemberRepository.findById(event.staffId());
+            target.setStaff(event.staffId(), staff.map(StaffMember::getSkills).orElse(Set.of()),
+                    staff.map(StaffMember::isActive).orElse(false));
+        } else if (!target.covers(event.date())) {
+            return;
+        } else if (event.staffId() == null) {
+            target.setClinicClosures(event.clinicId(), event.date(),
+                    closureRanges(clinicClosureRepository.findByClinicIdAndDate(event.clinicId(), event.date())));
+        } else {
+            List<Shift> dayShifts = shiftRepository.findByStaffIdAndDate(event.staffId(), event.date());
+            target.setStaffDay(event.staffId(), event.date(), clinicOf(dayShifts), shiftRanges(dayShifts),
+                    busyRanges(busyPeriodRepository.findByStaffIdAndDate(event.staffId(), event.date())));
+        }
+    }
+
+    // Events for the same staff member, staff-day or clinic-day always map to the same lock
+    private Object refreshLock(ScheduleChangedEvent event) {
+        Object key = event.date() == null ? event.staffId()
+                : event.staffId() == null ? new ClinicDay(event.clinicId(), event.date())
+                : new StaffDay(event.staffId(), event.date());
+        int hash = key.hashCode();
+        return refreshLocks[(hash ^ (hash >>> 16)) & (REFRESH_STRIPES - 1)];
+    }
+
+    private static long clinicOf(List<Shift> shifts) {
+        return shifts.isEmpty() ? 0 : shifts.get(0).getClinicId();
+    }
+
+    private static List<TimeRange> shiftRanges(List<Shift> shifts) {
+        return shifts.stream().map(shift -> TimeRange.of(shift.getStartTime(), shift.getEndTime())).toList();
+    }
+
+    private static List<TimeRange> busyRanges(List<BusyPeriod> periods) {
+        return periods.stream().map(period -> TimeRange.of(period.getStartTime(), period.getEndTime())).toList();
+    }
+
+    private static List<TimeRange> closureRanges(List<ClinicClosure> closures) {
+        return closures.stream().map(closure -> TimeRange.of(closure.getStartTime(), closure.getEndTime())).toList();
+    }
+}
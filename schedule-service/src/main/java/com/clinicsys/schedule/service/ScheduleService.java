@@ -0,0 +1,98 @@
+package com.clinicsys.schedule.service;
+
+import com.clinicsys.common.exception.BadRequestException;
+import com.clinicsys.common.exception.ResourceNotFoundException;
+import com.clinicsys.schedule.dto.BusyPeriodRequest;
+import com.clinicsys.schedule.dto.ClosureRequest;
+import com.clinicsys.schedule.dto.ShiftRequest;
+import com.clinicsys.schedule.dto.StaffRequest;
+import com.clinicsys.schedule.index.TimeRange;
+import com.clinicsys.schedule.model.BusyPeriod;
+import com.clinicsys.schedule.model.ClinicClosure;
+import com.clinicsys.schedule.model.Shift;
+import com.clinicsys.schedule.model.StaffMember;
+import com.clinicsys.schedule.repository.BusyPeriodRepository;
+import com.clinicsys.schedule.repository.ClinicClosureRepository;
+import com.clinicsys.schedule.repository.ShiftRepository;
+import com.clinicsys.schedule.repository.StaffMemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalTime;
+import java.util.HashSet;
+
+/**
+ * Writes to the schedule tables. The availability index follows through the entity listener,
+ * once each transaction has committed.
+ */
+@Service
+@RequiredArgsConstructor
+public class ScheduleService {
+    
+    private final StaffMemberRepository staffMemberRepository;
+    private final ShiftRepository shiftRepository;
+    private final BusyPeriodRepository busyPeriodRepository;
+    private final ClinicClosureRepository clinicClosureRepository;
+    
+    @Transactional
+    public StaffMember saveStaff(Long staffId, StaffRequest request) {
+        StaffMember staff = staffMemberRepository.findById(staffId).orElseGet(StaffMember::new);
+        staff.setId(staffId);
+        staff.setSkills(new HashSet<>(request.getSkills()));
+        staff.setActive(request.isActive());
+        return staffMemberRepository.save(staff);
+    }
+    
+    @Transactional
+    public Shift addShift(ShiftRequest request) {
+        checkRange(request.getStartTime(), request.getEndTime());
+        for (Shift existing : shiftRepository.findByStaffIdAndDate(request.getStaffId(), request.getDate())) {
+            if (!existing.getClinicId().equals(request.getClinicId())) {
+                throw new BadRequestException("Staff member already works at clinic " + existing.getClinicId()
+                        + " on " + request.getDate());
+            }
+        }
+        return shiftRepository.save(new Shift(null, request.getStaffId(), request.getClinicId(), request.getDate(),
+                request.getStartTime(), request.getEndTime()));
+    }
+    
+    @Transactional
+    public void deleteShift(Long id) {
+        shiftRepository.delete(shiftRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Shift", "id", id)));
+    }
+    
+    @Transactional
+    public BusyPeriod addBusyPeriod(BusyPeriodRequest request) {
+        checkRange(request.getStartTime(), request.getEndTime());
+        return busyPeriodRepository.save(new BusyPeriod(null, request.getStaffId(), request.getDate(),
+                request.getStartTime(), request.getEndTime(), request.getReference()));
+    }
+    
+    @Transactional
+    public void deleteBusyPeriod(Long id) {
+        busyPeriodRepository.delete(busyPeriodRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Busy period", "id", id)));
+    }
+    
+    @Transactional
+    public ClinicClosure addClosure(ClosureRequest request) {
+        checkRange(request.getStartTime(), request.getEndTime());
+        return clinicClosureRepository.save(new ClinicClosure(null, request.getClinicId(), request.getDate(),
+                request.getStartTime(), request.getEndTime(), request.getReason()));
+    }
+    
+    @Transactional
+    public void deleteClosure(Long id) {
+        clinicClosureRepository.delete(clinicClosureRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Clinic closure", "id", id)));
+    }
+    
+    private static void checkRange(LocalTime startTime, LocalTime endTime) {
+        TimeRange range = TimeRange.of(startTime, endTime);
+        if (range.startMinute() >= range.endMinute()) {
+            throw new BadRequestException("End time must be after start time");
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.clinicsys.schedule.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+    private static final long[] CLINIC = {7};
+
+    @Test
+    void findsRunsThatCrossAWordBoundary() {
+        // Five-minute buckets: 05:20 is bucket 64, the first bit of the second word
+        AvailabilityIndex index = new AvailabilityIndex(MONDAY, 1, 5);
+        index.setStaff(1, List.of(), true);
+        index.setStaffDay(1, MONDAY, 7, List.of(range("05:00", "06:00")), List.of());
+
+        assertEquals(Optional.of(opening(1, "05:00", "05:40")), first(index, 40, null));
+
+        index.setStaffDay(1, MONDAY, 7, List.of(range("05:00", "06:00")), List.of(range("05:10", "05:15")));
+        assertEquals(Optional.of(opening(1, "05:15", "05:55")), first(index, 40, null));
+        assertEquals(Optional.empty(), first(index, 50, null));
+        assertEquals(Optional.of(opening(1, "05:20", "05:40")), first(index, 20, LocalTime.of(5, 17)));
+    }
+
+    @Test
+    void findsRunsLongerThanAWord() {
+        // One-minute buckets: a ten-hour window spans ten words, so shifts move whole words
+        AvailabilityIndex index = new AvailabilityIndex(MONDAY, 1, 1);
+        index.setStaff(1, List.of(), true);
+        index.setStaffDay(1, MONDAY, 7, List.of(range("00:30", "20:00")), List.of());
+        assertEquals(Optional.of(opening(1, "00:30", "10:30")), first(index, 600, null));
+
+        index.setStaffDay(1, MONDAY, 7, List.of(range("00:30", "20:00")), List.of(range("10:00", "10:01")));
+        assertEquals(Optional.of(opening(1, "10:01", "20:00")), first(index, 599, null));
+        assertEquals(Optional.empty(), first(index, 600, null));
+    }
+
+    @Test
+    void matchesABruteForceScan() {
+        Random random = new Random(42);
+        int days = 3;
+        int bucketMinutes = 5;
+        int buckets = 24 * 60 / bucketMinutes;
+        long[] clinics = {1, 2};
+        String[] skills = {"laser", "xray"};
+
+        for (int round = 0; round < 200; round++) {
+            AvailabilityIndex index = new AvailabilityIndex(MONDAY, days, bucketMinutes);
+            int staffCount = 1 + random.nextInt(5);
+            boolean[][][] free = new boolean[staffCount][days][buckets];
+            long[][] clinicByDay = new long[staffCount][days];
+            boolean[] active = new boolean[staffCount];
+            String[] skillOf = new String[staffCount];
+            boolean[][][] closed = new boolean[clinics.length][days][buckets];
+
+            for (int clinic = 0; clinic < clinics.length; clinic++) {
+                for (int day = 0; day < days; day++) {
+                    List<TimeRange> closures = ranges(random, random.nextInt(3), 180);
+                    mark(closed[clinic][day], closures, bucketMinutes, false);
+                    index.setClinicClosures(clinics[clinic], MONDAY.plusDays(day), closures);
+                }
+            }
+            for (int staff = 0; staff < staffCount; staff++) {
+                active[staff] = random.nextInt(6) != 0;
+                skillOf[staff] = skills[random.nextInt(skills.length)];
+                index.setStaff(staff + 1, List.of(skillOf[staff]), active[staff]);
+                for (int day = 0; day < days; day++) {
+                    List<TimeRange> shifts = ranges(random, random.nextInt(3), 600);
+                    List<TimeRange> busy = ranges(random, random.nextInt(5), 120);
+                    int clinic = random.nextInt(clinics.length);
+                    clinicByDay[staff][day] = shifts.isEmpty() ? 0 : clinics[clinic];
+                    boolean[] working = new boolean[buckets];
+                    boolean[] blocked = new boolean[buckets];
+                    mark(working, shifts, bucketMinutes, true);
+                    mark(blocked, busy, bucketMinutes, false);
+                    for (int bucket = 0; bucket < buckets; bucket++) {
+                        free[staff][day][bucket] = working[bucket] && !blocked[bucket] && !closed[clinic][day][bucket];
+                    }
+                    index.setStaffDay(staff + 1, MONDAY.plusDays(day), clinics[clinic], shifts, busy);
+                }
+            }
+
+            for (int query = 0; query < 20; query++) {
+                String skill = random.nextBoolean() ? null : skills[random.nextInt(skills.length)];
+                long[] wanted = random.nextBoolean() ? clinics : new long[]{clinics[random.nextInt(clinics.length)]};
+                int from = random.nextInt(days);
+                int to = from + random.nextInt(days - from);
+                LocalTime notBefore = random.nextBoolean() ? null : LocalTime.MIDNIGHT.plusMinutes(random.nextInt(24 * 60));
+                int duration = 1 + random.nextInt(480);
+                int length = (duration + bucketMinutes - 1) / bucketMinutes;
+
+                Optional<Opening> expected = Optional.empty();
+                for (int day = from; day <= to && expected.isEmpty(); day++) {
+                    int earliest = day == from && notBefore != null
+                            ? ((notBefore.getHour() * 60 + notBefore.getMinute()) + bucketMinutes - 1) / bucketMinutes
+                            : 0;
+                    int bestStart = Integer.MAX_VALUE;
+                    int best = -1;
+                    for (int staff = 0; staff < staffCount; staff++) {
+                        if (!active[staff] || (skill != null && !skill.equals(skillOf[staff]))
+                                || !contains(wanted, clinicByDay[staff][day])) {
+                            continue;
+                        }
+                        int start = firstRun(free[staff][day], length, earliest);
+                        if (start >= 0 && start < bestStart) {
+                            bestStart = start;
+                            best = staff;
+                        }
+                    }
+                    if (best >= 0) {
+                        LocalTime start = LocalTime.MIDNIGHT.plusMinutes((long) bestStart * bucketMinutes);
+                        expected = Optional.of(new Opening(best + 1, clinicByDay[best][day], MONDAY.plusDays(day),
+                                start, start.plusMinutes((long) length * bucketMinutes)));
+                    }
+                }
+
+                assertEquals(expected, index.firstAvailable(skill, wanted, MONDAY.plusDays(from), MONDAY.plusDays(to),
+                        notBefore, duration), "round " + round + ", query " + query);
+            }
+            for (int staff = 0; staff < staffCount; staff++) {
+                for (int day = 0; day < days; day++) {
+                    assertEquals(freeRanges(free[staff][day], bucketMinutes),
+                            index.freeRanges(staff + 1, MONDAY.plusDays(day)));
+                }
+            }
+        }
+    }
+
+    private static Optional<Opening> first(AvailabilityIndex index, int minutes, LocalTime notBefore) {
+        return index.firstAvailable(null, CLINIC, MONDAY, MONDAY, notBefore, minutes);
+    }
+
+    private static Opening opening(long staffId, String start, String end) {
+        return new Opening(staffId, 7, MONDAY, LocalTime.parse(start), LocalTime.parse(end));
+    }
+
+    private static TimeRange range(String start, String end) {
+        return TimeRange.of(LocalTime.parse(start), LocalTime.parse(end));
+    }
+
+    private static List<TimeRange> ranges(Random random, int count, int maxLength) {
+        List<TimeRange> ranges = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int start = random.nextInt(24 * 60);
+            int end = Math.min(24 * 60, start + 1 + random.nextInt(maxLength));
+            ranges.add(new TimeRange(start, end));
+        }
+        return ranges;
+    }
+
+    // Working time keeps only buckets entirely inside a range; blocked time takes any bucket a range touches
+    private static void mark(boolean[] buckets, List<TimeRange> ranges, int bucketMinutes, boolean inside) {
+        for (TimeRange range : ranges) {
+            for (int bucket = 0; bucket < buckets.length; bucket++) {
+                int start = bucket * bucketMinutes;
+                int end = start + bucketMinutes;
+                boolean hit = inside
+                        ? start >= range.startMinute() && end <= range.endMinute()
+                        : start < range.endMinute() && end > range.startMinute();
+                buckets[bucket] |= hit;
+            }
+        }
+    }
+
+    private static int firstRun(boolean[] free, int length, int earliest) {
+        for (int start = earliest; start + length <= free.length; start++) {
+            int run = 0;
+            while (run < length && free[start + run]) {
+                run++;
+            }
+            if (run == length) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private static List<TimeRange> freeRanges(boolean[] free, int bucketMinutes) {
+        List<TimeRange> ranges = new ArrayList<>();
+        int start = -1;
+        for (int bucket = 0; bucket <= free.length; bucket++) {
+            boolean set = bucket < free.length && free[bucket];
+            if (set && start < 0) {
+                start = bucket;
+            } else if (!set && start >= 0) {
+                ranges.add(new TimeRange(start * bucketMinutes, bucket * bucketMinutes));
+                start = -1;
+            }
+        }
+        return ranges;
+    }
+
+    private static boolean contains(long[] values, long value) {
+        for (long candidate : values) {
+            if (value != 0 && candidate == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,44 @@
+#!/bin/bash
+# AppCDS training run for the fast-startup Maven profile. Starts a service through its
+# generated launcher with CDS_TRAINING=1 on a free port, waits for the first successful
+# request to the health endpoint, then stops it so the JVM writes the archive on exit.
+# A service that cannot become healthy (e.g. no database) still gets an archive of the
+# classes it loaded before failing, with a warning.
+#   scripts/cds-training.sh <launcher.sh> <health-path> [app args...]
+set -u
+
+LAUNCHER="$1"
+HEALTH_PATH="$2"
+shift 2
+DIR="$(dirname "$LAUNCHER")"
+ARCHIVE="${LAUNCHER%.sh}.jsa"
+LOG="$DIR/training.log"
+TIMEOUT="${CDS_TRAINING_TIMEOUT:-180}"
+
+rm -f "$ARCHIVE"
+CDS_TRAINING=1 "$LAUNCHER" --server.port=0 "$@" > "$LOG" 2>&1 &
+PID=$!
+
+healthy=0
+deadline=$((SECONDS + TIMEOUT))
+while [ $SECONDS -lt $deadline ] && kill -0 $PID 2>/dev/null; do
+    # Port 0 picks a free port; Tomcat and Netty both log the one they got
+    PORT=$(grep -oE "started on port(\(s\))?:? [0-9]+" "$LOG" | grep -oE "[0-9]+$" | head -1)
+    if [ -n "$PORT" ] && curl -sf -o /dev/null "http://localhost:$PORT$HEALTH_PATH"; then
+        healthy=1
+        break
+    fi
+    sleep 0.2
+done
+
+kill -TERM $PID 2>/dev/null
+wait $PID 2>/dev/null
+
+if [ ! -f "$ARCHIVE" ]; then
+    echo "CDS training run did not produce $ARCHIVE, see $LOG" >&2
+    exit 1
+fi
+if [ $healthy -eq 0 ]; then
+    echo "WARNING: training run for $(basename "$LAUNCHER" .sh) never answered $HEALTH_PATH; archive covers startup up to that point (see $LOG)" >&2
+fi
+echo "Wrote $ARCHIVE ($(du -h "$ARCHIVE" | cut -f1))"
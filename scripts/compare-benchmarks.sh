@@ -0,0 +1,12 @@
+#!/bin/bash
+# Compares two JMH JSON result files and fails if anything regressed beyond the threshold.
+#   scripts/compare-benchmarks.sh baseline.json candidate.json [threshold-percent, default 5]
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$ROOT/benchmarks/target/benchmarks.jar"
+
+if [ ! -f "$JAR" ]; then
+    (cd "$ROOT" && mvn -B -q -pl benchmarks -am package -DskipTests)
+fi
+java -cp "$JAR" com.clinicsys.benchmarks.CompareResults "$@"
@@ -0,0 +1,18 @@
+#!/bin/sh
+# Generated by the fast-startup Maven profile. Runs the thin jar on Spring AOT's generated
+# context and, once a training run has produced it, with the AppCDS archive next to it.
+# CDS_TRAINING=1 makes this run the training run that writes the archive on exit.
+DIR="$(cd "$(dirname "$0")" && pwd)"
+ARCHIVE="$DIR/@ARTIFACT@.jsa"
+
+if [ "${CDS_TRAINING:-0}" = "1" ]; then
+    CDS="-XX:ArchiveClassesAtExit=$ARCHIVE"
+elif [ -f "$ARCHIVE" ]; then
+    CDS="-XX:SharedArchiveFile=$ARCHIVE"
+else
+    CDS=""
+fi
+
+# Refresh scope is off because it cannot be combined with AOT; the build used the same setting
+exec java $CDS -Dspring.aot.enabled=true $JAVA_OPTS -jar "$DIR/@ARTIFACT@.jar" \
+    --spring.cloud.refresh.enabled=false "$@"
@@ -0,0 +1,14 @@
+#!/bin/bash
+# Builds the benchmarks module and runs JMH, writing JSON results.
+#   scripts/run-benchmarks.sh [output.json] [extra JMH args, e.g. a benchmark regex or -f 2]
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+OUTPUT="${1:-benchmarks/results/$(date +%Y%m%d-%H%M%S).json}"
+shift || true
+
+cd "$ROOT"
+mvn -B -q -pl benchmarks -am package -DskipTests
+mkdir -p "$(dirname "$OUTPUT")"
+java -jar benchmarks/target/benchmarks.jar -rf json -rff "$OUTPUT" "$@"
+echo "Results written to $OUTPUT"
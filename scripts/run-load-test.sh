@@ -0,0 +1,11 @@
+#!/bin/bash
+# Builds the load-test module and runs it. With no --target, auth-service (on H2) and
+# api-gateway are booted in-process; pass --target=http://host:8080 to hit a running gateway.
+#   scripts/run-load-test.sh --rates=50,100,200,400 --stage-duration=30
+set -e
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+
+cd "$ROOT"
+mvn -B -q -pl load-test -am package -DskipTests
+java -jar load-test/target/load-test-1.0.0.jar "$@"
@@ -0,0 +1,85 @@
+#!/bin/bash
+# Time to first successful request (launch until the health endpoint answers 2xx) for each
+# service, as a plain boot jar and as built by the fast-startup profile (thin jar + Spring AOT
+# + AppCDS). Build first with: mvn -Pfast-startup install -DskipTests
+#   scripts/startup-benchmark.sh [-n runs, default 5] [module ...]
+# Services are started on a free port with their fast-startup.training-args. auth-service
+# needs its database running.
+set -u
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+RUNS=5
+if [ "${1:-}" = "-n" ]; then
+    RUNS="$2"
+    shift 2
+fi
+MODULES=("$@")
+if [ ${#MODULES[@]} -eq 0 ]; then
+    MODULES=(service-registry config-server api-gateway auth-service)
+fi
+HEALTH_PATH=/actuator/health
+TIMEOUT=180
+# Services run in a scratch directory so files they write (e.g. registry snapshots) stay out of the tree
+WORK="$(mktemp -d)"
+LOG="$WORK/service.log"
+trap 'rm -rf "$WORK"' EXIT
+cd "$WORK"
+
+# Milliseconds from launch to the first 2xx from the health endpoint, or "-" if it never came
+time_to_first_request() {
+    local start end port pid
+    start=$(date +%s%N)
+    "$@" --server.port=0 > "$LOG" 2>&1 &
+    pid=$!
+    while kill -0 $pid 2>/dev/null && [ $(( ($(date +%s%N) - start) / 1000000000 )) -lt $TIMEOUT ]; do
+        port=$(grep -oE "started on port(\(s\))?:? [0-9]+" "$LOG" | grep -oE "[0-9]+$" | head -1)
+        if [ -n "$port" ] && curl -sf -o /dev/null "http://localhost:$port$HEALTH_PATH"; then
+            end=$(date +%s%N)
+            kill -TERM $pid 2>/dev/null
+            wait $pid 2>/dev/null
+            echo $(( (end - start) / 1000000 ))
+            return
+        fi
+        sleep 0.01
+    done
+    kill -TERM $pid 2>/dev/null
+    wait $pid 2>/dev/null
+    echo "-"
+}
+
+median() {
+    local sorted
+    sorted=($(printf '%s\n' "$@" | grep -v '^-$' | sort -n))
+    if [ ${#sorted[@]} -eq 0 ]; then
+        echo "-"
+    else
+        echo "${sorted[$(( ${#sorted[@]} / 2 ))]}"
+    fi
+}
+
+printf "%-18s %14s %14s %9s\n" "Service" "boot jar ms" "fast ms" "Change"
+for module in "${MODULES[@]}"; do
+    dir="$ROOT/$module/target"
+    jar=$(ls "$dir"/"$module"-*-exec.jar 2>/dev/null || ls "$dir"/"$module"-*[0-9].jar 2>/dev/null)
+    launcher="$dir/fast-startup/$module.sh"
+    if [ -z "$jar" ] || [ ! -x "$launcher" ]; then
+        echo "$module: not built with -Pfast-startup, skipping" >&2
+        continue
+    fi
+    read -r -a args <<< "$(sed -n 's:.*<fast-startup.training-args>\(.*\)</fast-startup.training-args>.*:\1:p' "$ROOT/$module/pom.xml")"
+
+    baseline=()
+    fast=()
+    for ((i = 0; i < RUNS; i++)); do
+        baseline+=("$(time_to_first_request java -jar "$jar" "${args[@]}")")
+        fast+=("$(time_to_first_request "$launcher" "${args[@]}")")
+    done
+    before=$(median "${baseline[@]}")
+    after=$(median "${fast[@]}")
+    if [ "$before" != "-" ] && [ "$after" != "-" ]; then
+        change=$(awk -v b="$before" -v a="$after" 'BEGIN { printf "%+.1f%%", (a - b) * 100 / b }')
+    else
+        change="n/a"
+    fi
+    printf "%-18s %14s %14s %9s\n" "$module" "$before" "$after" "$change"
+done
@@ -3,9 +3,11 @@ package com.clinicsys.serviceregistry;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableEurekaServer
+@EnableScheduling
 public class ServiceRegistryApplication {
 
     public static void main(String[] args) {
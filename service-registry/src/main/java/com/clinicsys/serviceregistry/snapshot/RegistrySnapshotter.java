@@ -0,0 +1,199 @@
+package com.clinicsys.serviceregistry.snapshot;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.converters.EurekaJacksonCodec;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persists the registry's local instances to a gzipped JSON snapshot and restores them on boot,
+ * so a restarted registry answers {@code lb://} lookups within seconds instead of waiting a full
+ * renewal cycle for every client to re-register.
+ * <p>
+ * Restored instances get provisional leases of at most {@code registry.snapshot.provisional-lease-seconds}.
+ * Live clients renew them on their next heartbeat; instances that died while the registry was down
+ * never renew and are evicted like any other expired lease. Snapshots older than
+ * {@code registry.snapshot.max-age} are ignored. Each write goes to a temporary file in the same
+ * directory that is then moved over the snapshot, so a crash mid-write never leaves a torn file.
+ * <p>
+ * The file is only rewritten when the registry changed; otherwise its modification time is
+ * bumped every interval. The age checked on restore is therefore the time since the registry was
+ * last seen in the saved state, not since that state was first written.
+ */
+@Component
+@ConditionalOnProperty(value = "registry.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class RegistrySnapshotter {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistrySnapshotter.class);
+
+    private final PeerAwareInstanceRegistry registry;
+    private final Path snapshotFile;
+    private final long maxAge;
+    private final int provisionalLeaseSeconds;
+    private final EurekaJacksonCodec codec = new EurekaJacksonCodec();
+
+    // No snapshot is written until the previous one has been read back, or an empty registry would overwrite it
+    private volatile boolean restored;
+    private long lastFingerprint;
+
+    public RegistrySnapshotter(
+            PeerAwareInstanceRegistry registry,
+            @Value("${registry.snapshot.path:data/registry-snapshot.json.gz}") String snapshotPath,
+            @Value("${registry.snapshot.max-age:300000}") long maxAge,
+            @Value("${registry.snapshot.provisional-lease-seconds:90}") int provisionalLeaseSeconds) {
+        this.registry = registry;
+        this.snapshotFile = Paths.get(snapshotPath).toAbsolutePath();
+        this.maxAge = maxAge;
+        this.provisionalLeaseSeconds = provisionalLeaseSeconds;
+    }
+
+    @EventListener(EurekaRegistryAvailableEvent.class)
+    public void restore() {
+        try {
+            if (!Files.isRegularFile(snapshotFile)) {
+                return;
+            }
+            long age = System.currentTimeMillis() - Files.getLastModifiedTime(snapshotFile).toMillis();
+            if (age > maxAge) {
+                log.info("Ignoring registry snapshot {}: {} ms old", snapshotFile, age);
+                return;
+            }
+            Applications applications;
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshotFile))) {
+                applications = codec.readValue(Applications.class, in);
+            }
+            int count = 0;
+            for (Application application : applications.getRegisteredApplications()) {
+                for (InstanceInfo instance : application.getInstances()) {
+                    // A client that re-registered before we got here has fresher data than the snapshot
+                    if (registry.getInstanceByAppAndId(instance.getAppName(), instance.getId(), false) == null) {
+                        registry.register(instance, leaseSeconds(instance), true);
+                        count++;
+                    }
+                }
+            }
+            log.info("Restored {} instances from registry snapshot {} ({} ms old)", count, snapshotFile, age);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore registry snapshot {}", snapshotFile, e);
+        } finally {
+            restored = true;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${registry.snapshot.interval:30000}", fixedDelayString = "${registry.snapshot.interval:30000}")
+    public void snapshot() {
+        if (restored) {
+            write(false);
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (restored) {
+            write(true);
+        }
+    }
+
+    private synchronized void write(boolean force) {
+        Applications applications = registry.getApplicationsFromLocalRegionOnly();
+        long fingerprint = fingerprint(applications);
+        if (!force && fingerprint == lastFingerprint && touch()) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            tmp = Files.createTempFile(snapshotFile.getParent(), snapshotFile.getFileName().toString(), ".tmp");
+            // Encoded in memory first: the codec closes its target, and the file must be forced before the move
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(encoded)) {
+                codec.writeTo(applications, out);
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(encoded.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            lastFingerprint = fingerprint;
+            log.debug("Wrote registry snapshot {} with {} instances", snapshotFile, applications.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write registry snapshot {}", snapshotFile, e);
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // Best effort; the next write uses a fresh temp file
+                }
+            }
+        }
+    }
+
+    // Marks the snapshot as still current; false if it has to be written again
+    private boolean touch() {
+        try {
+            Files.setLastModifiedTime(snapshotFile, FileTime.fromMillis(System.currentTimeMillis()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            log.warn("Could not update registry snapshot {}", snapshotFile, e);
+            return false;
+        }
+    }
+
+    private int leaseSeconds(InstanceInfo instance) {
+        LeaseInfo leaseInfo = instance.getLeaseInfo();
+        int duration = leaseInfo != null && leaseInfo.getDurationInSecs() > 0
+                ? leaseInfo.getDurationInSecs()
+                : LeaseInfo.DEFAULT_LEASE_DURATION;
+        return Math.min(duration, provisionalLeaseSeconds);
+    }
+
+    // Changes with membership, status or instance data, not with every heartbeat; independent of iteration order
+    private static long fingerprint(Applications applications) {
+        long sum = 0;
+        for (Application application : applications.getRegisteredApplications()) {
+            for (InstanceInfo instance : application.getInstances()) {
+                long hash = (instance.getAppName() + '/' + instance.getId()).hashCode();
+                hash = hash * 31 + instance.getStatus().ordinal();
+                hash = hash * 31 + Long.hashCode(instance.getLastDirtyTimestamp());
+                sum += hash * 0x9E3779B97F4A7C15L;
+            }
+        }
+        return sum;
+    }
+}